@@ -75,11 +75,39 @@ java {
 application {
     // Define the main class for the application.
     mainClass = "ms.maxwillia.cryptodata.CryptoDataCollector"
+    // java.lang.foreign is still a preview API on Java 21 (MappedTickStorage)
+    applicationDefaultJvmArgs = listOf("--enable-preview")
+}
+
+tasks.named<JavaExec>("run") {
+    // Pass -D options given to Gradle on to the collector, e.g. ./gradlew :app:run -Dcoinbase.ws.url=...
+    systemProperties(gradle.startParameter.systemPropertiesArgs)
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.compilerArgs.add("--enable-preview")
+}
+
+tasks.register<JavaExec>("loggingBenchmark") {
+    group = "benchmark"
+    description = "Measures ticker handling throughput with debug logging off and on."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass = "ms.maxwillia.cryptodata.benchmark.LoggingBenchmark"
+    jvmArgs("--enable-preview")
+}
+
+tasks.register<JavaExec>("threadingBenchmark") {
+    group = "benchmark"
+    description = "Compares platform and virtual thread execution across increasing pair counts."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass = "ms.maxwillia.cryptodata.benchmark.ThreadingBenchmark"
+    jvmArgs("--enable-preview")
 }
 
 tasks.named<Test>("test") {
     // Use JUnit Platform for unit tests.
     useJUnitPlatform()
+    jvmArgs("--enable-preview")
 }
 
 tasks.named("compileJava") {
@@ -1,54 +1,136 @@
 package ms.maxwillia.cryptodata;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
+import ms.maxwillia.cryptodata.admin.AdminServer;
 import ms.maxwillia.cryptodata.client.BaseExchangeClient;
 import ms.maxwillia.cryptodata.client.collector.BaseExchangeCollector;
 import ms.maxwillia.cryptodata.client.collector.ExchangeCollector;
+import ms.maxwillia.cryptodata.client.collector.replay.RawFrameTickReader;
+import ms.maxwillia.cryptodata.client.collector.replay.ReplayCollector;
 import ms.maxwillia.cryptodata.client.collector.rest.FiriRestCollector;
+import ms.maxwillia.cryptodata.client.collector.websocket.BaseWebSocketCollector;
 import ms.maxwillia.cryptodata.client.collector.websocket.CoinbaseWebSocketCollector;
+import ms.maxwillia.cryptodata.cluster.Sharding;
+import ms.maxwillia.cryptodata.concurrent.ExecutionMode;
+import ms.maxwillia.cryptodata.concurrent.ParallelStartup;
+import ms.maxwillia.cryptodata.config.CollectorConfig;
+import ms.maxwillia.cryptodata.config.KeySettings;
+import ms.maxwillia.cryptodata.config.PairConfig;
+import ms.maxwillia.cryptodata.fx.FxRate;
+import ms.maxwillia.cryptodata.fx.FxRateService;
+import ms.maxwillia.cryptodata.logging.CountingAsyncAppender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.FixedPointTick;
+import ms.maxwillia.cryptodata.model.TickView;
+import ms.maxwillia.cryptodata.pipeline.AdaptiveBatcher;
+import ms.maxwillia.cryptodata.pipeline.LatestTicks;
+import ms.maxwillia.cryptodata.pipeline.OverflowPolicy;
+import ms.maxwillia.cryptodata.pipeline.TickBus;
+import ms.maxwillia.cryptodata.pipeline.TickDeduplicator;
+import ms.maxwillia.cryptodata.pipeline.TickQueue;
+import ms.maxwillia.cryptodata.storage.BinaryTickStorage;
 import ms.maxwillia.cryptodata.storage.CsvStorage;
+import ms.maxwillia.cryptodata.storage.Durability;
+import ms.maxwillia.cryptodata.storage.GroupCommitter;
+import ms.maxwillia.cryptodata.storage.MappedTickStorage;
+import ms.maxwillia.cryptodata.storage.RawFrameCapture;
+import ms.maxwillia.cryptodata.storage.SyncLatency;
+import ms.maxwillia.cryptodata.storage.TickStorage;
 
 public class CryptoDataCollector {
     private static final Logger logger = LoggerFactory.getLogger(CryptoDataCollector.class);
     private static final int QUEUE_CAPACITY = 10000;
-    private static final int BATCH_SIZE = 100;
-    private static final int FLUSH_INTERVAL_MS = 1000;
+    // How long an idle processor waits for a tick before checking whether it should stop
+    private static final long IDLE_POLL_MS = 100;
+    // Endpoint overrides, e.g. to run against the local exchange simulator
+    static final String COINBASE_WS_URL_PROPERTY = "coinbase.ws.url";
+    static final String FIRI_API_URL_PROPERTY = "firi.api.url";
+    // Directory to capture raw exchange messages to; capture is off when unset
+    static final String CAPTURE_DIR_PROPERTY = "capture.dir";
+    // Tick file format: csv (default), binary or mapped (needs --enable-preview)
+    static final String STORAGE_FORMAT_PROPERTY = "storage.format";
+    // How long stop() lets processors drain their queues to storage
+    static final String SHUTDOWN_DRAIN_MS_PROPERTY = "shutdown.drain.ms";
+    private static final long DEFAULT_SHUTDOWN_DRAIN_MS = 10000;
+    private static final long PROCESSOR_JOIN_GRACE_MS = 1000;
+    // Number of shared writer threads; 0 (default) runs one processor per queue
+    static final String WRITER_THREADS_PROPERTY = "writer.threads";
+    private static final long MIN_IDLE_NANOS = 100_000;
+    private static final long MAX_IDLE_NANOS = 10_000_000;
+    static final String REPLAY_COMMAND = "replay";
+    // Redundant connections per pair, merged by de-duplication; 1 (default) collects each pair once
+    static final String REPLICAS_PROPERTY = "collector.replicas";
+    // Load the pairs and their settings from a JSON file instead of ASSET;INTERMEDIATE arguments
+    static final String CONFIG_OPTION = "--config";
 
-    private final Map<String, BlockingQueue<CryptoTick>> dataQueues;
-    private final Map<String, CsvStorage> storages;
+    private final Map<String, TickQueue> dataQueues;
+    private final Map<String, TickStorage> storages;
     private final Map<String, QueueMetrics> queueMetrics;
     private final List<ExchangeCollector> clients;
+    private final Map<String, RawFrameCapture> rawFrameCaptures;
     private volatile boolean running = true;
-    private final List<Thread> processors;
+    private volatile long drainDeadline = Long.MAX_VALUE;
+    private final Map<String, Thread> processors;
+    private final Map<String, DrainResult> drainResults;
+    private StartupReport startupReport;
+    private ShutdownReport shutdownReport;
+    private final ExecutionMode executionMode;
+    private final Durability durability;
+    private final GroupCommitter groupCommitter;
+    private final LatestTicks latestTicks = new LatestTicks();
+    private final TickBus tickBus;
+    // Keys whose processor should drain and stop while the others keep running
+    private final Set<String> retiring = ConcurrentHashMap.newKeySet();
+    private volatile boolean started;
+    // Pairs and settings the collector was created from, null when replaying
+    private CollectorConfig config;
+    // Which of the configured pairs this instance collects, null when it collects them all
+    private Sharding sharding;
+    // Writer threads shared by every queue, empty unless writer.threads is set
+    private int writerThreads;
+    private final List<SharedWriter> sharedWriters = new ArrayList<>();
+    private int nextSharedWriter;
+
+    /**
+     * @param added keys assigned after the writer started, picked up on its next pass
+     */
+    private record SharedWriter(Thread thread, Queue<String> added) {
+    }
 
     private static class QueueMetrics {
-        private long totalReceived = 0;
+        // Received and dropped ticks are counted by the queue as they are offered
+        private final TickQueue queue;
         private long totalProcessed = 0;
-        private long totalDropped = 0;
         private final AtomicInteger queueSize = new AtomicInteger(0);
+        private final SyncLatency syncLatency = new SyncLatency();
+        private final AdaptiveBatcher batcher;
 
-        void recordReceived(boolean accepted) {
-            totalReceived++;
-            if (!accepted) {
-                totalDropped++;
-            }
+        QueueMetrics(TickQueue queue, AdaptiveBatcher batcher) {
+            this.queue = queue;
+            this.batcher = batcher;
         }
 
         void recordProcessed() {
             totalProcessed++;
         }
 
+        void recordProcessed(int ticks) {
+            totalProcessed += ticks;
+        }
+
         int getCurrentQueueSize() {
             return queueSize.get();
         }
@@ -58,106 +140,411 @@ public class CryptoDataCollector {
         }
 
         double getDropRate() {
-            return totalReceived == 0 ? 0 : (double) totalDropped / totalReceived * 100;
+            long received = queue.getReceived();
+            return received == 0 ? 0 : (double) queue.getDropped() / received * 100;
         }
     }
 
-    public CryptoDataCollector(String[] assets, String[] intermediates) throws IOException {
+    /**
+     * Outcome of draining one queue to storage on shutdown
+     *
+     * @param flushed   ticks written to storage after collection stopped
+     * @param abandoned ticks left in the queue when the drain deadline passed
+     * @param synced    whether storage was forced to disk and closed
+     */
+    public record DrainResult(long flushed, long abandoned, boolean synced) {
+    }
+
+    /**
+     * Outcome of {@link #start()}
+     *
+     * @param started   pairs with at least one collector started
+     * @param failed    pairs whose collectors all failed or missed the start-up deadline
+     * @param elapsedMs time taken to start every collector and processor
+     */
+    public record StartupReport(Set<String> started, Set<String> failed, long elapsedMs) {
+    }
+
+    /**
+     * Outcome of {@link #stop()} across all queues
+     */
+    public record ShutdownReport(Map<String, DrainResult> results) {
+        public long flushed() {
+            return results.values().stream().mapToLong(DrainResult::flushed).sum();
+        }
+
+        public long abandoned() {
+            return results.values().stream().mapToLong(DrainResult::abandoned).sum();
+        }
+
+        public boolean complete() {
+            return results.values().stream().allMatch(result -> result.abandoned() == 0 && result.synced());
+        }
+    }
+
+    private CryptoDataCollector() {
         this.dataQueues = new ConcurrentHashMap<>();
-        this.storages = new HashMap<>();
-        this.queueMetrics = new HashMap<>();
-        this.clients = new ArrayList<>();
-        this.processors = new ArrayList<>();
+        // Pairs may be started and stopped while running, e.g. as shards come and go
+        this.storages = new ConcurrentHashMap<>();
+        this.queueMetrics = new ConcurrentHashMap<>();
+        this.clients = new CopyOnWriteArrayList<>();
+        this.rawFrameCaptures = new ConcurrentHashMap<>();
+        this.processors = new ConcurrentHashMap<>();
+        this.drainResults = new ConcurrentHashMap<>();
+        this.executionMode = ExecutionMode.configured();
+        this.durability = Durability.configured();
+        this.groupCommitter = durability == Durability.GROUP_COMMIT
+                ? new GroupCommitter(Long.getLong(Durability.GROUP_COMMIT_MS_PROPERTY, Durability.DEFAULT_GROUP_COMMIT_MS), executionMode)
+                : null;
+        this.tickBus = TickBus.configured(executionMode);
+        logger.info("Running on {} threads with {} durability", executionMode.name().toLowerCase(), durability.name().toLowerCase());
 
+        // Start metrics reporting thread
+        executionMode.newThread("MetricsReporter", true, this::reportMetrics).start();
+    }
+
+    public CryptoDataCollector(String[] assets, String[] intermediates) throws IOException {
+        this(CollectorConfig.forAssets(assets, intermediates));
+    }
+
+    /**
+     * Create a collector for every pair in the config, or when {@link Sharding} is configured, for
+     * the pairs this instance's shard owns
+     */
+    public CryptoDataCollector(CollectorConfig config) throws IOException {
+        this();
+        this.config = config;
+        this.sharding = Sharding.configured();
         // Create all necessary components for each symbol
-        createExchangeClientsAndComponents(assets, intermediates);
+        createCollectors(config);
+    }
 
-        // Start metrics reporting thread
-        Thread metricsThread = new Thread(this::reportMetrics, "MetricsReporter");
-        metricsThread.setDaemon(true);
-        metricsThread.start();
+    /**
+     * Create a collector that replays previously recorded tick files through the same queues and storage
+     * as live collection
+     *
+     * @param files recorded tick files or raw frame segments; files for the same exchange and pair are
+     *              replayed in file name order
+     * @param speed replay speed relative to the recorded pace, or {@link ReplayCollector#AS_FAST_AS_POSSIBLE}
+     */
+    public static CryptoDataCollector replay(List<Path> files, double speed) throws IOException {
+        CryptoDataCollector collector = new CryptoDataCollector();
+        Map<String, List<Path>> filesByKey = new TreeMap<>();
+        for (Path file : files) {
+            String[] parts = ReplayCollector.nameParts(file);
+            filesByKey.computeIfAbsent(generateKey(parts[0], parts[1]), key -> new ArrayList<>()).add(file);
+        }
+        for (List<Path> keyFiles : filesByKey.values()) {
+            keyFiles.sort(Comparator.comparing(file -> file.getFileName().toString()));
+            TickQueue queue = new TickQueue(QUEUE_CAPACITY);
+            collector.registerCollector(new ReplayCollector(keyFiles, speed, queue), queue, new KeySettings(), null);
+        }
+        return collector;
     }
 
     static String generateKey(String exchange, String pairKey) {
         return String.format("%s_%s", exchange, pairKey);
     }
 
-    private void createExchangeClientsAndComponents(String[] assetCurrencies, String[]intermediateCurrencies) throws IOException {
-        BaseExchangeCollector client;
-        String key;
-        for (int i = 0; i < assetCurrencies.length; i++) {
-            String assetCurrency = assetCurrencies[i];
-            String intermediateCurrency = intermediateCurrencies[i];
-
-            for (String exchange : Arrays.asList("Coinbase", "Firi")) {
-                LinkedBlockingQueue<CryptoTick> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
-
-                // Create client
-                if (exchange.equals("Coinbase")) {
-                    client = new CoinbaseWebSocketCollector(assetCurrency, null, queue);
-                } else if (exchange.equals("Firi")) {
-                    client = new FiriRestCollector(assetCurrency, intermediateCurrency, queue);
-                } else {
-                    throw new IllegalArgumentException("Unknown exchange: " + exchange);
+    /**
+     * Queue key of a configured pair, known before its collector is created
+     */
+    static String pairKey(PairConfig pair) {
+        String settlementCurrency = switch (pair.getExchange()) {
+            case "Coinbase" -> CoinbaseWebSocketCollector.SETTLEMENT_CURRENCY;
+            case "Firi" -> FiriRestCollector.SETTLEMENT_CURRENCY;
+            default -> throw new IllegalArgumentException("Unknown exchange: " + pair.getExchange());
+        };
+        return generateKey(pair.getExchange(), BaseExchangeClient.getTradePair(pair.getAsset(), settlementCurrency));
+    }
+
+    private static Map<String, PairConfig> pairsByKey(CollectorConfig config) {
+        Map<String, PairConfig> pairs = new LinkedHashMap<>();
+        for (PairConfig pair : config.getPairs()) {
+            pairs.putIfAbsent(pairKey(pair), pair);
+        }
+        return pairs;
+    }
+
+    private void createCollectors(CollectorConfig config) throws IOException {
+        config.validate();
+        Collection<PairConfig> pairs = config.getPairs();
+        if (sharding != null) {
+            sharding.renew();
+            Map<String, PairConfig> configured = pairsByKey(config);
+            Set<String> owned = sharding.ownedKeys(configured.keySet());
+            logger.info("Shard {} of {} collecting {} of {} pairs: {}", sharding.getShardIndex(), sharding.getShardCount(),
+                    owned.size(), configured.size(), owned);
+            pairs = owned.stream().map(configured::get).toList();
+        }
+        for (PairConfig pair : pairs) {
+            startPair(pair);
+        }
+    }
+
+    /**
+     * Create the queue, collector, storage and capture for a pair. Once the collector has been
+     * started, the pair is started straight away with a processor of its own.
+     */
+    private synchronized void startPair(PairConfig pair) throws IOException {
+        KeySettings settings = config.settingsFor(pair);
+        int capacity = settings.getQueueCapacity() != null ? settings.getQueueCapacity() : QUEUE_CAPACITY;
+        TickQueue queue = new TickQueue(capacity);
+        int replicas = settings.getReplicas() != null ? settings.getReplicas() : Integer.getInteger(REPLICAS_PROPERTY, 1);
+        if (pair.isTickRing()) {
+            if (replicas > 1) {
+                throw new IllegalArgumentException("%s: a tick ring has a single producer, not %d replicas"
+                        .formatted(pairKey(pair), replicas));
+            }
+            queue.useRing(capacity);
+        }
+        List<BaseExchangeCollector> pairClients = new ArrayList<>();
+        for (int i = 0; i < replicas; i++) {
+            pairClients.add(createCollector(pair, settings, queue));
+        }
+        BaseExchangeCollector client = pairClients.get(0);
+        String key = generateKey(pair.getExchange(), client.getTradePair());
+        if (replicas > 1) {
+            if (!(client instanceof BaseWebSocketCollector)) {
+                throw new IllegalArgumentException("%s: redundant collectors need a websocket transport".formatted(key));
+            }
+            // Every connection offers to the same queue, which keeps the first copy of each tick
+            queue.setDeduplicator(TickDeduplicator.configured());
+            logger.info("{} - Collecting over {} redundant connections", key, replicas);
+        }
+        registerCollector(client, queue, settings, pair.isFixedPoint() ? client.getTickScale() : null);
+        clients.addAll(pairClients.subList(1, replicas));
+
+        // Only the first connection is captured, as the others carry the same frames
+        String captureDir = System.getProperty(CAPTURE_DIR_PROPERTY);
+        if (captureDir != null) {
+            RawFrameCapture capture = new RawFrameCapture(Path.of(captureDir), key,
+                    RawFrameTickReader.metadata(pair.getExchange(), pair.getAsset(), pair.getIntermediate()));
+            client.setRawFrameCapture(capture);
+            rawFrameCaptures.put(key, capture);
+        }
+        if (started) {
+            boolean anyStarted = false;
+            for (BaseExchangeCollector pairClient : pairClients) {
+                anyStarted |= startClient(pairClient);
+            }
+            if (!anyStarted) {
+                stopPair(key);
+                throw new IllegalStateException(key + " failed to start");
+            }
+            if (writerThreads > 0) {
+                assignSharedWriter(key);
+            } else {
+                startProcessor(client);
+            }
+        }
+    }
+
+    /**
+     * Stop collecting one pair and drain its queue to storage, leaving the other pairs running
+     *
+     * @return outcome of the drain, or null if the pair was not being collected
+     */
+    private synchronized DrainResult stopPair(String key) {
+        List<ExchangeCollector> pairClients = clients.stream()
+                .filter(candidate -> keyOf(candidate).equals(key))
+                .toList();
+        if (pairClients.isEmpty()) {
+            return null;
+        }
+        for (ExchangeCollector client : pairClients) {
+            try {
+                client.stopDataCollection();
+            } catch (RuntimeException e) {
+                logger.error("Error stopping {}", client, e);
+            }
+        }
+
+        DrainResult result;
+        Thread processor = processors.get(key);
+        if (processor != null) {
+            retiring.add(key);
+            long deadline = System.currentTimeMillis()
+                    + Long.getLong(SHUTDOWN_DRAIN_MS_PROPERTY, DEFAULT_SHUTDOWN_DRAIN_MS) + PROCESSOR_JOIN_GRACE_MS;
+            try {
+                // A shared writer keeps running after draining the key, so wait for the result rather than the thread
+                while (!drainResults.containsKey(key) && processor.isAlive() && System.currentTimeMillis() < deadline) {
+                    processor.join(IDLE_POLL_MS);
                 }
-                clients.add(client);
-                key = generateKey(exchange, client.getTradePair());
-                dataQueues.put(key, queue);
-                queueMetrics.put(key, new QueueMetrics());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            retiring.remove(key);
+            result = drainResults.remove(key);
+            if (result == null) {
+                logger.error("{} - Processor did not finish draining", key);
+                result = new DrainResult(0, dataQueues.get(key).size(), false);
+            }
+        } else {
+            if (groupCommitter != null) {
+                groupCommitter.unregister(key);
+            }
+            storages.get(key).close();
+            TickQueue queue = dataQueues.get(key);
+            result = new DrainResult(0, queue.size(), true);
+            queue.close();
+        }
+
+        clients.removeAll(pairClients);
+        processors.remove(key);
+        dataQueues.remove(key);
+        storages.remove(key);
+        queueMetrics.remove(key);
+        RawFrameCapture capture = rawFrameCaptures.remove(key);
+        if (capture != null) {
+            capture.close();
+        }
+        logger.info("{} - Stopped, flushed: {}, Abandoned: {}, Synced: {}",
+                key, result.flushed(), result.abandoned(), result.synced());
+        return result;
+    }
 
-                // Setup storage
-                String timestamp = java.time.LocalDateTime.now()
-                        .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-                String filename = String.format("%s%s_%s.csv",
-                        System.getProperty("java.io.tmpdir"),
-                        key,
-                        timestamp);
-                CsvStorage storage = new CsvStorage(filename);
-                logger.info("Using CSV file: {}", storage.getFilename());
-                storages.put(key, storage);
+    private static BaseExchangeCollector createCollector(PairConfig pair, KeySettings settings, TickQueue queue) {
+        switch (pair.getExchange()) {
+            case "Coinbase" -> {
+                requireTransport(pair, PairConfig.Transport.WEBSOCKET);
+                if (pair.getIntermediate() != null) {
+                    throw new IllegalArgumentException("Coinbase settles in USD and takes no intermediate currency, not "
+                            + pair.getIntermediate());
+                }
+                if (pair.isRateStream()) {
+                    throw new IllegalArgumentException("Coinbase pairs are not used as rate streams");
+                }
+                if (pair.isFixedPoint()) {
+                    throw new IllegalArgumentException("Coinbase pairs are not converted in fixed point");
+                }
+                CoinbaseWebSocketCollector coinbaseCollector = new CoinbaseWebSocketCollector(pair.getAsset(), null, queue);
+                String url = pair.getUrl() != null ? pair.getUrl() : System.getProperty(COINBASE_WS_URL_PROPERTY);
+                if (url != null) {
+                    coinbaseCollector.setWebSocketUrl(url);
+                }
+                coinbaseCollector.setTickRing(queue.getRing());
+                return coinbaseCollector;
+            }
+            case "Firi" -> {
+                requireTransport(pair, PairConfig.Transport.REST);
+                if (pair.isTickRing()) {
+                    throw new IllegalArgumentException("Firi pairs are not published through a tick ring");
+                }
+                FiriRestCollector firiCollector = new FiriRestCollector(pair.getAsset(), pair.getIntermediate(), queue);
+                firiCollector.setRateStream(pair.isRateStream());
+                firiCollector.setFixedPoint(pair.isFixedPoint());
+                String url = pair.getUrl() != null ? pair.getUrl() : System.getProperty(FIRI_API_URL_PROPERTY);
+                if (url != null) {
+                    firiCollector.setBaseUrl(url);
+                }
+                if (settings.getPollIntervalMs() != null) {
+                    firiCollector.setPollingIntervalMs(settings.getPollIntervalMs());
+                }
+                return firiCollector;
             }
+            default -> throw new IllegalArgumentException("Unknown exchange: " + pair.getExchange());
+        }
+    }
+
+    private static void requireTransport(PairConfig pair, PairConfig.Transport supported) {
+        if (pair.getTransport() != null && pair.getTransport() != supported) {
+            throw new IllegalArgumentException("%s only supports %s transport, not %s".formatted(
+                    pair.getExchange(), supported.name().toLowerCase(), pair.getTransport().name().toLowerCase()));
+        }
+    }
+
+    /**
+     * Set up the queue, metrics and storage for a collector
+     *
+     * @param settings        per-key settings; unset values come from the system properties
+     * @param fixedPointScale scale to store fixed-point ticks at, or null to store doubles
+     */
+    private void registerCollector(ExchangeCollector client, TickQueue queue, KeySettings settings,
+                                   FixedPointTick.Scale fixedPointScale) throws IOException {
+        String key = keyOf(client);
+        String format = settings.getStorage() != null ? settings.getStorage() : System.getProperty(STORAGE_FORMAT_PROPERTY, "csv");
+        if (fixedPointScale != null && !format.equals("binary")) {
+            throw new IllegalArgumentException("%s: fixed-point ticks need binary storage, not %s".formatted(key, format));
+        }
+        if (queue.getRing() != null && format.equals("csv")) {
+            throw new IllegalArgumentException("%s: a tick ring needs binary or mapped storage, not csv".formatted(key));
         }
+        clients.add(client);
+        OverflowPolicy overflowPolicy = settings.getOverflow() != null ? settings.getOverflow() : OverflowPolicy.configured(key);
+        queue.useOverflowPolicy(overflowPolicy,
+                Path.of(System.getProperty(OverflowPolicy.SPILL_DIR_PROPERTY, System.getProperty("java.io.tmpdir"))),
+                key);
+        if (overflowPolicy != OverflowPolicy.DROP_NEWEST) {
+            logger.info("{} - Queue overflow policy: {}", key, overflowPolicy.name().toLowerCase());
+        }
+        queue.setLatestTicks(latestTicks);
+        queue.setTickBus(tickBus);
+        dataQueues.put(key, queue);
+        AdaptiveBatcher batcher = AdaptiveBatcher.configured(settings.getBatchMaxLatencyMs(), settings.getBatchMaxBytes(), TickView.BYTES);
+        QueueMetrics metrics = new QueueMetrics(queue, batcher);
+        queueMetrics.put(key, metrics);
 
+        // Setup storage
+        String timestamp = java.time.LocalDateTime.now()
+                .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        String prefix = String.format("%s%s_%s",
+                System.getProperty("java.io.tmpdir"),
+                key,
+                timestamp);
+        TickStorage storage = switch (format) {
+            case "csv" -> new CsvStorage(prefix + ".csv");
+            case "binary" -> new BinaryTickStorage(prefix + BinaryTickStorage.FILE_SUFFIX, fixedPointScale);
+            case "mapped" -> new MappedTickStorage(prefix + BinaryTickStorage.FILE_SUFFIX);
+            default -> throw new IllegalArgumentException("Unknown %s: %s".formatted(STORAGE_FORMAT_PROPERTY, format));
+        };
+        logger.info("Using {} file: {}", format, storage.getFilename());
+        storages.put(key, storage);
+        if (groupCommitter != null) {
+            groupCommitter.register(key, storage, metrics.syncLatency);
+        }
     }
 
 
     private void processData(String key) {
-        BlockingQueue<CryptoTick> queue = dataQueues.get(key);
-        CsvStorage storage = storages.get(key);
+        TickQueue queue = dataQueues.get(key);
+        TickStorage storage = storages.get(key);
         QueueMetrics metrics = queueMetrics.get(key);
-        List<CryptoTick> batch = new ArrayList<>(BATCH_SIZE);
-        long lastFlushTime = System.currentTimeMillis();
+        AdaptiveBatcher batcher = metrics.batcher;
+        List<CryptoTick> batch = new ArrayList<>();
+        long batchStart = 0;
 
-        while (running) {
+        while (running && !retiring.contains(key)) {
             try {
                 // Update queue size metric
                 metrics.updateQueueSize(queue.size());
 
-                // Try to fill batch
-                while (batch.size() < BATCH_SIZE) {
-                    CryptoTick tick = queue.poll(100, TimeUnit.MILLISECONDS);
-                    if (tick != null) {
-                        batch.add(tick);
-                        metrics.recordProcessed();
-                    } else {
-                        break;
+                if (batch.isEmpty()) {
+                    // Block for the next tick, so a quiet pair writes it as soon as it arrives
+                    CryptoTick tick = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                    batcher.arrived(tick == null ? 0 : 1, System.nanoTime());
+                    if (tick == null) {
+                        continue;
                     }
+                    batch.add(tick);
+                    batchStart = System.nanoTime();
                 }
 
-                // Process batch if we have data or enough time has passed
-                long currentTime = System.currentTimeMillis();
-                if (!batch.isEmpty() &&
-                        (batch.size() >= BATCH_SIZE || currentTime - lastFlushTime >= FLUSH_INTERVAL_MS)) {
+                // Top the batch up to the size expected within the latency target
+                int target = batcher.targetBatchSize();
+                int taken = queue.drainTo(batch, Math.max(0, target - batch.size()));
+                long now = System.nanoTime();
+                batcher.arrived(taken, now);
 
-                    // Write all ticks in batch
-                    for (CryptoTick tick : batch) {
-                        storage.storeTick(tick);
+                long waitNanos = batchStart + batcher.getMaxLatencyNanos() - now;
+                if (batch.size() >= target || waitNanos <= 0) {
+                    writeBatch(storage, metrics, batch);
+                } else {
+                    CryptoTick tick = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+                    if (tick != null) {
+                        batch.add(tick);
+                        batcher.arrived(1, System.nanoTime());
                     }
-
-                    // Flush after writing batch
-                    storage.flush();
-                    lastFlushTime = currentTime;
-                    batch.clear();
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -166,6 +553,226 @@ public class CryptoDataCollector {
                 logger.error("Error processing batch for {}", key, e);
             }
         }
+
+        drainResults.put(key, drain(key, queue, storage, metrics, batch));
+    }
+
+    private void writeBatch(TickStorage storage, QueueMetrics metrics, List<CryptoTick> batch) {
+        try {
+            for (CryptoTick tick : batch) {
+                storage.storeTick(tick);
+                metrics.recordProcessed();
+            }
+            storage.flush();
+            if (durability == Durability.PER_BATCH) {
+                metrics.syncLatency.time(storage::force);
+            }
+            metrics.batcher.recordBatch(batch.size());
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Processor of a queue carrying a tick ring: stores ticks straight from the ring slots, backing
+     * off while it is empty
+     */
+    private void processRing(String key) {
+        TickQueue queue = dataQueues.get(key);
+        TickStorage storage = storages.get(key);
+        QueueMetrics metrics = queueMetrics.get(key);
+        long idleNanos = MIN_IDLE_NANOS;
+
+        while (running && !retiring.contains(key)) {
+            try {
+                metrics.updateQueueSize(queue.size());
+                if (writeRing(queue, storage, metrics) > 0) {
+                    storage.flush();
+                    if (durability == Durability.PER_BATCH) {
+                        metrics.syncLatency.time(storage::force);
+                    }
+                    idleNanos = MIN_IDLE_NANOS;
+                } else {
+                    LockSupport.parkNanos(idleNanos);
+                    idleNanos = Math.min(idleNanos * 2, MAX_IDLE_NANOS);
+                }
+            } catch (Exception e) {
+                logger.error("Error processing ring for {}", key, e);
+            }
+        }
+
+        drainResults.put(key, drain(key, queue, storage, metrics, new ArrayList<>()));
+    }
+
+    /**
+     * Store one batch from the queue's tick ring, if it has one, without flushing
+     *
+     * @return number of ticks stored
+     */
+    private static int writeRing(TickQueue queue, TickStorage storage, QueueMetrics metrics) {
+        int written = queue.drainRingTo(storage, metrics.batcher.getMaxBatchTicks());
+        if (written > 0) {
+            metrics.recordProcessed(written);
+            metrics.batcher.recordBatch(written);
+        }
+        return written;
+    }
+
+    /**
+     * Shared writer loop: each pass drains every assigned queue into its storage, then flushes all
+     * the storages written to, so busy queues coalesce into one large write per pass.
+     */
+    private void writeShared(List<String> keys, Queue<String> added) {
+        List<CryptoTick> batch = new ArrayList<>();
+        boolean[] written = new boolean[keys.size()];
+        long idleNanos = MIN_IDLE_NANOS;
+
+        while (running) {
+            // Take on keys added since the last pass before looking for keys being stopped
+            if (takeAdded(keys, added)) {
+                written = Arrays.copyOf(written, keys.size());
+            }
+            if (!retiring.isEmpty()) {
+                // Drain keys being stopped individually and carry on writing the rest
+                List<String> stopping = keys.stream().filter(retiring::contains).toList();
+                if (!stopping.isEmpty()) {
+                    for (String key : stopping) {
+                        drainResults.put(key, drain(key, dataQueues.get(key), storages.get(key), queueMetrics.get(key), batch));
+                    }
+                    keys.removeAll(stopping);
+                    written = new boolean[keys.size()];
+                }
+            }
+            boolean wroteAny = false;
+            for (int i = 0; i < keys.size(); i++) {
+                String key = keys.get(i);
+                TickQueue queue = dataQueues.get(key);
+                QueueMetrics metrics = queueMetrics.get(key);
+                metrics.updateQueueSize(queue.size());
+                if (queue.getRing() != null) {
+                    try {
+                        if (writeRing(queue, storages.get(key), metrics) > 0) {
+                            written[i] = true;
+                            wroteAny = true;
+                        }
+                    } catch (Exception e) {
+                        logger.error("Error writing ring for {}", key, e);
+                    }
+                    continue;
+                }
+                if (queue.drainTo(batch, metrics.batcher.getMaxBatchTicks()) == 0) {
+                    continue;
+                }
+                metrics.batcher.recordBatch(batch.size());
+                try {
+                    TickStorage storage = storages.get(key);
+                    for (CryptoTick tick : batch) {
+                        storage.storeTick(tick);
+                        metrics.recordProcessed();
+                    }
+                    written[i] = true;
+                    wroteAny = true;
+                } catch (Exception e) {
+                    logger.error("Error writing batch of {} ticks for {}", batch.size(), key, e);
+                } finally {
+                    batch.clear();
+                }
+            }
+
+            for (int i = 0; i < keys.size(); i++) {
+                if (written[i]) {
+                    written[i] = false;
+                    String key = keys.get(i);
+                    try {
+                        TickStorage storage = storages.get(key);
+                        storage.flush();
+                        if (durability == Durability.PER_BATCH) {
+                            queueMetrics.get(key).syncLatency.time(storage::force);
+                        }
+                    } catch (Exception e) {
+                        logger.error("Error flushing {}", key, e);
+                    }
+                }
+            }
+
+            // Back off while every queue is empty, without delaying a busy writer
+            if (wroteAny) {
+                idleNanos = MIN_IDLE_NANOS;
+            } else {
+                LockSupport.parkNanos(idleNanos);
+                idleNanos = Math.min(idleNanos * 2, MAX_IDLE_NANOS);
+            }
+        }
+
+        takeAdded(keys, added);
+        for (String key : keys) {
+            drainResults.put(key, drain(key, dataQueues.get(key), storages.get(key), queueMetrics.get(key), batch));
+        }
+    }
+
+    /**
+     * @return whether any keys were added
+     */
+    private static boolean takeAdded(List<String> keys, Queue<String> added) {
+        boolean any = false;
+        String key;
+        while ((key = added.poll()) != null) {
+            keys.add(key);
+            any = true;
+        }
+        return any;
+    }
+
+    /**
+     * Write the in-flight batch and whatever is left in the queue until it is empty or the drain
+     * deadline passes, then force storage to disk and close it. Only the processor that owns the
+     * storage calls this, so nothing can write to it once it is closed.
+     */
+    private DrainResult drain(String key, TickQueue queue, TickStorage storage,
+                              QueueMetrics metrics, List<CryptoTick> batch) {
+        long flushed = 0;
+        long abandoned = 0;
+        boolean synced = false;
+        if (groupCommitter != null) {
+            groupCommitter.unregister(key);
+        }
+        try {
+            for (CryptoTick tick : batch) {
+                storage.storeTick(tick);
+                metrics.recordProcessed();
+                flushed++;
+            }
+            batch.clear();
+            int fromRing;
+            while (System.currentTimeMillis() < drainDeadline
+                    && (fromRing = queue.drainRingTo(storage, metrics.batcher.getMaxBatchTicks())) > 0) {
+                metrics.recordProcessed(fromRing);
+                flushed += fromRing;
+            }
+            CryptoTick tick;
+            while (System.currentTimeMillis() < drainDeadline && (tick = queue.poll()) != null) {
+                storage.storeTick(tick);
+                metrics.recordProcessed();
+                flushed++;
+            }
+            abandoned = queue.size();
+            storage.flush();
+            metrics.syncLatency.time(storage::force);
+            synced = true;
+        } catch (RuntimeException e) {
+            logger.error("Error draining {} to storage", key, e);
+        } finally {
+            abandoned = Math.max(abandoned, batch.size() + queue.size());
+            // Deletes any spilled ticks that did not make it to storage
+            queue.close();
+            try {
+                storage.close();
+            } catch (RuntimeException e) {
+                logger.error("Error closing storage for {}", key, e);
+                synced = false;
+            }
+        }
+        return new DrainResult(flushed, abandoned, synced);
     }
 
     private void reportMetrics() {
@@ -175,13 +782,68 @@ public class CryptoDataCollector {
                 for (Map.Entry<String, QueueMetrics> entry : queueMetrics.entrySet()) {
                     QueueMetrics metrics = entry.getValue();
                     logger.info("{} - Queue size: {}, Drop rate: {}%, " +
-                                    "Received: {}, Processed: {}, Dropped: {}",
+                                    "Received: {}, Processed: {}, Dropped: {}, Overflowed: {}, Held back: {}",
                             entry.getKey(),
                             metrics.getCurrentQueueSize(),
-                            metrics.getDropRate(),
-                            metrics.totalReceived,
+                            String.format("%.2f", metrics.getDropRate()),
+                            metrics.queue.getReceived(),
                             metrics.totalProcessed,
-                            metrics.totalDropped);
+                            metrics.queue.getDropped(),
+                            metrics.queue.getOverflowed(),
+                            metrics.queue.getHeldBack());
+                    if (metrics.queue.getDuplicates() > 0) {
+                        logger.info("{} - Duplicates from redundant collectors: {}", entry.getKey(), metrics.queue.getDuplicates());
+                    }
+                    AdaptiveBatcher.Snapshot batches = metrics.batcher.snapshotAndReset();
+                    if (batches.batches() > 0) {
+                        logger.info("{} - Batches: {}, Mean size: {}, Max size: {}, Target size: {}",
+                                entry.getKey(),
+                                batches.batches(),
+                                String.format("%.1f", batches.meanSize()),
+                                batches.maxSize(),
+                                batches.target());
+                    }
+                    SyncLatency.Snapshot syncs = metrics.syncLatency.snapshotAndReset();
+                    if (syncs.syncs() > 0) {
+                        logger.info("{} - Fsyncs: {}, Mean: {} ms, Max: {} ms",
+                                entry.getKey(),
+                                syncs.syncs(),
+                                String.format("%.2f", syncs.meanMillis()),
+                                String.format("%.2f", syncs.maxMillis()));
+                    }
+                }
+                for (TickBus.Subscription subscription : tickBus.getSubscriptions()) {
+                    if (subscription.isSlow()) {
+                        logger.warn("{} - Slow tick bus consumer, lag: {} of {}, Missed: {}",
+                                subscription.getName(), subscription.getLag(), tickBus.getCapacity(), subscription.getMissed());
+                    } else {
+                        logger.info("{} - Tick bus lag: {}, Received: {}, Missed: {}",
+                                subscription.getName(), subscription.getLag(), subscription.getReceived(), subscription.getMissed());
+                    }
+                }
+                for (FxRateService rates : FxRateService.sharedServices()) {
+                    FxRate rate = rates.get();
+                    if (rates.isStale()) {
+                        logger.warn("{} - Stale FX rate: {}, Age: {} s, Failures: {}", rates.getName(),
+                                rate == null ? "none" : rate.rate(),
+                                rate == null ? "-" : rate.ageMs(System.currentTimeMillis()) / 1000,
+                                rates.getFailures());
+                    } else {
+                        logger.info("{} - FX rate: {}, Age: {} s, Refreshes: {}, Failures: {}", rates.getName(),
+                                rate.rate(), rate.ageMs(System.currentTimeMillis()) / 1000, rates.getRefreshes(), rates.getFailures());
+                    }
+                }
+                long lostLogEvents = CountingAsyncAppender.lostEvents();
+                if (lostLogEvents > 0) {
+                    logger.warn("Log events dropped: {}", lostLogEvents);
+                }
+                for (RawFrameCapture capture : rawFrameCaptures.values()) {
+                    logger.info("{} - Raw frames captured: {}, Written: {}, Dropped: {}, Segments: {}",
+                            capture.getName(),
+                            capture.getFramesCaptured(),
+                            capture.getFramesWritten(),
+                            capture.getFramesDropped(),
+                            capture.getSegments());
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -190,45 +852,370 @@ public class CryptoDataCollector {
         }
     }
 
-    public void start() {
-        // Start all clients
+    /**
+     * Start every collector at once, then the processors of the pairs that started.
+     * <p>
+     * A pair starts if any of its collectors initializes and starts within the
+     * {@value ParallelStartup#DEADLINE_MS_PROPERTY} deadline. The others are stopped and dropped, and
+     * can be added again with {@link #addPair(PairConfig)}. Redundant collectors that failed or timed
+     * out are stopped and dropped from a pair that started. Calling start again returns the first
+     * report.
+     *
+     * @return pairs started and failed, and how long start-up took
+     */
+    public synchronized StartupReport start() {
+        if (startupReport != null) {
+            return startupReport;
+        }
+        writerThreads = Integer.getInteger(WRITER_THREADS_PROPERTY, 0);
+        long startNanos = System.nanoTime();
+        started = true;
+
+        Map<ExchangeCollector, ParallelStartup.Outcome> outcomes = ParallelStartup.run(clients, this::startClient,
+                Long.getLong(ParallelStartup.DEADLINE_MS_PROPERTY, ParallelStartup.DEFAULT_DEADLINE_MS), executionMode);
+        Map<String, Boolean> pairStarted = new TreeMap<>();
+        outcomes.forEach((client, outcome) -> {
+            if (outcome != ParallelStartup.Outcome.STARTED) {
+                logger.warn("{} - Collector {} on start-up: {}", keyOf(client), outcome.name().toLowerCase(), client);
+            }
+            pairStarted.merge(keyOf(client), outcome == ParallelStartup.Outcome.STARTED, Boolean::logicalOr);
+        });
+        Set<String> startedKeys = new TreeSet<>();
+        Set<String> failedKeys = new TreeSet<>();
+        pairStarted.forEach((key, ok) -> (ok ? startedKeys : failedKeys).add(key));
+        outcomes.forEach((client, outcome) -> {
+            // The pair runs on its other collectors, so do not leave this one connecting in the background
+            if (outcome != ParallelStartup.Outcome.STARTED && startedKeys.contains(keyOf(client))) {
+                try {
+                    client.stopDataCollection();
+                } catch (RuntimeException e) {
+                    logger.error("Error stopping {}", client, e);
+                }
+                clients.remove(client);
+            }
+        });
+        for (String key : failedKeys) {
+            if (config != null) {
+                config.getPairs().removeIf(pair -> pairKey(pair).equals(key));
+            }
+            stopPair(key);
+        }
+
         for (ExchangeCollector client : clients) {
-            logger.info("Starting data collection for {}", client.toString());
-            client.initialize();
-            client.startDataCollection();
+            // Redundant collectors of a pair share its processor
+            if (writerThreads <= 0 && !processors.containsKey(keyOf(client))) {
+                startProcessor(client);
+            }
+        }
+        if (writerThreads > 0) {
+            startSharedWriters(writerThreads);
+        }
+        if (sharding != null) {
+            executionMode.newThread("ShardMonitor", true, this::monitorShards).start();
+        }
 
-            // Create and start processor thread for this symbol
-            String key = generateKey(client.getExchangeName(), client.getTradePair());
-            Thread processor = new Thread(
-                    () -> processData(key),
-                    "DataProcessor-%s-%s".formatted(client.getExchangeName(), client.getTradePair()));
-            processors.add(processor);
-            processor.start();
+        startupReport = new StartupReport(Collections.unmodifiableSet(startedKeys), Collections.unmodifiableSet(failedKeys),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        if (failedKeys.isEmpty()) {
+            logger.info("Started {} pairs in {} ms", startedKeys.size(), startupReport.elapsedMs());
+        } else {
+            logger.warn("Started {} of {} pairs in {} ms, failed: {}",
+                    startedKeys.size(), pairStarted.size(), startupReport.elapsedMs(), failedKeys);
         }
+        return startupReport;
     }
 
-    public void stop() {
-        logger.info("Stopping data collection");
+    /**
+     * @return whether the collector initialized and started
+     */
+    private boolean startClient(ExchangeCollector client) {
+        logger.info("Starting data collection for {}", client.toString());
+        return client.initialize() && client.startDataCollection();
+    }
 
-        for (ExchangeCollector client : clients) {
-            client.stopDataCollection();
+    private static String keyOf(ExchangeCollector client) {
+        return generateKey(client.getExchangeName(), client.getTradePair());
+    }
+
+    /**
+     * Create and start a processor thread for one symbol
+     */
+    private void startProcessor(ExchangeCollector client) {
+        String key = keyOf(client);
+        boolean ring = dataQueues.get(key).getRing() != null;
+        Thread processor = executionMode.newThread(
+                "DataProcessor-%s-%s".formatted(client.getExchangeName(), client.getTradePair()),
+                false,
+                ring ? () -> processRing(key) : () -> processData(key));
+        processors.put(key, processor);
+        processor.start();
+    }
+
+    /**
+     * Keep this instance's shard lease alive and follow changes in which shards are live
+     */
+    private void monitorShards() {
+        while (running) {
+            try {
+                rebalance();
+            } catch (RuntimeException e) {
+                logger.error("Error rebalancing shard {}", sharding.getShardIndex(), e);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(sharding.getRenewIntervalMs()));
         }
+    }
 
-        running = false;
+    /**
+     * Renew the lease, take over pairs of shards that have gone and hand back pairs of shards that
+     * have returned
+     */
+    private synchronized void rebalance() {
+        if (!running) {
+            return;
+        }
+        sharding.renew();
+        Map<String, PairConfig> configured = pairsByKey(config);
+        Set<String> owned = sharding.ownedKeys(configured.keySet());
+        for (String key : owned) {
+            if (!dataQueues.containsKey(key)) {
+                logger.info("Shard {} taking over {}", sharding.getShardIndex(), key);
+                try {
+                    startPair(configured.get(key));
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Error taking over {}", key, e);
+                }
+            }
+        }
+        for (String key : List.copyOf(dataQueues.keySet())) {
+            if (!owned.contains(key)) {
+                logger.info("Shard {} handing back {}", sharding.getShardIndex(), key);
+                stopPair(key);
+            }
+        }
+    }
+
+    /**
+     * Spread the queues round-robin over a fixed number of writer threads instead of giving each
+     * its own processor. Every queue still has exactly one writer, so storage needs no locking.
+     */
+    private void startSharedWriters(int writerThreads) {
+        List<List<String>> assignments = new ArrayList<>();
+        List<String> keys = new ArrayList<>(new TreeSet<>(storages.keySet()));
+        for (int i = 0; i < Math.min(writerThreads, keys.size()); i++) {
+            assignments.add(new ArrayList<>());
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            assignments.get(i % assignments.size()).add(keys.get(i));
+        }
+        for (List<String> assigned : assignments) {
+            startSharedWriter(assigned);
+        }
+    }
+
+    private void startSharedWriter(List<String> assigned) {
+        int index = sharedWriters.size();
+        Queue<String> added = new ConcurrentLinkedQueue<>();
+        Thread writer = executionMode.newThread("TickWriter-" + index, false, () -> writeShared(assigned, added));
+        sharedWriters.add(new SharedWriter(writer, added));
+        assigned.forEach(key -> processors.put(key, writer));
+        logger.info("TickWriter-{} writing {}", index, assigned);
+        writer.start();
+    }
+
+    /**
+     * Hand a pair started after start-up, e.g. taken over from another shard or added through the
+     * admin API, to a shared writer. Writers are started as needed up to the configured number,
+     * then pairs are spread round-robin over them.
+     */
+    private void assignSharedWriter(String key) {
+        if (sharedWriters.size() < writerThreads) {
+            startSharedWriter(new ArrayList<>(List.of(key)));
+            return;
+        }
+        SharedWriter writer = sharedWriters.get(nextSharedWriter++ % sharedWriters.size());
+        processors.put(key, writer.thread());
+        writer.added().add(key);
+        logger.info("{} - Written by {}", key, writer.thread().getName());
+    }
 
-        // Close all storage files
-        for (CsvStorage storage : storages.values()) {
-            storage.close();
+    /**
+     * Stop collecting and drain every queue to storage.
+     * <p>
+     * Collectors are stopped first so no new ticks arrive. Each processor then writes its in-flight
+     * batch and remaining queue until the {@value #SHUTDOWN_DRAIN_MS_PROPERTY} deadline, forces its
+     * storage to disk and closes it. Calling stop again returns the first report.
+     *
+     * @return ticks flushed and abandoned per queue
+     */
+    public synchronized ShutdownReport stop() {
+        if (shutdownReport != null) {
+            return shutdownReport;
         }
+        logger.info("Stopping data collection");
+
+        // Stop collectors concurrently, as REST pollers can each take seconds to shut down
+        try (ExecutorService stopping = executionMode.newTaskExecutor("Stop")) {
+            for (ExchangeCollector client : clients) {
+                stopping.submit(() -> {
+                    try {
+                        client.stopDataCollection();
+                    } catch (RuntimeException e) {
+                        logger.error("Error stopping {}", client, e);
+                    }
+                });
+            }
+        }
+
+        if (sharding != null) {
+            // Let the other shards take over without waiting for the lease to expire
+            sharding.close();
+        }
+
+        long drainMs = Long.getLong(SHUTDOWN_DRAIN_MS_PROPERTY, DEFAULT_SHUTDOWN_DRAIN_MS);
+        drainDeadline = System.currentTimeMillis() + drainMs;
+        running = false;
 
-        // Wait for all processors to finish
-        for (Thread processor : processors) {
+        // Wait for processors to drain, sync and close their storage
+        Map<String, DrainResult> results = new TreeMap<>();
+        for (Map.Entry<String, Thread> entry : processors.entrySet()) {
             try {
-                processor.join(5000); // Wait up to 5 seconds for each processor
+                long remainingMs = drainDeadline - System.currentTimeMillis() + PROCESSOR_JOIN_GRACE_MS;
+                entry.getValue().join(Math.max(1, remainingMs));
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 logger.warn("Interrupted while waiting for processor to finish");
             }
+            DrainResult result = drainResults.get(entry.getKey());
+            if (result == null) {
+                // Still writing: leave its storage open rather than closing it underneath the processor
+                logger.error("{} - Processor did not finish draining within {} ms", entry.getKey(), drainMs);
+                result = new DrainResult(0, dataQueues.get(entry.getKey()).size(), false);
+            }
+            results.put(entry.getKey(), result);
+        }
+
+        // Storage of queues that never got a processor is closed here
+        for (Map.Entry<String, TickStorage> entry : storages.entrySet()) {
+            if (!processors.containsKey(entry.getKey())) {
+                if (groupCommitter != null) {
+                    groupCommitter.unregister(entry.getKey());
+                }
+                entry.getValue().close();
+                TickQueue queue = dataQueues.get(entry.getKey());
+                results.put(entry.getKey(), new DrainResult(0, queue.size(), true));
+                queue.close();
+            }
+        }
+        tickBus.close();
+        if (groupCommitter != null) {
+            // Anything still registered belongs to a processor that missed the deadline
+            groupCommitter.close();
+        }
+        for (RawFrameCapture capture : rawFrameCaptures.values()) {
+            capture.close();
+        }
+
+        shutdownReport = new ShutdownReport(Collections.unmodifiableMap(results));
+        results.forEach((key, result) -> logger.info("{} - Shutdown flushed: {}, Abandoned: {}, Synced: {}",
+                key, result.flushed(), result.abandoned(), result.synced()));
+        if (shutdownReport.complete()) {
+            logger.info("Shutdown complete, flushed {} ticks", shutdownReport.flushed());
+        } else {
+            logger.warn("Shutdown incomplete, flushed {} ticks and abandoned {}",
+                    shutdownReport.flushed(), shutdownReport.abandoned());
+        }
+        return shutdownReport;
+    }
+
+    /**
+     * Start collecting a pair while the others keep running. With sharding, the pair is only
+     * started here if this instance's shard owns it.
+     *
+     * @return queue key of the pair
+     * @throws IllegalArgumentException if the pair is invalid
+     * @throws IllegalStateException    if the pair is already configured, or the collector cannot take pairs
+     */
+    public synchronized String addPair(PairConfig pair) throws IOException {
+        if (config == null || shutdownReport != null) {
+            throw new IllegalStateException("Pairs can only be added to a running live collector");
+        }
+        config.addPair(pair);
+        boolean added = false;
+        try {
+            String key = pairKey(pair);
+            if (config.getPairs().stream().anyMatch(other -> other != pair && pairKey(other).equals(key))) {
+                throw new IllegalStateException(key + " is already configured");
+            }
+            if (sharding == null || sharding.ownedKeys(List.of(key)).contains(key)) {
+                startPair(pair);
+                logger.info("{} - Added", key);
+            } else {
+                logger.info("{} - Added, collected by another shard", key);
+            }
+            added = true;
+            return key;
+        } finally {
+            if (!added) {
+                config.getPairs().remove(pair);
+            }
+        }
+    }
+
+    /**
+     * Stop collecting a pair and drain its queue to storage while the others keep running
+     *
+     * @return outcome of the drain, or null if another shard was collecting the pair
+     * @throws NoSuchElementException if the pair is not configured
+     */
+    public synchronized DrainResult removePair(String key) {
+        if (config == null || shutdownReport != null) {
+            throw new IllegalStateException("Pairs can only be removed from a running live collector");
+        }
+        if (!config.getPairs().removeIf(pair -> pairKey(pair).equals(key))) {
+            throw new NoSuchElementException(key + " is not configured");
+        }
+        return stopPair(key);
+    }
+
+    /**
+     * Keys of the exchange/pairs this instance is collecting
+     */
+    public Set<String> getPairKeys() {
+        return new TreeSet<>(dataQueues.keySet());
+    }
+
+    /**
+     * Latest tick of every exchange/pair being collected, for consumers that do not need the full
+     * stream that goes to storage
+     */
+    public LatestTicks getLatestTicks() {
+        return latestTicks;
+    }
+
+    /**
+     * Bus every collected tick is published to, for consumers such as analytics or trading that need
+     * the full stream alongside storage. Subscribers read at their own pace and are stopped by
+     * {@link #stop()}.
+     */
+    public TickBus getTickBus() {
+        return tickBus;
+    }
+
+    List<ExchangeCollector> getClients() {
+        return Collections.unmodifiableList(clients);
+    }
+
+    /**
+     * Wait until every replay collector has injected its file and the queues have been drained
+     */
+    public void awaitReplay() throws InterruptedException {
+        for (ExchangeCollector client : clients) {
+            if (client instanceof ReplayCollector replayCollector) {
+                replayCollector.awaitCompletion(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+        }
+        while (dataQueues.values().stream().anyMatch(queue -> !queue.isEmpty())) {
+            Thread.sleep(100);
         }
     }
 
@@ -237,6 +1224,20 @@ public class CryptoDataCollector {
             logger.error("No symbols provided. Please provide at least one symbol.");
             return;
         }
+        if (args[0].equals(REPLAY_COMMAND)) {
+            replayMain(args);
+            return;
+        }
+        if (args[0].equals(CONFIG_OPTION)) {
+            if (args.length != 2) {
+                logger.error("Usage: {} <file>", CONFIG_OPTION);
+                return;
+            }
+            CollectorConfig config = CollectorConfig.loadFromFile(Path.of(args[1]));
+            logger.info("Starting collector with {} pairs from {}", config.getPairs().size(), args[1]);
+            run(new CryptoDataCollector(config));
+            return;
+        }
         String[] assets = new String[args.length];
         String[] intermediates = new String[args.length];
         for (int i = 0; i < args.length; i++) {
@@ -245,10 +1246,19 @@ public class CryptoDataCollector {
             intermediates[i] = parts[1];
         }
         logger.info("Starting collector with symbols: {} {}", Arrays.toString(assets), Arrays.toString(intermediates));
-        CryptoDataCollector collector = new CryptoDataCollector(assets, intermediates);
+        run(new CryptoDataCollector(assets, intermediates));
+    }
+
+    private static void run(CryptoDataCollector collector) throws IOException {
+        AdminServer admin = AdminServer.configured(collector);
 
         // Add shutdown hook for graceful shutdown
-        Runtime.getRuntime().addShutdownHook(new Thread(collector::stop));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (admin != null) {
+                admin.close();
+            }
+            collector.stop();
+        }));
 
         collector.start();
 
@@ -259,4 +1269,25 @@ public class CryptoDataCollector {
             logger.info("Main thread interrupted");
         }
     }
+
+    /**
+     * replay &lt;speed|max&gt; &lt;file&gt; [&lt;file&gt; ...]
+     */
+    private static void replayMain(String[] args) throws IOException {
+        if (args.length < 3) {
+            logger.error("Usage: {} <speed|max> <file> [<file> ...]", REPLAY_COMMAND);
+            return;
+        }
+        double speed = args[1].equalsIgnoreCase("max") ? ReplayCollector.AS_FAST_AS_POSSIBLE : Double.parseDouble(args[1]);
+        List<Path> files = Arrays.stream(args, 2, args.length).map(Path::of).toList();
+        logger.info("Replaying {} at speed {}", files, args[1]);
+        CryptoDataCollector collector = replay(files, speed);
+        collector.start();
+        try {
+            collector.awaitReplay();
+        } catch (InterruptedException e) {
+            logger.info("Replay interrupted");
+        }
+        collector.stop();
+    }
 }
\ No newline at end of file
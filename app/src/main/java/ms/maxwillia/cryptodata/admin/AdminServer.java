@@ -0,0 +1,113 @@
+package ms.maxwillia.cryptodata.admin;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ms.maxwillia.cryptodata.CryptoDataCollector;
+import ms.maxwillia.cryptodata.config.PairConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.money.MonetaryException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Local HTTP API for changing the pairs being collected without restarting the collector:
+ * <pre>
+ * GET    /pairs                    keys of the pairs being collected
+ * POST   /pairs                    start a pair, e.g. {"exchange": "Coinbase", "asset": "SOL"}
+ * DELETE /pairs/Coinbase_SOLUSD    stop a pair and drain it to storage
+ * </pre>
+ * Pairs take the same fields as in the config file. The server listens on the loopback interface
+ * only, on the port set by {@value #PORT_PROPERTY}, and handles one request at a time.
+ */
+public class AdminServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AdminServer.class);
+    public static final String PORT_PROPERTY = "admin.port";
+    private static final String PAIRS_PATH = "/pairs";
+
+    private final CryptoDataCollector collector;
+    private final HttpServer server;
+    private final JsonMapper mapper = JsonMapper.builder()
+            .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+            .build();
+
+    /**
+     * @param port port to listen on, or 0 for any free port
+     */
+    public AdminServer(CryptoDataCollector collector, int port) throws IOException {
+        this.collector = collector;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(PAIRS_PATH, this::handlePairs);
+        server.start();
+        logger.info("Admin API listening on {}", server.getAddress());
+    }
+
+    /**
+     * Server on the port set by the {@value #PORT_PROPERTY} system property, or null when unset
+     */
+    public static AdminServer configured(CryptoDataCollector collector) throws IOException {
+        Integer port = Integer.getInteger(PORT_PROPERTY);
+        return port != null ? new AdminServer(collector, port) : null;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handlePairs(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String key = path.startsWith(PAIRS_PATH + "/") ? path.substring(PAIRS_PATH.length() + 1) : null;
+            String method = exchange.getRequestMethod();
+            try {
+                if (method.equals("GET") && key == null) {
+                    respond(exchange, 200, collector.getPairKeys());
+                } else if (method.equals("POST") && key == null) {
+                    PairConfig pair = mapper.readValue(exchange.getRequestBody(), PairConfig.class);
+                    respond(exchange, 201, Map.of("key", collector.addPair(pair)));
+                } else if (method.equals("DELETE") && key != null && !key.isEmpty()) {
+                    CryptoDataCollector.DrainResult result = collector.removePair(key);
+                    respond(exchange, 200, result != null ? result : Map.of());
+                } else {
+                    respond(exchange, 405, error("%s %s is not supported".formatted(method, path)));
+                }
+            } catch (JsonProcessingException | IllegalArgumentException | MonetaryException e) {
+                respond(exchange, 400, error(e.getMessage()));
+            } catch (NoSuchElementException e) {
+                respond(exchange, 404, error(e.getMessage()));
+            } catch (IllegalStateException e) {
+                respond(exchange, 409, error(e.getMessage()));
+            } catch (IOException | RuntimeException e) {
+                logger.error("Error handling {} {}", method, path, e);
+                respond(exchange, 500, error(e.getMessage()));
+            }
+        }
+    }
+
+    private static Map<String, String> error(String message) {
+        return Map.of("error", String.valueOf(message));
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(json);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,97 @@
+package ms.maxwillia.cryptodata.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ms.maxwillia.cryptodata.client.collector.websocket.CoinbaseWebSocketCollector;
+import ms.maxwillia.cryptodata.logging.CountingAsyncAppender;
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.RawFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Measures how many Coinbase ticker messages per second the WebSocket message handler can turn into
+ * queued ticks, with debug logging off and then on. Run with {@code ./gradlew :app:loggingBenchmark}.
+ * <p>
+ * Ticker frames are generated up front and fed through the same handler the WebSocket thread uses;
+ * a consumer thread drains the queue as the data processors would.
+ */
+public class LoggingBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingBenchmark.class);
+    private static final int FRAMES_PER_ROUND = 100_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        List<RawFrame> frames = tickerFrames();
+        double infoRate = measure(frames, Level.INFO);
+        long lostBefore = CountingAsyncAppender.lostEvents();
+        double debugRate = measure(frames, Level.DEBUG);
+        long lost = CountingAsyncAppender.lostEvents() - lostBefore;
+
+        setRootLevel(Level.INFO);
+        logger.info("Debug logging off: {} ticks/sec", String.format("%,.0f", infoRate));
+        logger.info("Debug logging on:  {} ticks/sec ({} log events dropped)", String.format("%,.0f", debugRate), lost);
+    }
+
+    private static double measure(List<RawFrame> frames, Level level) throws InterruptedException {
+        BlockingQueue<CryptoTick> queue = new LinkedBlockingQueue<>(10000);
+        Thread consumer = new Thread(() -> {
+            List<CryptoTick> batch = new ArrayList<>(1000);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, 999);
+                    batch.clear();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "BenchmarkConsumer");
+        consumer.setDaemon(true);
+        consumer.start();
+
+        long totalNanos = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            // Each round needs a fresh collector, as sequence numbers restart
+            CoinbaseWebSocketCollector collector = new CoinbaseWebSocketCollector("BTC", null, queue);
+            setRootLevel(level);
+            long start = System.nanoTime();
+            for (RawFrame frame : frames) {
+                collector.replayFrame(frame);
+            }
+            long elapsed = System.nanoTime() - start;
+            setRootLevel(Level.INFO);
+            if (round >= WARMUP_ROUNDS) {
+                totalNanos += elapsed;
+            }
+        }
+        consumer.interrupt();
+        consumer.join();
+        return (double) FRAMES_PER_ROUND * MEASURED_ROUNDS / totalNanos * 1_000_000_000L;
+    }
+
+    private static List<RawFrame> tickerFrames() {
+        List<RawFrame> frames = new ArrayList<>(FRAMES_PER_ROUND);
+        Instant time = Instant.parse("2025-01-04T08:00:00Z");
+        for (int i = 0; i < FRAMES_PER_ROUND; i++) {
+            double price = 98000 + (i % 1000) / 100.0;
+            String payload = ("{\"channel\":\"ticker\",\"client_id\":\"\",\"timestamp\":\"%s\",\"sequence_num\":%d," +
+                    "\"events\":[{\"type\":\"update\",\"tickers\":[{\"type\":\"ticker\",\"product_id\":\"BTC-USD\"," +
+                    "\"price\":\"%.2f\",\"volume_24_h\":\"8364.77\",\"best_bid\":\"%.2f\",\"best_bid_quantity\":\"0.0225\"," +
+                    "\"best_ask\":\"%.2f\",\"best_ask_quantity\":\"0.2035\"}]}]}")
+                    .formatted(time.plusMillis(i), i + 1, price, price - 0.01, price + 0.01);
+            frames.add(new RawFrame(time.toEpochMilli() + i, CoinbaseWebSocketCollector.FRAME_SOURCE, payload));
+        }
+        return frames;
+    }
+
+    private static void setRootLevel(Level level) {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(level);
+    }
+}
@@ -0,0 +1,129 @@
+package ms.maxwillia.cryptodata.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ms.maxwillia.cryptodata.CryptoDataCollector;
+import ms.maxwillia.cryptodata.client.collector.replay.ReplayCollector;
+import ms.maxwillia.cryptodata.concurrent.ExecutionMode;
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.storage.CsvStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compares platform and virtual thread execution by replaying recorded files for an increasing
+ * number of pairs through the full collector pipeline at maximum speed. Run with
+ * {@code ./gradlew :app:threadingBenchmark}, optionally passing pair counts as arguments.
+ * <p>
+ * Reports wall-clock time to start every pair, overall tick throughput and the peak number of live
+ * platform threads, which is what grows with the pair count when each pair has its own threads.
+ */
+public class ThreadingBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingBenchmark.class);
+    private static final int[] DEFAULT_PAIR_COUNTS = {10, 100, 1000};
+    private static final int TICKS_PER_PAIR = 1000;
+
+    private record Result(long startMillis, double ticksPerSecond, int peakPlatformThreads) {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int[] pairCounts = args.length == 0 ? DEFAULT_PAIR_COUNTS : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        Path workDir = Files.createTempDirectory("threading-benchmark");
+        // Collector output goes to java.io.tmpdir
+        Path outputDir = Files.createDirectories(workDir.resolve("output"));
+        System.setProperty("java.io.tmpdir", outputDir + File.separator);
+        setLevel("ms.maxwillia.cryptodata", Level.WARN);
+        setLevel(ThreadingBenchmark.class.getName(), Level.INFO);
+        try {
+            for (int pairs : pairCounts) {
+                List<Path> files = recordings(workDir.resolve("input-" + pairs), pairs);
+                // Warm up both modes before measuring
+                run(files, ExecutionMode.PLATFORM, outputDir);
+                run(files, ExecutionMode.VIRTUAL, outputDir);
+                Result platform = run(files, ExecutionMode.PLATFORM, outputDir);
+                Result virtual = run(files, ExecutionMode.VIRTUAL, outputDir);
+                logger.info("{} pairs, {} ticks:", pairs, pairs * TICKS_PER_PAIR);
+                report(ExecutionMode.PLATFORM, platform);
+                report(ExecutionMode.VIRTUAL, virtual);
+            }
+        } finally {
+            delete(workDir);
+        }
+    }
+
+    private static Result run(List<Path> files, ExecutionMode mode, Path outputDir) throws IOException, InterruptedException {
+        System.setProperty(ExecutionMode.PROPERTY, mode.name());
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        CryptoDataCollector collector = CryptoDataCollector.replay(files, ReplayCollector.AS_FAST_AS_POSSIBLE);
+        long start = System.nanoTime();
+        collector.start();
+        long started = System.nanoTime();
+        collector.awaitReplay();
+        long finished = System.nanoTime();
+        int peakThreads = threads.getPeakThreadCount();
+        collector.stop();
+
+        clear(outputDir);
+        return new Result((started - start) / 1_000_000,
+                (double) files.size() * TICKS_PER_PAIR / (finished - start) * 1_000_000_000L,
+                peakThreads);
+    }
+
+    private static void report(ExecutionMode mode, Result result) {
+        logger.info("  {}: started in {} ms, {} ticks/sec, peak platform threads {}",
+                String.format("%-8s", mode.name().toLowerCase()),
+                result.startMillis(),
+                String.format("%,.0f", result.ticksPerSecond()),
+                result.peakPlatformThreads());
+    }
+
+    private static List<Path> recordings(Path dir, int pairs) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> files = new ArrayList<>(pairs);
+        for (int pair = 0; pair < pairs; pair++) {
+            String symbol = "PAIR%04d".formatted(pair);
+            Path file = dir.resolve("Bench_%s_20250101_000000.csv".formatted(symbol));
+            CsvStorage storage = new CsvStorage(file.toString());
+            for (int i = 0; i < TICKS_PER_PAIR; i++) {
+                double price = 100 + i % 100;
+                storage.storeTick(new CryptoTick(symbol, price, 1000, price - 0.01, 1, price + 0.01, 1, 1735689600000L + i));
+            }
+            storage.close();
+            files.add(file);
+        }
+        return files;
+    }
+
+    private static void clear(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static void setLevel(String loggerName, Level level) {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(loggerName)).setLevel(level);
+    }
+}
@@ -1,11 +1,11 @@
 package ms.maxwillia.cryptodata.client;
 
 import lombok.Getter;
-import lombok.Setter;
+import ms.maxwillia.cryptodata.model.FixedPointTick;
+import ms.maxwillia.cryptodata.model.SymbolRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import javax.money.CurrencyUnit;
-import javax.money.Monetary;
 
 public abstract class BaseExchangeClient {
     protected final Logger logger = LoggerFactory.getLogger(getClass());
@@ -15,8 +15,7 @@ public abstract class BaseExchangeClient {
     private volatile ClientStatus status;
 
     @Getter
-    @Setter
-    private CurrencyUnit settlementCurrency = Monetary.getCurrency("USD");
+    private final CurrencyUnit settlementCurrency;
 
     @Getter
     private final CurrencyUnit assetCurrency;
@@ -24,35 +23,66 @@ public abstract class BaseExchangeClient {
     @Getter
     private final CurrencyUnit intermediateCurrency;
 
+    // Pairs are formatted and registered once, with the final currencies, rather than per tick
+    private String tradePair;
+    private String intermediatePair;
+    @Getter
+    private int tradePairId;
+    @Getter
+    private int intermediatePairId = -1;
 
 
-    public BaseExchangeClient(String exchangeName, String assetCurrency, String intermediateCurrency) {
+    public BaseExchangeClient(String exchangeName, String assetCurrency, String intermediateCurrency, String settlementCurrency) {
         this.status = null;
         this.exchangeName = exchangeName;
-        this.assetCurrency = Monetary.getCurrency(assetCurrency);
+        this.assetCurrency = SymbolRegistry.currency(assetCurrency);
+        this.settlementCurrency = SymbolRegistry.currency(settlementCurrency);
         if (intermediateCurrency != null) {
-            this.intermediateCurrency = Monetary.getCurrency(intermediateCurrency);
+            this.intermediateCurrency = SymbolRegistry.currency(intermediateCurrency);
         } else {
             this.intermediateCurrency = null;
         }
+        registerPairs();
+    }
+
+    private void registerPairs() {
+        tradePair = "%s%s".formatted(assetCurrency.getCurrencyCode(), settlementCurrency.getCurrencyCode());
+        tradePairId = SymbolRegistry.register(exchangeName, tradePair);
+        if (intermediateCurrency != null) {
+            intermediatePair = "%s%s".formatted(assetCurrency.getCurrencyCode(), intermediateCurrency.getCurrencyCode());
+            intermediatePairId = SymbolRegistry.register(exchangeName, intermediatePair);
+        }
     }
 
     protected void setStatus(ClientStatus newStatus) {
         ClientStatus oldStatus = this.status;
         this.status = newStatus;
-        logger.info("{}: Status changed from {} to {}", exchangeName, oldStatus, newStatus);
+        if (oldStatus != newStatus) {
+            logger.info("{}: Status changed from {} to {}", exchangeName, oldStatus, newStatus);
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("{}: Status remains {}", exchangeName, newStatus);
+        }
     }
 
     static public String getTradePair(String assetCurrency, String settlementCurrency) {
         return String.format("%s%s", assetCurrency, settlementCurrency);
     }
 
+    /**
+     * Decimal places used for this client's ticks in fixed point. Ticks are priced in the intermediate
+     * currency when there is one, otherwise in the settlement currency.
+     */
+    public FixedPointTick.Scale getTickScale() {
+        CurrencyUnit priceCurrency = intermediateCurrency != null ? intermediateCurrency : settlementCurrency;
+        return FixedPointTick.Scale.of(priceCurrency, settlementCurrency, assetCurrency);
+    }
+
     public String getTradePair() {
-        return "%s%s".formatted(assetCurrency.getCurrencyCode(), settlementCurrency.getCurrencyCode());
+        return tradePair;
     }
 
     public String getIntermediatePair() {
-        return "%s%s".formatted(assetCurrency.getCurrencyCode(), intermediateCurrency.getCurrencyCode());
+        return intermediatePair;
     }
 
 }
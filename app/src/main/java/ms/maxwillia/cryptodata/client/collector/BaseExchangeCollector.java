@@ -2,26 +2,89 @@ package ms.maxwillia.cryptodata.client.collector;
 
 import java.util.concurrent.BlockingQueue;
 
+import lombok.Getter;
+import lombok.Setter;
 import ms.maxwillia.cryptodata.client.BaseExchangeClient;
+import ms.maxwillia.cryptodata.concurrent.ExecutionMode;
 
 import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.RawFrame;
+import ms.maxwillia.cryptodata.model.TickView;
+import ms.maxwillia.cryptodata.pipeline.OffHeapTickRing;
+import ms.maxwillia.cryptodata.storage.RawFrameCapture;
 
 public abstract class BaseExchangeCollector extends BaseExchangeClient implements ExchangeCollector {
+    private static final long DROP_LOG_INTERVAL_MS = 1000;
     protected final BlockingQueue<CryptoTick> dataQueue;
+    protected final ExecutionMode executionMode = ExecutionMode.configured();
     protected long lastSequenceNumber = -1;
+    @Getter
+    @Setter
+    private volatile RawFrameCapture rawFrameCapture;
+    // Collectors that support it write ticks straight into this ring instead of offering them
+    @Getter
+    @Setter
+    private OffHeapTickRing tickRing;
+    // Only touched by the thread offering ticks
+    private long droppedSinceLastLog = 0;
+    private long lastDropLogTime = 0;
 
-    protected BaseExchangeCollector(String exchangeName, String assetCurrency, String intermediateCurrency, BlockingQueue<CryptoTick> dataQueue) {
-        super(exchangeName, assetCurrency, intermediateCurrency);
+    protected BaseExchangeCollector(String exchangeName, String assetCurrency, String intermediateCurrency, String settlementCurrency, BlockingQueue<CryptoTick> dataQueue) {
+        super(exchangeName, assetCurrency, intermediateCurrency, settlementCurrency);
         this.dataQueue = dataQueue;
         logger.info("Created collector for {}", this);
     }
 
     protected void offerTick(CryptoTick tick) {
         if (!dataQueue.offer(tick)) {
-            logger.warn("{}: Queue full, dropping tick for {}", getExchangeName(), tick.symbol());
+            dropped(tick.symbol());
         }
     }
 
+    /**
+     * Claim the next slot of the {@link #setTickRing tick ring} to write a tick into, then
+     * {@link #publishSlot()} it
+     *
+     * @return view over the slot, or null if the ring is full and the tick is dropped
+     */
+    protected TickView claimSlot() {
+        TickView slot = tickRing.claim();
+        if (slot == null) {
+            dropped(getTradePair());
+        }
+        return slot;
+    }
+
+    protected void publishSlot() {
+        tickRing.publish();
+    }
+
+    private void dropped(String symbol) {
+        // A full queue drops every tick, so log a summary at most once per interval
+        droppedSinceLastLog++;
+        long now = System.currentTimeMillis();
+        if (now - lastDropLogTime >= DROP_LOG_INTERVAL_MS) {
+            logger.warn("{}: Queue full, dropped {} ticks for {}", getExchangeName(), droppedSinceLastLog, symbol);
+            droppedSinceLastLog = 0;
+            lastDropLogTime = now;
+        }
+    }
+
+    /**
+     * Record a message as received, before parsing, if raw capture is enabled
+     */
+    protected void captureFrame(String source, String payload) {
+        RawFrameCapture capture = rawFrameCapture;
+        if (capture != null) {
+            capture.capture(source, payload);
+        }
+    }
+
+    /**
+     * Process a previously captured message as if it had just been received
+     */
+    public abstract void replayFrame(RawFrame frame);
+
     /**
      * Handle reconnection logic for the client
      */
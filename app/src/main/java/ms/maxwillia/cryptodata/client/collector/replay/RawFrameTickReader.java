@@ -0,0 +1,88 @@
+package ms.maxwillia.cryptodata.client.collector.replay;
+
+import ms.maxwillia.cryptodata.client.collector.BaseExchangeCollector;
+import ms.maxwillia.cryptodata.client.collector.rest.FiriRestCollector;
+import ms.maxwillia.cryptodata.client.collector.websocket.CoinbaseWebSocketCollector;
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.RawFrame;
+import ms.maxwillia.cryptodata.storage.RawFrameReader;
+import ms.maxwillia.cryptodata.storage.TickReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Turns captured raw frames back into ticks by running them through the parser of the collector
+ * that originally received them, so parsing fixes can be checked against recorded traffic.
+ */
+public class RawFrameTickReader implements TickReader {
+    // Metadata keys written at the start of every capture segment
+    public static final String EXCHANGE_KEY = "exchange";
+    public static final String ASSET_KEY = "asset";
+    public static final String INTERMEDIATE_KEY = "intermediate";
+
+    private final Iterator<Path> segments;
+    private final LinkedBlockingQueue<CryptoTick> parsed = new LinkedBlockingQueue<>();
+    private RawFrameReader reader;
+    private final BaseExchangeCollector parser;
+
+    /**
+     * @param segments consecutive segments of one capture, in the order they were written
+     */
+    public RawFrameTickReader(List<Path> segments) throws IOException {
+        this.segments = segments.iterator();
+        this.reader = new RawFrameReader(this.segments.next());
+        this.parser = createParser(reader.getMetadata(), parsed);
+    }
+
+    /**
+     * Build metadata describing a collector for {@link #createParser}
+     */
+    public static Map<String, String> metadata(String exchange, String assetCurrency, String intermediateCurrency) {
+        return Map.of(EXCHANGE_KEY, exchange,
+                ASSET_KEY, assetCurrency,
+                INTERMEDIATE_KEY, intermediateCurrency == null ? "" : intermediateCurrency);
+    }
+
+    static BaseExchangeCollector createParser(Map<String, String> metadata, LinkedBlockingQueue<CryptoTick> queue) {
+        String exchange = metadata.get(EXCHANGE_KEY);
+        String asset = metadata.get(ASSET_KEY);
+        String intermediate = metadata.getOrDefault(INTERMEDIATE_KEY, "");
+        if (exchange == null || asset == null) {
+            throw new IllegalArgumentException("Capture metadata does not describe a collector: " + metadata);
+        }
+        return switch (exchange) {
+            case "Coinbase" -> new CoinbaseWebSocketCollector(asset, intermediate.isEmpty() ? null : intermediate, queue);
+            case "Firi" -> new FiriRestCollector(asset, intermediate.isEmpty() ? null : intermediate, queue);
+            default -> throw new IllegalArgumentException("No raw frame parser for exchange: " + exchange);
+        };
+    }
+
+    @Override
+    public CryptoTick next() throws IOException {
+        while (parsed.isEmpty()) {
+            if (reader == null) {
+                return null;
+            }
+            RawFrame frame = reader.next();
+            if (frame != null) {
+                parser.replayFrame(frame);
+            } else {
+                reader.close();
+                reader = segments.hasNext() ? new RawFrameReader(segments.next()) : null;
+            }
+        }
+        return parsed.poll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package ms.maxwillia.cryptodata.client.collector.replay;
+
+import lombok.Getter;
+import ms.maxwillia.cryptodata.client.ClientStatus;
+import ms.maxwillia.cryptodata.client.collector.ExchangeCollector;
+import ms.maxwillia.cryptodata.concurrent.ExecutionMode;
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.storage.BinaryTickReader;
+import ms.maxwillia.cryptodata.storage.BinaryTickStorage;
+import ms.maxwillia.cryptodata.storage.CsvTickReader;
+import ms.maxwillia.cryptodata.storage.RawFrameCapture;
+import ms.maxwillia.cryptodata.storage.TickReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Feeds ticks recorded by a previous run back into a collector queue, so the rest of the pipeline
+ * sees them exactly as it would live ticks.
+ * <p>
+ * Accepts tick files written by {@link ms.maxwillia.cryptodata.storage.CsvStorage} or
+ * {@link BinaryTickStorage}, or raw frame
+ * segments written by {@link ms.maxwillia.cryptodata.storage.RawFrameCapture}, which are re-parsed by
+ * the originating exchange's collector. Exchange and pair are taken from the file name
+ * ({@code <exchange>_<pair>_<timestamp>...}); several files for the same exchange and pair are
+ * replayed one after another.
+ * <p>
+ * Ticks are paced by their recorded timestamps divided by the speed factor, or injected as fast as
+ * the queue accepts them when the speed is {@link #AS_FAST_AS_POSSIBLE}. Unlike live collectors,
+ * replay blocks on a full queue rather than dropping, so every run produces the same output.
+ */
+public class ReplayCollector implements ExchangeCollector {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayCollector.class);
+    public static final double RECORDED_PACE = 1.0;
+    public static final double AS_FAST_AS_POSSIBLE = 0;
+    private static final long STOP_TIMEOUT_MS = 5000;
+
+    @Getter
+    private final List<Path> files;
+    @Getter
+    private final String exchangeName;
+    @Getter
+    private final String tradePair;
+    @Getter
+    private final double speed;
+    private final BlockingQueue<CryptoTick> dataQueue;
+    private final AtomicLong ticksReplayed = new AtomicLong();
+
+    @Getter
+    private volatile ClientStatus status;
+    private volatile boolean collecting = false;
+    private Thread replayThread;
+
+    /**
+     * @param files recorded files for one exchange and pair, in the order they were written
+     * @param speed replay speed relative to the recorded pace, or {@link #AS_FAST_AS_POSSIBLE}
+     * @param dataQueue queue to inject the ticks into
+     */
+    public ReplayCollector(List<Path> files, double speed, BlockingQueue<CryptoTick> dataQueue) {
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No files to replay");
+        }
+        this.exchangeName = nameParts(files.getFirst())[0];
+        this.tradePair = nameParts(files.getFirst())[1];
+        for (Path file : files) {
+            String[] parts = nameParts(file);
+            if (!parts[0].equals(exchangeName) || !parts[1].equals(tradePair)) {
+                throw new IllegalArgumentException("%s is not a recording of %s %s".formatted(file, exchangeName, tradePair));
+            }
+        }
+        this.files = List.copyOf(files);
+        this.speed = speed;
+        this.dataQueue = dataQueue;
+    }
+
+    public ReplayCollector(Path file, double speed, BlockingQueue<CryptoTick> dataQueue) {
+        this(List.of(file), speed, dataQueue);
+    }
+
+    /**
+     * Split a recorded file name into exchange and pair
+     */
+    public static String[] nameParts(Path file) {
+        String[] parts = file.getFileName().toString().split("_");
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Cannot determine exchange and pair from file name: " + file);
+        }
+        return new String[]{parts[0], parts[1].replaceFirst("\\..*$", "")};
+    }
+
+    /**
+     * Open a reader over recorded files, chosen by file extension
+     */
+    public static TickReader openReader(List<Path> files) throws IOException {
+        if (files.stream().allMatch(file -> file.toString().endsWith(RawFrameCapture.FILE_SUFFIX))) {
+            return new RawFrameTickReader(files);
+        }
+        if (files.stream().allMatch(file -> file.toString().endsWith(".csv"))) {
+            return new SequentialReader(files, file -> new CsvTickReader(file, nameParts(file)[0]));
+        }
+        if (files.stream().allMatch(file -> file.toString().endsWith(BinaryTickStorage.FILE_SUFFIX))) {
+            return new SequentialReader(files, BinaryTickReader::new);
+        }
+        throw new IllegalArgumentException("Unsupported or mixed tick file formats: " + files);
+    }
+
+    private interface ReaderFactory {
+        TickReader open(Path file) throws IOException;
+    }
+
+    private static class SequentialReader implements TickReader {
+        private final Iterator<Path> files;
+        private final ReaderFactory factory;
+        private TickReader reader;
+
+        SequentialReader(List<Path> files, ReaderFactory factory) throws IOException {
+            this.files = files.iterator();
+            this.factory = factory;
+            this.reader = factory.open(this.files.next());
+        }
+
+        @Override
+        public CryptoTick next() throws IOException {
+            while (reader != null) {
+                CryptoTick tick = reader.next();
+                if (tick != null) {
+                    return tick;
+                }
+                reader.close();
+                reader = files.hasNext() ? factory.open(files.next()) : null;
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean initialize() {
+        for (Path file : files) {
+            if (!Files.isReadable(file)) {
+                logger.error("{}: Cannot read replay file {}", exchangeName, file);
+                setStatus(ClientStatus.ERROR);
+                return false;
+            }
+        }
+        setStatus(ClientStatus.INITIALIZED);
+        return true;
+    }
+
+    @Override
+    public boolean configure() {
+        return true;
+    }
+
+    @Override
+    public boolean startDataCollection() {
+        if (status != ClientStatus.INITIALIZED) {
+            return false;
+        }
+        collecting = true;
+        setStatus(ClientStatus.COLLECTING);
+        replayThread = ExecutionMode.configured()
+                .newThread("Replay-%s-%s".formatted(exchangeName, tradePair), true, this::replay);
+        replayThread.start();
+        return true;
+    }
+
+    @Override
+    public void stopDataCollection() {
+        collecting = false;
+        if (replayThread != null) {
+            replayThread.interrupt();
+            // Once this returns no further ticks are injected
+            try {
+                replayThread.join(STOP_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void updateIntemediateRate() {
+        // Recorded ticks already carry the rate they were converted with
+    }
+
+    @Override
+    public boolean isCollecting() {
+        return collecting;
+    }
+
+    /**
+     * Wait for all recorded ticks to be injected
+     *
+     * @return true if the replay finished within the timeout
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        if (replayThread == null) {
+            return status == ClientStatus.STOPPED;
+        }
+        replayThread.join(unit.toMillis(timeout));
+        return !replayThread.isAlive();
+    }
+
+    public long getTicksReplayed() {
+        return ticksReplayed.get();
+    }
+
+    private void replay() {
+        logger.info("{}: Replaying {} at {}", exchangeName, files,
+                speed > 0 ? "%sx recorded pace".formatted(speed) : "maximum speed");
+        long startNanos = System.nanoTime();
+        double firstTimestamp = Double.NaN;
+
+        try (TickReader reader = openReader(files)) {
+            CryptoTick tick;
+            while (collecting && (tick = reader.next()) != null) {
+                if (speed > 0) {
+                    if (Double.isNaN(firstTimestamp)) {
+                        firstTimestamp = tick.timestamp();
+                    }
+                    long dueNanos = startNanos + (long) ((tick.timestamp() - firstTimestamp) * 1_000_000 / speed);
+                    long waitNanos;
+                    while ((waitNanos = dueNanos - System.nanoTime()) > 0 && collecting) {
+                        LockSupport.parkNanos(waitNanos);
+                    }
+                }
+                dataQueue.put(tick);
+                ticksReplayed.incrementAndGet();
+            }
+            logger.info("{}: Replay of {} finished after {} ticks", exchangeName, files, ticksReplayed.get());
+            collecting = false;
+            setStatus(ClientStatus.STOPPED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.info("{}: Replay of {} stopped after {} ticks", exchangeName, files, ticksReplayed.get());
+            collecting = false;
+            setStatus(ClientStatus.STOPPED);
+        } catch (IOException | RuntimeException e) {
+            logger.error("{}: Error reading replay files {}", exchangeName, files, e);
+            collecting = false;
+            setStatus(ClientStatus.ERROR);
+        }
+    }
+
+    private void setStatus(ClientStatus newStatus) {
+        ClientStatus oldStatus = this.status;
+        this.status = newStatus;
+        logger.info("{}: Status changed from {} to {}", exchangeName, oldStatus, newStatus);
+    }
+
+    @Override
+    public String getIntermediatePair() {
+        return null;
+    }
+
+    @Override
+    public String getExchangeTradePair() {
+        return tradePair;
+    }
+
+    @Override
+    public String getExchangeIntermediatePair() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s: %s %s", this.getClass(), exchangeName, tradePair, files);
+    }
+}
@@ -1,5 +1,6 @@
 package ms.maxwillia.cryptodata.client.collector.rest;
 
+import lombok.Setter;
 import ms.maxwillia.cryptodata.client.collector.BaseExchangeCollector;
 import ms.maxwillia.cryptodata.client.ClientStatus;
 import ms.maxwillia.cryptodata.model.CryptoTick;
@@ -23,12 +24,13 @@ public abstract class BaseRestCollector extends BaseExchangeCollector implements
     protected final ObjectMapper objectMapper;
     protected final AtomicBoolean isPolling;
     protected ScheduledFuture<?> pollingTask;
+    @Setter
     protected long pollingIntervalMs;
     protected static final long DEFAULT_POLLING_INTERVAL_MS = 1000; // 1 second default
 
-    protected BaseRestCollector(String exchangeName, String assetCurrency, String intermediateCurrency, BlockingQueue<CryptoTick> dataQueue) {
-        super(exchangeName, assetCurrency, intermediateCurrency, dataQueue);
-        this.scheduler = Executors.newScheduledThreadPool(2);
+    protected BaseRestCollector(String exchangeName, String assetCurrency, String intermediateCurrency, String settlementCurrency, BlockingQueue<CryptoTick> dataQueue) {
+        super(exchangeName, assetCurrency, intermediateCurrency, settlementCurrency, dataQueue);
+        this.scheduler = executionMode.newScheduledExecutor("%s-Poller".formatted(exchangeName), 2);
         this.httpClient = new OkHttpClient.Builder()
                 .connectTimeout(10, TimeUnit.SECONDS)
                 .readTimeout(10, TimeUnit.SECONDS)
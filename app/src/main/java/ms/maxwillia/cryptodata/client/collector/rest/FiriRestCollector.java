@@ -5,40 +5,73 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
 import lombok.Setter;
 import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.FixedPoint;
+import ms.maxwillia.cryptodata.model.FixedPointTick;
+import ms.maxwillia.cryptodata.model.RawFrame;
 import ms.maxwillia.cryptodata.client.ClientStatus;
+import ms.maxwillia.cryptodata.fx.FxRate;
+import ms.maxwillia.cryptodata.fx.FxRateService;
 import okhttp3.*;
 
 import java.io.IOException;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.money.Monetary;
-
-
+/**
+ * Polls a Firi market, converting its NOK prices through an intermediate currency such as USDC.
+ * <p>
+ * A market collected without an intermediate, e.g. USDC itself, is stored in NOK. Set as a
+ * {@link #setRateStream rate stream}, it also publishes every price it polls to the shared rate
+ * service, so collectors converting through that currency use a rate at most one poll old instead
+ * of waiting for the scheduled refresh.
+ * <p>
+ * Set as {@link #setFixedPoint fixed point}, prices are parsed and converted as scaled longs at the
+ * {@link #getTickScale tick scale}, so each converted price is the exactly rounded quotient.
+ */
 public class FiriRestCollector extends BaseRestCollector {
     private static final Logger logger = LoggerFactory.getLogger(FiriRestCollector.class);
+    public static final String SETTLEMENT_CURRENCY = "NOK";
     @Getter
     @Setter
     private String baseUrl;
     private static final long INTERMEDIATE_RATE_UPDATE_INTERVAL_MS = 5 * 60 * 1000; // 5 minutes
     protected static final long INTERMEDIATE_MAX_STALE_MS = 30 * 60 * 1000; // 30 minutes
-    private static final int MAX_RETRIES = 3;
-    private static final long RETRY_DELAY_MS = 500; // 1 second between retries
-
-    private final AtomicReference<Double> intermediateRate;
-    private long lastRateUpdateTime;
+    // Raw frame sources, one per endpoint
+    public static final String RATE_SOURCE = "rate";
+    public static final String DEPTH_SOURCE = "depth";
+    public static final String MARKET_SOURCE = "market";
+
+    // Shared with every Firi collector converting through the same intermediate pair
+    private FxRateService intermediateRates;
+    // Publish the price of this pair as the rate for collectors converting through its asset
+    @Setter
+    private boolean rateStream;
+    // Held by a rate stream, to publish the price of its own pair
+    private FxRateService publishedRates;
+    // Convert prices in fixed point rather than in doubles
+    @Getter
+    @Setter
+    private boolean fixedPoint;
+    private FixedPointTick.Scale tickScale;
+    // Records the response each shared rate was read from, whichever collector fetched it
+    private final FxRateService.Listener rateCapture = (previous, rate) -> {
+        if (rate.payload() != null) {
+            captureFrame(RATE_SOURCE, rate.payload());
+        }
+    };
+    private boolean skippingStaleRate;
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    // Order book from the last replayed depth frame, waiting for its market frame
+    private JsonNode replayedOrderBook;
+    private long replayedOrderBookTime;
 
 
     public FiriRestCollector(String assetCurrency, String intermediateCurrency, BlockingQueue<CryptoTick> dataQueue) {
-        super("Firi", assetCurrency, intermediateCurrency, dataQueue);
-        this.setSettlementCurrency(Monetary.getCurrency("NOK"));
+        super("Firi", assetCurrency, intermediateCurrency, SETTLEMENT_CURRENCY, dataQueue);
         this.baseUrl = "https://api.firi.com/v2";
-        this.intermediateRate = new AtomicReference<>(-1.0);
         this.httpClient = new OkHttpClient.Builder()
                 .connectTimeout(10, TimeUnit.SECONDS)
                 .readTimeout(10, TimeUnit.SECONDS)
@@ -50,8 +83,25 @@ public class FiriRestCollector extends BaseRestCollector {
     @Override
     public boolean configure() {
         try {
-            updateIntemediateRate();
-            return intermediateRate.get() > 0;
+            if (isDirect()) {
+                if (rateStream && publishedRates == null) {
+                    publishedRates = FxRateService.shared(rateName(getExchangeTradePair()), baseUrl,
+                            () -> fetchLastPrice(getExchangeTradePair()), INTERMEDIATE_RATE_UPDATE_INTERVAL_MS, INTERMEDIATE_MAX_STALE_MS);
+                }
+                return true;
+            }
+            if (intermediateRates == null) {
+                intermediateRates = FxRateService.shared(rateName(getExchangeIntermediatePair()), baseUrl,
+                        () -> fetchLastPrice(getExchangeIntermediatePair()), INTERMEDIATE_RATE_UPDATE_INTERVAL_MS, INTERMEDIATE_MAX_STALE_MS);
+                // Every collector records the shared rate, so each capture can be replayed on its own
+                intermediateRates.addListener(rateCapture);
+            }
+            if (intermediateRates.refreshIfOlderThan(INTERMEDIATE_RATE_UPDATE_INTERVAL_MS)) {
+                return true;
+            }
+            logger.error("No {} rate available", getExchangeIntermediatePair());
+            setStatus(ClientStatus.ERROR);
+            return false;
         } catch (Exception e) {
             logger.error("Error configuring Firi client: {}", e.getMessage());
             setStatus(ClientStatus.ERROR);
@@ -59,6 +109,17 @@ public class FiriRestCollector extends BaseRestCollector {
         }
     }
 
+    /**
+     * Whether the market is stored in NOK rather than converted through an intermediate currency
+     */
+    public boolean isDirect() {
+        return getIntermediateCurrency() == null;
+    }
+
+    private String rateName(String pair) {
+        return "%s %s".formatted(getExchangeName(), pair);
+    }
+
     @Override
     public String getExchangeTradePair() {
         return "%s%s".formatted(getAssetCurrency().getCurrencyCode(), getSettlementCurrency().getCurrencyCode());
@@ -66,6 +127,9 @@ public class FiriRestCollector extends BaseRestCollector {
 
     @Override
     public String getExchangeIntermediatePair() {
+        if (isDirect()) {
+            return "";
+        }
         return "%s%s".formatted(getIntermediateCurrency().getCurrencyCode(), getSettlementCurrency().getCurrencyCode());
     }
 
@@ -90,56 +154,30 @@ public class FiriRestCollector extends BaseRestCollector {
 
     @Override
     public void updateIntemediateRate() {
-        if (System.currentTimeMillis() - lastRateUpdateTime < INTERMEDIATE_RATE_UPDATE_INTERVAL_MS) {
-            return; // Rate is still fresh
+        if (intermediateRates != null) {
+            intermediateRates.refreshIfOlderThan(INTERMEDIATE_RATE_UPDATE_INTERVAL_MS);
         }
+    }
 
-        String url = String.format("%s/markets/%s", baseUrl, getExchangeIntermediatePair());
-        Request request = new Request.Builder().url(url).build();
-
-        for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    throw new IOException("Unexpected response code: " + response.code());
-                }
-
-                ResponseBody responseBody = response.body();
-                if (responseBody == null) {
-                    throw new IOException("Empty response body");
-                }
-
-                JsonNode rateData = objectMapper.readTree(responseBody.string());
-                if (!rateData.has("last")) {
-                    throw new IOException("Invalid rate data format - missing 'last' field");
-                }
+    private FxRate fetchLastPrice(String pair) throws IOException {
+        String url = String.format("%s/markets/%s", baseUrl, pair);
+        try (Response response = httpClient.newCall(new Request.Builder().url(url).build()).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Unexpected response code: " + response.code());
+            }
 
-                double newRate = rateData.get("last").asDouble();
-                if (newRate <= 0) {
-                    throw new IOException("Invalid rate value: " + newRate);
-                }
+            ResponseBody responseBody = response.body();
+            if (responseBody == null) {
+                throw new IOException("Empty response body");
+            }
 
-                intermediateRate.set(newRate);
-                lastRateUpdateTime = System.currentTimeMillis();
-                logger.debug("Successfully updated {} rate to: {}", getExchangeIntermediatePair(), newRate);
-                return;
-
-            } catch (IOException e) {
-                logger.warn("Failed to update {} rate (attempt {}/{}): {}",
-                        this.getExchangeIntermediatePair(), attempt, MAX_RETRIES, e.getMessage());
-
-                try {
-                    Thread.sleep(RETRY_DELAY_MS);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    logger.warn("Rate update interrupted during retry delay");
-                    return;
-                }
+            String body = responseBody.string();
+            long receivedAt = System.currentTimeMillis();
+            JsonNode rateData = objectMapper.readTree(body);
+            if (!rateData.has("last")) {
+                throw new IOException("Invalid rate data format - missing 'last' field");
             }
-        }
-        if (System.currentTimeMillis() - lastRateUpdateTime > INTERMEDIATE_MAX_STALE_MS) {
-            logger.warn("USD rate is too stale.");
-            stopDataCollection();
-            setStatus(ClientStatus.ERROR);
+            return new FxRate(rateData.get("last").asDouble(), receivedAt, body);
         }
     }
 
@@ -159,7 +197,9 @@ public class FiriRestCollector extends BaseRestCollector {
                 throw new IOException("Empty order book response body");
             }
 
-            JsonNode orderBook = objectMapper.readTree(responseBody.string());
+            String body = responseBody.string();
+            captureFrame(DEPTH_SOURCE, body);
+            JsonNode orderBook = objectMapper.readTree(body);
             if (!orderBook.has("bids") || !orderBook.has("asks")) {
                 throw new IOException("Invalid order book data format");
             }
@@ -192,26 +232,130 @@ public class FiriRestCollector extends BaseRestCollector {
                 throw new IOException("Invalid bid/ask data format");
             }
 
+            // Do not convert with a rate that has not been refreshed for too long
+            if (!isDirect() && intermediateRates.isStale()) {
+                if (!skippingStaleRate) {
+                    logger.warn("{} rate is stale, skipping {} ticks until it is refreshed",
+                            getExchangeIntermediatePair(), getExchangeTradePair());
+                    skippingStaleRate = true;
+                }
+                return null;
+            }
+            skippingStaleRate = false;
+
             // Get ticker data for last price and volume
-            JsonNode tickerData = fetchPriceData();
+            String tickerBody = fetchPriceData();
+            JsonNode tickerData = objectMapper.readTree(tickerBody);
 
-            return new CryptoTick(
-                    getIntermediatePair(),              // symbol
-                    tickerData.get("volume").asDouble(), // volume_24h
-                    bestBid.get(0).asDouble(),       // best_bid
-                    bestBid.get(1).asDouble(),       // best_bid_quantity
-                    bestAsk.get(0).asDouble(),       // best_ask
-                    bestAsk.get(1).asDouble(),       // best_ask_quantity
-                    System.currentTimeMillis(),       // timestamp
-                    tickerData.get("last").asDouble(),// nativePrice (NOK)
-                    intermediateRate.get()                     // intermediateRate
-            );
+            CryptoTick tick = createTick(bestBid, bestAsk, tickerData, System.currentTimeMillis());
+            if (publishedRates != null && tick.price() > 0) {
+                // Collectors converting through this pair record the market response as their rate
+                publishedRates.update(new FxRate(tick.price(), (long) tick.timestamp(), tickerBody));
+            }
+            return tick;
         } catch (Exception e) {
             logger.error("Error processing order book data: {}", e.getMessage());
             throw new IOException("Failed to process order book data", e);
         }
     }
 
+    private CryptoTick createTick(JsonNode bestBid, JsonNode bestAsk, JsonNode tickerData, long timestamp) {
+        if (fixedPoint) {
+            return createFixedPointTick(bestBid, bestAsk, tickerData, timestamp);
+        }
+        if (isDirect()) {
+            return new CryptoTick(
+                    getTradePairId(),                    // symbol
+                    tickerData.get("last").asDouble(),   // price (NOK)
+                    tickerData.get("volume").asDouble(), // volume_24h
+                    bestBid.get(0).asDouble(),           // best_bid
+                    bestBid.get(1).asDouble(),           // best_bid_quantity
+                    bestAsk.get(0).asDouble(),           // best_ask
+                    bestAsk.get(1).asDouble(),           // best_ask_quantity
+                    timestamp                            // timestamp
+            );
+        }
+        // Convert with the rate as it stands at the tick, and record how old it was
+        FxRate rate = intermediateRates.get();
+        double nativePrice = tickerData.get("last").asDouble();
+        return new CryptoTick(
+                getIntermediatePairId(),                      // symbol
+                nativePrice / rate.rate(),                    // price
+                tickerData.get("volume").asDouble(),          // volume_24h
+                bestBid.get(0).asDouble() / rate.rate(),      // best_bid
+                bestBid.get(1).asDouble(),                    // best_bid_quantity
+                bestAsk.get(0).asDouble() / rate.rate(),      // best_ask
+                bestAsk.get(1).asDouble(),                    // best_ask_quantity
+                timestamp,                                    // timestamp
+                nativePrice,                                  // nativePrice (NOK)
+                rate.rate(),                                  // intermediateRate
+                (int) Math.min(Integer.MAX_VALUE, Math.max(0, rate.ageMs(timestamp))) // rateAgeMs
+        );
+    }
+
+    private CryptoTick createFixedPointTick(JsonNode bestBid, JsonNode bestAsk, JsonNode tickerData, long timestamp) {
+        if (tickScale == null) {
+            tickScale = getTickScale();
+        }
+        long nativePrice = FixedPoint.parse(tickerData.get("last").asText(), tickScale.nativePrice());
+        long volume = FixedPoint.parse(tickerData.get("volume").asText(), tickScale.quantity());
+        long bid = FixedPoint.parse(bestBid.get(0).asText(), tickScale.nativePrice());
+        long bidQuantity = FixedPoint.parse(bestBid.get(1).asText(), tickScale.quantity());
+        long ask = FixedPoint.parse(bestAsk.get(0).asText(), tickScale.nativePrice());
+        long askQuantity = FixedPoint.parse(bestAsk.get(1).asText(), tickScale.quantity());
+        if (isDirect()) {
+            return FixedPointTick.direct(getTradePairId(), tickScale, nativePrice, volume, bid, bidQuantity,
+                    ask, askQuantity, timestamp).toCryptoTick();
+        }
+        FxRate rate = intermediateRates.get();
+        return FixedPointTick.converted(getIntermediatePairId(), tickScale, volume, bid, bidQuantity, ask, askQuantity,
+                        timestamp, nativePrice, FixedPoint.fromDouble(rate.rate(), FixedPointTick.RATE_SCALE))
+                .toCryptoTick((int) Math.min(Integer.MAX_VALUE, Math.max(0, rate.ageMs(timestamp))));
+    }
+
+    /**
+     * Rebuild ticks from captured responses. A tick is made from each depth response and the market
+     * response that followed it, stamped with the time the depth response was received, as in live polling.
+     */
+    @Override
+    public void replayFrame(RawFrame frame) {
+        try {
+            JsonNode data = objectMapper.readTree(frame.payload());
+            switch (frame.source()) {
+                case RATE_SOURCE -> {
+                    if (data.has("last") && data.get("last").asDouble() > 0) {
+                        if (intermediateRates == null) {
+                            // Replays take rates from the recording, not from the live service
+                            intermediateRates = new FxRateService(rateName(getExchangeIntermediatePair()),
+                                    INTERMEDIATE_MAX_STALE_MS);
+                        }
+                        intermediateRates.update(data.get("last").asDouble(), frame.receivedAt());
+                    }
+                }
+                case DEPTH_SOURCE -> {
+                    replayedOrderBook = data;
+                    replayedOrderBookTime = frame.receivedAt();
+                }
+                case MARKET_SOURCE -> {
+                    if (replayedOrderBook == null) {
+                        return;
+                    }
+                    JsonNode bids = replayedOrderBook.path("bids");
+                    JsonNode asks = replayedOrderBook.path("asks");
+                    // A segment that starts between rate updates has no rate until the next one is seen
+                    if ((isDirect() || intermediateRates != null) && !bids.isEmpty() && !asks.isEmpty()
+                            && data.has("last") && data.has("volume")) {
+                        offerTick(createTick(bids.get(0), asks.get(0), data, replayedOrderBookTime));
+                    }
+                    replayedOrderBook = null;
+                }
+                default -> logger.warn("Unknown raw frame source: {}", frame.source());
+            }
+        } catch (IOException e) {
+            logger.error("Error replaying {} frame: {}", frame.source(), e.getMessage());
+        }
+    }
+
     @Override
     protected String getOrderBookUrl() {
         return String.format("%s/markets/%s/depth", baseUrl, getExchangeTradePair());
@@ -222,7 +366,10 @@ public class FiriRestCollector extends BaseRestCollector {
         return String.format("%s/markets/%s", baseUrl, getExchangeTradePair());
     }
 
-    private JsonNode fetchPriceData() throws IOException {
+    /**
+     * @return market response as received, checked to hold the last price and volume
+     */
+    private String fetchPriceData() throws IOException {
         try (Response response = httpClient.newCall(new Request.Builder()
                         .url(getMarketUrl())
                         .build())
@@ -237,20 +384,25 @@ public class FiriRestCollector extends BaseRestCollector {
                 throw new IOException("Empty ticker response body");
             }
 
-            JsonNode tickerData = objectMapper.readTree(responseBody.string());
+            String body = responseBody.string();
+            captureFrame(MARKET_SOURCE, body);
+            JsonNode tickerData = objectMapper.readTree(body);
             if (!tickerData.has("last") || !tickerData.has("volume")) {
                 throw new IOException("Invalid ticker data format");
             }
 
-            return tickerData;
+            return body;
         }
     }
 
     @Override
     protected void initializeDataCollection() {
+        if (isDirect()) {
+            return;
+        }
         try {
             updateIntemediateRate();
-            if (intermediateRate.get() <= 0) {
+            if (intermediateRates == null || intermediateRates.rate() <= 0) {
                 throw new RuntimeException("Invalid USD rate after initialization");
             }
         } catch (Exception e) {
@@ -261,15 +413,22 @@ public class FiriRestCollector extends BaseRestCollector {
 
     @Override
     protected void scheduleDataCollection() {
+        // The shared rate service refreshes the intermediate rate
         scheduler.scheduleAtFixedRate(this::pollMarketData, 0, 1, TimeUnit.SECONDS);
+    }
 
-        // Schedule regular rate updates
-        scheduler.scheduleAtFixedRate(() -> {
-            try {
-                updateIntemediateRate();
-            } catch (Exception e) {
-                logger.error("Error during scheduled rate update: {}", e.getMessage());
-            }
-        }, INTERMEDIATE_RATE_UPDATE_INTERVAL_MS, INTERMEDIATE_RATE_UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    @Override
+    public void stopDataCollection() {
+        super.stopDataCollection();
+        FxRateService rates = intermediateRates;
+        if (rates != null) {
+            rates.removeListener(rateCapture);
+            FxRateService.release(rates);
+            intermediateRates = null;
+        }
+        if (publishedRates != null) {
+            FxRateService.release(publishedRates);
+            publishedRates = null;
+        }
     }
 }
\ No newline at end of file
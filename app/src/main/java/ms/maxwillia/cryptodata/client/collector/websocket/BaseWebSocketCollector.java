@@ -10,8 +10,8 @@ import java.util.concurrent.BlockingQueue;
  * Base implementation for WebSocket clients
  */
 public abstract class BaseWebSocketCollector extends BaseExchangeCollector implements WebSocketCollector {
-    protected BaseWebSocketCollector(String exchangeName, String assetCurrency, String intermediateCurrency, BlockingQueue<CryptoTick> dataQueue) {
-        super(exchangeName, assetCurrency, intermediateCurrency, dataQueue);
+    protected BaseWebSocketCollector(String exchangeName, String assetCurrency, String intermediateCurrency, String settlementCurrency, BlockingQueue<CryptoTick> dataQueue) {
+        super(exchangeName, assetCurrency, intermediateCurrency, settlementCurrency, dataQueue);
     }
 
     @Override
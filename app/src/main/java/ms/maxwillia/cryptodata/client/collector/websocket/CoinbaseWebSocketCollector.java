@@ -3,35 +3,40 @@ package ms.maxwillia.cryptodata.client.collector.websocket;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+import lombok.Setter;
 import ms.maxwillia.cryptodata.client.ClientStatus;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import java.io.IOException;
+import java.net.Socket;
 import java.net.URI;
 import java.util.concurrent.BlockingQueue;
 
 import ms.maxwillia.cryptodata.model.CryptoTick;
-
-import javax.money.Monetary;
+import ms.maxwillia.cryptodata.model.RawFrame;
+import ms.maxwillia.cryptodata.model.TickView;
 
 
 public class CoinbaseWebSocketCollector extends BaseWebSocketCollector implements ExchangeWebSocketClient {
     private static final String COINBASE_WS_URL = "wss://advanced-trade-ws.coinbase.com";
+    public static final String FRAME_SOURCE = "ws";
+    public static final String SETTLEMENT_CURRENCY = "USD";
     private final ObjectMapper objectMapper = new ObjectMapper();
     private WebSocketClient wsClient;
-    private double usdRate = 1.0;
+    // Prices are quoted in the USD settlement currency, so there is nothing to convert
+    private static final double USD_RATE = 1.0;
+    @Getter
+    @Setter
+    private String webSocketUrl = COINBASE_WS_URL;
 
     public CoinbaseWebSocketCollector(String assetCurrency, String intermediateCurrency, BlockingQueue<CryptoTick> dataQueue) {
-        super("Coinbase", assetCurrency, intermediateCurrency, dataQueue);
-        setSettlementCurrency(Monetary.getCurrency("USD"));
+        super("Coinbase", assetCurrency, intermediateCurrency, SETTLEMENT_CURRENCY, dataQueue);
     }
 
     @Override
     public void updateIntemediateRate() {
-        if (getSettlementCurrency().getCurrencyCode().contains("USD")) {
-            usdRate = 1.0;
-        } else {
-            // TODO: Implement
-        }
+        // Coinbase pairs settle in USD without an intermediate currency
     }
 
     @Override
@@ -66,6 +71,10 @@ public class CoinbaseWebSocketCollector extends BaseWebSocketCollector implement
         try {
             wsClient = createWebSocketClient();
             return wsClient.connectBlocking();
+        } catch (InterruptedException e) {
+            // Start-up gave up waiting and stops the collector itself
+            Thread.currentThread().interrupt();
+            return false;
         } catch (Exception e) {
             logger.error("Error connecting to Coinbase", e);
             setStatus(ClientStatus.ERROR);
@@ -75,9 +84,10 @@ public class CoinbaseWebSocketCollector extends BaseWebSocketCollector implement
 
     // Protected for testing
     protected WebSocketClient createWebSocketClient() {
-        return new WebSocketClient(URI.create(COINBASE_WS_URL)) {
+        return new WebSocketClient(URI.create(webSocketUrl)) {
             @Override
             public void onMessage(String message) {
+                captureFrame(FRAME_SOURCE, message);
                 handleMessage(message);
             }
 
@@ -109,7 +119,17 @@ public class CoinbaseWebSocketCollector extends BaseWebSocketCollector implement
     @Override
     public void disconnect() {
         if (wsClient != null) {
+            boolean open = wsClient.isOpen();
             wsClient.close();
+            Socket socket = wsClient.getSocket();
+            if (!open && socket != null) {
+                // A handshake still waiting for its response is only abandoned once the socket is closed
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    logger.warn("Error closing Coinbase socket: {}", e.getMessage());
+                }
+            }
         }
         setStatus(ClientStatus.STOPPED);
     }
@@ -131,7 +151,7 @@ public class CoinbaseWebSocketCollector extends BaseWebSocketCollector implement
 
     @Override
     protected void handleReconnect() {
-        new Thread(() -> {
+        executionMode.newThread("%s-Reconnect".formatted(getExchangeName()), false, () -> {
             try {
                 setStatus(ClientStatus.RECONNECTING);
                 Thread.sleep(100);
@@ -178,11 +198,15 @@ public class CoinbaseWebSocketCollector extends BaseWebSocketCollector implement
     void handleMessage(String message) {
         try {
             JsonNode node = objectMapper.readTree(message);
-            logger.debug("Received message: {}", message);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Received message: {}", message);
+            }
 
             if (node.has("sequence_num") &&
                     node.get("sequence_num").asLong() <= lastSequenceNumber) {
-                logger.debug("Skipping message: sequence number not greater than last");
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Skipping message: sequence number not greater than last");
+                }
                 return;
             }
 
@@ -206,14 +230,44 @@ public class CoinbaseWebSocketCollector extends BaseWebSocketCollector implement
         }
     }
 
+    @Override
+    public void replayFrame(RawFrame frame) {
+        // A rolled segment starts after the subscription was confirmed
+        if (getStatus() == null) {
+            setStatus(ClientStatus.COLLECTING);
+        }
+        handleMessage(frame.payload());
+    }
+
     private void processTicker(JsonNode node) {
         try {
             JsonNode tickerEvent = node.get("events").get(0).get("tickers").get(0);
             String timestampString = node.get("timestamp").asText();
             lastSequenceNumber = node.get("sequence_num").asLong();
 
+            if (getTickRing() != null) {
+                // Write the fields straight into the ring, without boxing a tick
+                TickView slot = claimSlot();
+                if (slot != null) {
+                    double price = tickerEvent.get("price").asDouble();
+                    slot.symbolId(getTradePairId())
+                            .price(price)
+                            .volume_24_h(tickerEvent.get("volume_24_h").asDouble())
+                            .best_bid(tickerEvent.get("best_bid").asDouble())
+                            .best_bid_quantity(tickerEvent.get("best_bid_quantity").asDouble())
+                            .best_ask(tickerEvent.get("best_ask").asDouble())
+                            .best_ask_quantity(tickerEvent.get("best_ask_quantity").asDouble())
+                            .timestamp(parseTimestamp(timestampString))
+                            .nativePrice(price)
+                            .intermediateRate(USD_RATE)
+                            .rateAgeMs(CryptoTick.NO_RATE_AGE);
+                    publishSlot();
+                }
+                return;
+            }
+
             CryptoTick tick = new CryptoTick(
-                    this.getTradePair(),
+                    getTradePairId(),
                     tickerEvent.get("price").asDouble(),
                     tickerEvent.get("volume_24_h").asDouble(),
                     tickerEvent.get("best_bid").asDouble(),
@@ -222,7 +276,7 @@ public class CoinbaseWebSocketCollector extends BaseWebSocketCollector implement
                     tickerEvent.get("best_ask_quantity").asDouble(),
                     parseTimestamp(timestampString),
                     tickerEvent.get("price").asDouble(),
-                    usdRate
+                    USD_RATE
             );
             offerTick(tick);
         } catch (Exception e) {
@@ -8,7 +8,9 @@ import ms.maxwillia.cryptodata.config.ExchangeCredentials;
 import ms.maxwillia.cryptodata.model.CurrencyType;
 import ms.maxwillia.cryptodata.model.Transaction;
 import ms.maxwillia.cryptodata.model.TransactionSide;
+import ms.maxwillia.cryptodata.model.TransactionStatus;
 import ms.maxwillia.cryptodata.model.TransactionType;
+import ms.maxwillia.cryptodata.storage.TransactionJournal;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.openssl.PEMParser;
 import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
@@ -38,7 +40,7 @@ public abstract class BaseExchangeTrader extends BaseExchangeClient implements E
     protected final ExchangeCredentials credentials;
     protected ECPrivateKey ecPrivateKey;
     protected volatile boolean isConnected = false;
-    protected ArrayList<Transaction> transactions;
+    protected TransactionJournal transactions;
     @Getter
     private final HashMap<String, String> accountIds = new HashMap<>();
     @Getter
@@ -46,12 +48,15 @@ public abstract class BaseExchangeTrader extends BaseExchangeClient implements E
     @Getter
     @Setter
     private boolean orderSinceLastBalance = true;
+    @Getter
+    private final OrderTracker orderTracker;
 
-    public BaseExchangeTrader(String exchangeName, String assetCurrency, String intermediateCurrency, ExchangeCredentials credentials, boolean isNative) {
-        super(exchangeName, assetCurrency, intermediateCurrency);
+    public BaseExchangeTrader(String exchangeName, String assetCurrency, String intermediateCurrency, String settlementCurrency, ExchangeCredentials credentials, boolean isNative) {
+        super(exchangeName, assetCurrency, intermediateCurrency, settlementCurrency);
         this.credentials = credentials;
-        this.transactions = new ArrayList<>();
+        this.transactions = new TransactionJournal(TransactionJournal.DEFAULT_HOT_WINDOW);
         this.isNative = isNative;
+        this.orderTracker = new OrderTracker(this);
     }
 
     protected static String generateClientOrderId() {
@@ -112,12 +117,59 @@ public abstract class BaseExchangeTrader extends BaseExchangeClient implements E
         ecPrivateKey = (ECPrivateKey) keyFactory.generatePrivate(keySpec);
     }
 
+    /**
+     * Persist transactions to a journal file, recovering any transactions already in it.
+     * Transactions recorded before the journal was opened are appended to it.
+     *
+     * @param journal journal to use from now on
+     */
+    public void setTransactionJournal(TransactionJournal journal) {
+        TransactionJournal previous = this.transactions;
+        for (Transaction transaction : previous.getRecent()) {
+            journal.append(transaction);
+        }
+        this.transactions = journal;
+        previous.close();
+        logger.info("{}: Recording transactions to {} ({} open)", getExchangeName(), journal.getPath(), journal.getOpen().size());
+    }
+
+    public TransactionJournal getTransactionJournal() {
+        return transactions;
+    }
+
     public void addTransaction(Transaction transaction) {
-        transactions.add(transaction);
+        transactions.append(transaction);
     }
 
-    public List<Transaction> getTransactions() {
-        return this.transactions;
+    /**
+     * Record a change to a transaction that has already been added
+     *
+     * @param transaction updated transaction
+     */
+    public void updateTransaction(Transaction transaction) {
+        transactions.append(transaction);
+    }
+
+    /**
+     * Get transactions which have been accepted by the exchange but not yet reached a terminal state
+     *
+     * @return outstanding transactions
+     */
+    public List<Transaction> getOutstandingTransactions() {
+        return transactions.getOpen().stream()
+                .filter(transaction -> !transaction.isPreview())
+                .filter(transaction -> transaction.getStatus() == TransactionStatus.REQUESTED)
+                .filter(transaction -> transaction.getExchangeId() != null)
+                .toList();
+    }
+
+    /**
+     * Get the most recent transactions held in memory, oldest first
+     *
+     * @return recent transactions
+     */
+    public List<Transaction> getRecentTransactions() {
+        return transactions.getRecent();
     }
 
     public String toString() {
@@ -161,6 +213,15 @@ public abstract class BaseExchangeTrader extends BaseExchangeClient implements E
 
     abstract Transaction executeOrder(TransactionType orderType, TransactionSide side, CurrencyType currencyType, double price, double quantity, String clientOrderId);
 
+    /**
+     * Refresh the exchange status of all given orders, ideally with a single request.
+     * Transactions are updated in place.
+     *
+     * @param outstanding transactions in REQUESTED status with a known exchange id
+     * @return transactions that reached a terminal state
+     */
+    abstract List<Transaction> refreshOrderStatus(List<Transaction> outstanding);
+
     abstract String getAssetWalletAddress();
 
     abstract String getIntermediateWalletAddress();
@@ -3,6 +3,9 @@ package ms.maxwillia.cryptodata.client.trader;
 import java.net.URI;
 import java.util.*;
 import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
@@ -17,7 +20,6 @@ import ms.maxwillia.cryptodata.model.*;
 import okhttp3.*;
 import org.jetbrains.annotations.Nullable;
 
-import javax.money.Monetary;
 import javax.money.MonetaryAmount;
 
 import ms.maxwillia.cryptodata.apis.coinbase.v3.invoker.ApiClient;
@@ -33,8 +35,7 @@ class CoinbaseTrader extends BaseExchangeTrader {
 
 
     public CoinbaseTrader(String assetCurrency, String intermediateCurrency, ExchangeCredentials credentials) {
-        super("Coinbase", assetCurrency, intermediateCurrency, credentials, true);
-        setSettlementCurrency(Monetary.getCurrency("USDC"));
+        super("Coinbase", assetCurrency, intermediateCurrency, "USDC", credentials, true);
         this.baseApiClient = new ApiClient();
     }
 
@@ -98,6 +99,7 @@ class CoinbaseTrader extends BaseExchangeTrader {
             accountsApi.listAccounts(1,null);
             isConnected = true;
             setStatus(ClientStatus.CONNECTED);
+            getOrderTracker().start();
             return true;
         } catch (ApiException e) {
             logger.error("Failed to connect to Coinbase: {}", e.getMessage());
@@ -108,6 +110,7 @@ class CoinbaseTrader extends BaseExchangeTrader {
 
     @Override
     public void disconnect() {
+        getOrderTracker().stop();
         isConnected = false;
         setStatus(ClientStatus.STOPPED);
     }
@@ -262,6 +265,103 @@ class CoinbaseTrader extends BaseExchangeTrader {
         return transaction;
     }
 
+    /**
+     * Refreshes all outstanding orders through a single orders/historical/batch request.
+     * The batch response already carries the aggregated fill details (filled size, average price, fees),
+     * so the fills endpoint is not queried per order.
+     *
+     * @param outstanding transactions in REQUESTED status with a known exchange id
+     * @return transactions that reached a terminal state
+     */
+    @Override
+    List<Transaction> refreshOrderStatus(List<Transaction> outstanding) {
+        if (!isConnected || outstanding.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Transaction> transactionsByOrderId = new HashMap<>();
+        for (Transaction transaction : outstanding) {
+            transactionsByOrderId.put(transaction.getExchangeId(), transaction);
+        }
+        List<String> orderIds = new ArrayList<>(transactionsByOrderId.keySet());
+        List<Transaction> completed = new ArrayList<>();
+
+        OrdersApi ordersApi = new OrdersApi(getApiClient(OrdersApi.class.getSimpleName()));
+        String cursor = null;
+        try {
+            do {
+                ordersApi.getApiClient().setBearerToken(jwtFromApi(ordersApi.listOrdersCall(orderIds, null, null, null, null, null, null, null, null, null, null, null, null, null, cursor, null, null, null)));
+                OrdersResponse ordersResponse = ordersApi.listOrders(orderIds, null, null, null, null, null, null, null, null, null, null, null, null, null, cursor, null, null);
+                if (ordersResponse.getOrders() != null) {
+                    for (Order order : ordersResponse.getOrders()) {
+                        Transaction transaction = transactionsByOrderId.get(order.getOrderId());
+                        if (transaction != null && applyOrderStatus(transaction, order)) {
+                            completed.add(transaction);
+                        }
+                    }
+                }
+                cursor = Boolean.TRUE.equals(ordersResponse.getHasNext()) ? ordersResponse.getCursor() : null;
+            } while (cursor != null);
+        } catch (ApiException e) {
+            logger.error("Failed to refresh {} orders with return code {}", orderIds.size(), e.getCode(), e);
+        }
+
+        if (!completed.isEmpty()) {
+            setOrderSinceLastBalance(true);
+        }
+        return completed;
+    }
+
+    /**
+     * Copies status and fill details of an exchange order onto its transaction
+     *
+     * @return true if the order reached a terminal state
+     */
+    private boolean applyOrderStatus(Transaction transaction, Order order) {
+        transaction.setFilledQuantity(parseDecimal(order.getFilledSize()));
+        transaction.setFilledPrice(parseDecimal(order.getAverageFilledPrice()));
+        if (order.getNumberOfFills() != null) {
+            transaction.setFillCount(Integer.parseInt(order.getNumberOfFills()));
+        }
+        if (order.getTotalFees() != null) {
+            transaction.setFee(parseDecimal(order.getTotalFees()));
+        }
+
+        if (order.getStatus() == null) {
+            return false;
+        }
+        switch (order.getStatus()) {
+            case FILLED:
+                transaction.setStatus(TransactionStatus.EXECUTED);
+                transaction.setFilledTime(parseFillTime(order.getLastFillTime()));
+                return true;
+            case CANCELLED:
+            case EXPIRED:
+            case FAILED:
+                logger.error("Order {} ended with status {}", transaction.getExchangeId(), order.getStatus());
+                transaction.setStatus(TransactionStatus.EXECUTION_ERROR);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Nullable
+    private static Double parseDecimal(String value) {
+        return value == null || value.isEmpty() ? null : Double.parseDouble(value);
+    }
+
+    private static ZonedDateTime parseFillTime(String lastFillTime) {
+        if (lastFillTime != null && !lastFillTime.isEmpty()) {
+            try {
+                return ZonedDateTime.parse(lastFillTime);
+            } catch (DateTimeParseException ignored) {
+                // Fall back to the time the fill was observed
+            }
+        }
+        return ZonedDateTime.now(ZoneOffset.UTC);
+    }
+
     @Override
     String getAssetWalletAddress() {
         return "";
@@ -9,7 +9,6 @@ import ms.maxwillia.cryptodata.model.*;
 import okhttp3.*;
 import org.jetbrains.annotations.Nullable;
 
-import javax.money.Monetary;
 import javax.money.MonetaryAmount;
 import java.math.BigDecimal;
 import java.util.HashMap;
@@ -28,8 +27,7 @@ public class FiriTrader extends BaseExchangeTrader {
         private final ApiClient apiClient;
 
     public FiriTrader(String assetCurrency, String intermediateCurrency, ExchangeCredentials credentials) {
-        super("Firi", assetCurrency, intermediateCurrency, credentials, false);
-        setSettlementCurrency(Monetary.getCurrency("NOK"));
+        super("Firi", assetCurrency, intermediateCurrency, "NOK", credentials, false);
         apiClient = new ApiClient();
         apiClient.setApiKey(credentials.getPrivateKey());
     }
@@ -217,12 +215,18 @@ public class FiriTrader extends BaseExchangeTrader {
                 transaction.setStatus(TransactionStatus.EXECUTION_ERROR);
             }
         }
-        this.getTransactions().add(transaction);
+        addTransaction(transaction);
         this.setOrderSinceLastBalance(true);
         return transaction;
 
     }
 
+    @Override
+    List<Transaction> refreshOrderStatus(List<Transaction> outstanding) {
+        // Orders are marked EXECUTED on creation, nothing is left outstanding
+        return List.of();
+    }
+
     @Override
     String getAssetWalletAddress() {
         //TODO implement once firi confirms /deposit/address endpoint availability and return
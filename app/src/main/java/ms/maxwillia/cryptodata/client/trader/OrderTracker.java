@@ -0,0 +1,142 @@
+package ms.maxwillia.cryptodata.client.trader;
+
+import lombok.Getter;
+import lombok.Setter;
+import ms.maxwillia.cryptodata.model.Transaction;
+import ms.maxwillia.cryptodata.model.TransactionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks outstanding orders of a trader until they reach a terminal state.
+ * Every poll gathers all outstanding orders and hands them to the trader in a single batch,
+ * so the number of requests does not grow with the number of open orders.
+ */
+public class OrderTracker {
+    private static final Logger logger = LoggerFactory.getLogger(OrderTracker.class);
+    private static final long DEFAULT_POLL_INTERVAL_MS = 2000;
+
+    private final BaseExchangeTrader trader;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> pollingTask;
+
+    @Getter
+    @Setter
+    private long pollIntervalMs = DEFAULT_POLL_INTERVAL_MS;
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong filledOrders = new AtomicLong();
+    private final AtomicLong failedOrders = new AtomicLong();
+    // Fills with both a created and a filled time, which make up the total
+    private final AtomicLong timedFills = new AtomicLong();
+    private final AtomicLong totalTimeToFillMs = new AtomicLong();
+    private final AtomicLong maxTimeToFillMs = new AtomicLong();
+
+    public OrderTracker(BaseExchangeTrader trader) {
+        this.trader = trader;
+    }
+
+    public synchronized void start() {
+        if (pollingTask != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OrderTracker-%s".formatted(trader.getExchangeName()));
+            thread.setDaemon(true);
+            return thread;
+        });
+        pollingTask = scheduler.scheduleWithFixedDelay(this::pollSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("{}: Tracking outstanding orders every {} ms", trader.getExchangeName(), pollIntervalMs);
+    }
+
+    public synchronized void stop() {
+        if (pollingTask == null) {
+            return;
+        }
+        pollingTask.cancel(false);
+        scheduler.shutdownNow();
+        pollingTask = null;
+        scheduler = null;
+    }
+
+    public boolean isRunning() {
+        return pollingTask != null;
+    }
+
+    /**
+     * Refresh all outstanding orders with a single batched request
+     *
+     * @return number of orders that reached a terminal state during this poll
+     */
+    public int poll() {
+        List<Transaction> outstanding = trader.getOutstandingTransactions();
+        if (outstanding.isEmpty()) {
+            return 0;
+        }
+        polls.incrementAndGet();
+        List<Transaction> completed = trader.refreshOrderStatus(outstanding);
+        for (Transaction transaction : completed) {
+            trader.updateTransaction(transaction);
+            if (transaction.getStatus() == TransactionStatus.EXECUTED) {
+                recordFill(transaction);
+            } else {
+                failedOrders.incrementAndGet();
+            }
+        }
+        logger.debug("{}: Polled {} outstanding orders, {} completed",
+                trader.getExchangeName(), outstanding.size(), completed.size());
+        return completed.size();
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception e) {
+            logger.error("{}: Error polling order status", trader.getExchangeName(), e);
+        }
+    }
+
+    private void recordFill(Transaction transaction) {
+        filledOrders.incrementAndGet();
+        if (transaction.getFilledTime() == null || transaction.getCreatedTime() == null) {
+            return;
+        }
+        long timeToFillMs = Math.max(0, Duration.between(transaction.getCreatedTime(), transaction.getFilledTime()).toMillis());
+        timedFills.incrementAndGet();
+        totalTimeToFillMs.addAndGet(timeToFillMs);
+        maxTimeToFillMs.accumulateAndGet(timeToFillMs, Math::max);
+        logger.info("{}: Order {} filled in {} ms", trader.getExchangeName(), transaction.getExchangeId(), timeToFillMs);
+    }
+
+    public long getPolls() {
+        return polls.get();
+    }
+
+    public long getFilledOrders() {
+        return filledOrders.get();
+    }
+
+    public long getFailedOrders() {
+        return failedOrders.get();
+    }
+
+    public long getMaxTimeToFillMs() {
+        return maxTimeToFillMs.get();
+    }
+
+    /**
+     * Average over the fills whose time to fill is known
+     */
+    public double getAverageTimeToFillMs() {
+        long timed = timedFills.get();
+        return timed == 0 ? 0 : (double) totalTimeToFillMs.get() / timed;
+    }
+}
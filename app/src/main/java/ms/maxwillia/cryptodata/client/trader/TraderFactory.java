@@ -9,12 +9,21 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import ms.maxwillia.cryptodata.config.ExchangeCredentials;
+import ms.maxwillia.cryptodata.storage.TransactionJournal;
 
 /**
- * Factory for creating exchange trader instances
+ * Factory for creating exchange trader instances.
+ * <p>
+ * Each trader records its transactions to a journal file in the directory set by the
+ * {@value #JOURNAL_DIR_PROPERTY} system property, so a restarted trader recovers the orders it
+ * still has open and can reconcile them with the exchange.
  */
 public class TraderFactory {
     private static final Logger logger = LoggerFactory.getLogger(TraderFactory.class);
+    public static final String JOURNAL_DIR_PROPERTY = "trader.journal.dir";
+    public static final String JOURNAL_SYNC_PROPERTY = "trader.journal.sync";
+    public static final String DEFAULT_JOURNAL_DIR = "journal";
+    public static final TransactionJournal.SyncPolicy DEFAULT_JOURNAL_SYNC = TransactionJournal.SyncPolicy.ALWAYS;
     
     /**
      * Creates an ExchangeTrader for the specified exchange and currency
@@ -44,14 +53,37 @@ public class TraderFactory {
         String normalizedExchange = exchangeName.toLowerCase();
         
         // Create appropriate trader based on exchange
+        BaseExchangeTrader trader;
         switch (normalizedExchange) {
             case "coinbase":
-                return createCoinbaseTrader(currency, apiKeyPath);
+                trader = createCoinbaseTrader(currency, apiKeyPath);
+                break;
             case "firi":
-                return createFiriTrader(currency, intermediateCurrency, apiKeyPath);
+                trader = createFiriTrader(currency, intermediateCurrency, apiKeyPath);
+                break;
             default:
                 throw new IllegalArgumentException("Unsupported exchange: " + exchangeName);
         }
+        openTransactionJournal(trader);
+        return trader;
+    }
+
+    /**
+     * Open the trader's journal, named after its exchange and pair, recovering the transactions
+     * recorded by earlier runs. The sync policy is set by the {@value #JOURNAL_SYNC_PROPERTY}
+     * system property, and syncs every record by default so open orders survive a host crash.
+     * @param trader trader to record transactions for
+     * @throws IOException if the journal cannot be opened
+     */
+    static void openTransactionJournal(BaseExchangeTrader trader) throws IOException {
+        Path directory = Path.of(System.getProperty(JOURNAL_DIR_PROPERTY, DEFAULT_JOURNAL_DIR));
+        Files.createDirectories(directory);
+        String sync = System.getProperty(JOURNAL_SYNC_PROPERTY);
+        TransactionJournal.SyncPolicy syncPolicy = sync != null
+                ? TransactionJournal.SyncPolicy.valueOf(sync.toUpperCase())
+                : DEFAULT_JOURNAL_SYNC;
+        Path path = directory.resolve("%s_%s.jsonl".formatted(trader.getExchangeName(), trader.getTradePair()));
+        trader.setTransactionJournal(new TransactionJournal(path, syncPolicy, TransactionJournal.DEFAULT_HOT_WINDOW));
     }
 
     /**
@@ -0,0 +1,62 @@
+package ms.maxwillia.cryptodata.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Consistent hash ring of shards. Each shard is placed on the ring at several points, and a key
+ * belongs to the first live shard at or after its hash. When a shard is down only its keys move,
+ * spread across the others, and they move back once it is live again.
+ */
+class ConsistentHashRing {
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+
+    /**
+     * @param virtualNodes points each shard is placed at, evening out how many keys each gets
+     */
+    ConsistentHashRing(int shardCount, int virtualNodes) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.put(hash("shard-%d#%d".formatted(shard, node)), shard);
+            }
+        }
+    }
+
+    /**
+     * @return first live shard at or after the key's hash, or -1 if none are live
+     */
+    int owner(String key, IntPredicate live) {
+        long hash = hash(key);
+        for (int shard : ring.tailMap(hash, true).values()) {
+            if (live.test(shard)) {
+                return shard;
+            }
+        }
+        for (int shard : ring.headMap(hash, false).values()) {
+            if (live.test(shard)) {
+                return shard;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 64-bit FNV-1a with a final avalanche, stable across processes and JVM versions unlike
+     * {@link String#hashCode()}'s spread over a small key set
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
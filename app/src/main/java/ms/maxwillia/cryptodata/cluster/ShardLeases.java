@@ -0,0 +1,81 @@
+package ms.maxwillia.cryptodata.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Shard membership kept as lease files in a directory shared by every instance. Each instance
+ * writes the time its lease expires to {@code shard-<index>.lease} and renews it well before then;
+ * a shard whose lease has expired or been released is treated as down. Leases are replaced with an
+ * atomic move, so a reader never sees a partly written file. Instances must share a clock, e.g. by
+ * running on the same machine.
+ */
+class ShardLeases {
+    private static final Logger logger = LoggerFactory.getLogger(ShardLeases.class);
+
+    private final Path directory;
+    private final int shardIndex;
+    private final long ttlMs;
+
+    ShardLeases(Path directory, int shardIndex, long ttlMs) {
+        this.directory = directory;
+        this.shardIndex = shardIndex;
+        this.ttlMs = ttlMs;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create lease directory " + directory, e);
+        }
+    }
+
+    /**
+     * Extend this shard's lease by the time to live from now
+     */
+    void renew() {
+        Path lease = leaseFile(shardIndex);
+        Path pending = directory.resolve(lease.getFileName() + ".tmp");
+        try {
+            Files.writeString(pending, Long.toString(System.currentTimeMillis() + ttlMs));
+            Files.move(pending, lease, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // Peers will see the lease lapse and take over, so keep going and retry on the next renewal
+            logger.error("Cannot renew lease {}", lease, e);
+        }
+    }
+
+    boolean isLive(int shard) {
+        if (shard == shardIndex) {
+            return true;
+        }
+        try {
+            return Long.parseLong(Files.readString(leaseFile(shard)).trim()) > System.currentTimeMillis();
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Cannot read lease of shard {}, treating it as down", shard, e);
+            return false;
+        }
+    }
+
+    /**
+     * Give up this shard's lease so peers take over straight away
+     */
+    void release() {
+        try {
+            Files.deleteIfExists(leaseFile(shardIndex));
+        } catch (IOException e) {
+            logger.error("Cannot release lease of shard {}", shardIndex, e);
+        }
+    }
+
+    private Path leaseFile(int shard) {
+        return directory.resolve("shard-%d.lease".formatted(shard));
+    }
+}
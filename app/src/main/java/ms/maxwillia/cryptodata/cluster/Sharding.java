@@ -0,0 +1,112 @@
+package ms.maxwillia.cryptodata.cluster;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Splits the configured pairs between several collector instances, each started with the same
+ * pair set and shard count and its own shard index:
+ * <pre>
+ * ./gradlew :app:run -Dshard.count=3 -Dshard.index=0 -Dshard.lease.dir=/var/run/collector --args="--config pairs.json"
+ * </pre>
+ * Pairs are assigned to shards by consistent hashing of their queue key. Instances hold leases in
+ * the shared lease directory; when an instance stops renewing its lease, the live instances take
+ * over its pairs, and hand them back once it returns. Ownership is re-evaluated on every renewal,
+ * so for up to one renewal interval around a change a pair may be collected by two instances.
+ */
+public class Sharding implements AutoCloseable {
+    public static final String COUNT_PROPERTY = "shard.count";
+    public static final String INDEX_PROPERTY = "shard.index";
+    public static final String LEASE_DIR_PROPERTY = "shard.lease.dir";
+    public static final String LEASE_TTL_MS_PROPERTY = "shard.lease.ttl.ms";
+    public static final long DEFAULT_LEASE_TTL_MS = 10000;
+    private static final int VIRTUAL_NODES = 128;
+
+    @Getter
+    private final int shardCount;
+    @Getter
+    private final int shardIndex;
+    @Getter
+    private final long leaseTtlMs;
+    private final ConsistentHashRing ring;
+    private final ShardLeases leases;
+
+    public Sharding(int shardCount, int shardIndex, Path leaseDirectory, long leaseTtlMs) {
+        if (shardCount <= 0 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Invalid shard %d of %d".formatted(shardIndex, shardCount));
+        }
+        if (leaseTtlMs <= 0) {
+            throw new IllegalArgumentException("Lease time to live must be positive: " + leaseTtlMs);
+        }
+        this.shardCount = shardCount;
+        this.shardIndex = shardIndex;
+        this.leaseTtlMs = leaseTtlMs;
+        this.ring = new ConsistentHashRing(shardCount, VIRTUAL_NODES);
+        this.leases = new ShardLeases(leaseDirectory, shardIndex, leaseTtlMs);
+    }
+
+    /**
+     * Sharding set by the {@value #COUNT_PROPERTY} and {@value #INDEX_PROPERTY} system properties,
+     * or null to collect every pair in this instance
+     */
+    public static Sharding configured() {
+        Integer count = Integer.getInteger(COUNT_PROPERTY);
+        if (count == null) {
+            return null;
+        }
+        Integer index = Integer.getInteger(INDEX_PROPERTY);
+        if (index == null) {
+            throw new IllegalArgumentException("%s is required with %s".formatted(INDEX_PROPERTY, COUNT_PROPERTY));
+        }
+        Path directory = Path.of(System.getProperty(LEASE_DIR_PROPERTY,
+                Path.of(System.getProperty("java.io.tmpdir"), "crypto-data-collector-leases").toString()));
+        return new Sharding(count, index, directory, Long.getLong(LEASE_TTL_MS_PROPERTY, DEFAULT_LEASE_TTL_MS));
+    }
+
+    /**
+     * How often to {@link #renew()}, leaving room for two missed renewals before the lease lapses
+     */
+    public long getRenewIntervalMs() {
+        return Math.max(1, leaseTtlMs / 3);
+    }
+
+    public void renew() {
+        leases.renew();
+    }
+
+    public Set<Integer> liveShards() {
+        Set<Integer> live = new TreeSet<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (leases.isLive(shard)) {
+                live.add(shard);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Keys this instance should collect given the shards live right now
+     */
+    public Set<String> ownedKeys(Collection<String> keys) {
+        Set<Integer> live = liveShards();
+        Set<String> owned = new TreeSet<>();
+        for (String key : keys) {
+            if (ring.owner(key, live::contains) == shardIndex) {
+                owned.add(key);
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * Release this instance's lease so its pairs are taken over without waiting for it to expire
+     */
+    @Override
+    public void close() {
+        leases.release();
+    }
+}
@@ -0,0 +1,68 @@
+package ms.maxwillia.cryptodata.concurrent;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Kind of thread the collector runs its processors, pollers and reconnect handlers on.
+ * <p>
+ * With {@link #PLATFORM} every pair costs at least one OS thread for its processor plus whatever
+ * its collector starts. With {@link #VIRTUAL} the same tasks run on virtual threads, which are
+ * multiplexed over a small carrier pool, so the OS thread count stays flat as pairs are added.
+ * Selected with the {@value #PROPERTY} system property; platform threads are the default.
+ */
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL;
+
+    public static final String PROPERTY = "execution.mode";
+
+    /**
+     * Mode selected by the {@value #PROPERTY} system property
+     */
+    public static ExecutionMode configured() {
+        String mode = System.getProperty(PROPERTY, PLATFORM.name());
+        try {
+            return valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown %s: %s".formatted(PROPERTY, mode), e);
+        }
+    }
+
+    /**
+     * Create an unstarted thread. Virtual threads are always daemon threads.
+     */
+    public Thread newThread(String name, boolean daemon, Runnable task) {
+        if (this == VIRTUAL) {
+            return Thread.ofVirtual().name(name).unstarted(task);
+        }
+        return Thread.ofPlatform().name(name).daemon(daemon).unstarted(task);
+    }
+
+    /**
+     * Factory for threads named {@code <prefix>-<n>}
+     */
+    public ThreadFactory threadFactory(String prefix) {
+        if (this == VIRTUAL) {
+            return Thread.ofVirtual().name(prefix + "-", 0).factory();
+        }
+        AtomicInteger count = new AtomicInteger();
+        return task -> Thread.ofPlatform().name(prefix + "-" + count.getAndIncrement()).unstarted(task);
+    }
+
+    public ScheduledExecutorService newScheduledExecutor(String prefix, int threads) {
+        return Executors.newScheduledThreadPool(threads, threadFactory(prefix));
+    }
+
+    /**
+     * Executor that starts a new thread for every task. Closing it waits for every task to finish,
+     * so a try-with-resources block bounds the lifetime of the tasks forked inside it.
+     */
+    public ExecutorService newTaskExecutor(String prefix) {
+        return Executors.newThreadPerTaskExecutor(threadFactory(prefix));
+    }
+}
@@ -0,0 +1,76 @@
+package ms.maxwillia.cryptodata.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Starts a set of clients at once, such as collectors connecting to their exchanges, so that
+ * start-up takes as long as the slowest client rather than the sum of them all. Clients still
+ * starting at the deadline are interrupted and reported as timed out.
+ */
+public final class ParallelStartup {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelStartup.class);
+    public static final String DEADLINE_MS_PROPERTY = "startup.deadline.ms";
+    public static final long DEFAULT_DEADLINE_MS = 30000;
+
+    public enum Outcome {
+        STARTED,
+        FAILED,
+        TIMED_OUT
+    }
+
+    private ParallelStartup() {
+    }
+
+    /**
+     * @param start starts one client, returning whether it succeeded
+     * @return outcome for every client, in the order given
+     */
+    public static <T> Map<T, Outcome> run(Collection<T> clients, Predicate<T> start, long deadlineMs,
+                                          ExecutionMode executionMode) {
+        List<T> ordered = new ArrayList<>(clients);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (T client : ordered) {
+            tasks.add(() -> start.test(client));
+        }
+        Map<T, Outcome> outcomes = new LinkedHashMap<>();
+        ExecutorService executor = executionMode.newTaskExecutor("Startup");
+        try {
+            List<Future<Boolean>> futures = executor.invokeAll(tasks, deadlineMs, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < ordered.size(); i++) {
+                outcomes.put(ordered.get(i), outcome(ordered.get(i), futures.get(i)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ordered.forEach(client -> outcomes.putIfAbsent(client, Outcome.TIMED_OUT));
+        } finally {
+            // Not closed, which would wait for clients that ignore being interrupted
+            executor.shutdownNow();
+        }
+        return outcomes;
+    }
+
+    private static Outcome outcome(Object client, Future<Boolean> future) throws InterruptedException {
+        try {
+            return Boolean.TRUE.equals(future.get()) ? Outcome.STARTED : Outcome.FAILED;
+        } catch (CancellationException e) {
+            return Outcome.TIMED_OUT;
+        } catch (ExecutionException e) {
+            logger.error("Error starting {}", client, e.getCause());
+            return Outcome.FAILED;
+        }
+    }
+}
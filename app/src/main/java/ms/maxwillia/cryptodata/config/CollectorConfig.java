@@ -0,0 +1,108 @@
+package ms.maxwillia.cryptodata.config;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collector topology: the exchanges and pairs to collect and the queue, batching and storage
+ * settings for each, loaded from a JSON file such as
+ * <pre>
+ * {
+ *   "defaults": {"storage": "binary", "overflow": "spill"},
+ *   "pairs": [
+ *     {"exchange": "Coinbase", "asset": "BTC", "tickRing": true},
+ *     {"exchange": "Firi", "asset": "BTC", "intermediate": "USDC", "pollIntervalMs": 500, "queueCapacity": 2000},
+ *     {"exchange": "Firi", "asset": "ETH", "intermediate": "USDC", "fixedPoint": true},
+ *     {"exchange": "Firi", "asset": "USDC", "rateStream": true}
+ *   ]
+ * }
+ * </pre>
+ * A Firi pair without an intermediate, such as USDC above, is collected in NOK. Marked as a rate
+ * stream, its prices are also used as the rate by the Firi pairs converting through it. A fixed-point
+ * pair, such as ETH above, is converted and stored as scaled longs, and needs binary storage.
+ * A Coinbase pair with a tick ring, such as BTC above, writes its ticks into off-heap slots that
+ * are stored from there without boxing them, and needs binary or mapped storage.
+ * Unknown fields are rejected so that a misspelt setting is not silently ignored.
+ */
+@Setter
+@Getter
+public class CollectorConfig {
+    private static final Logger logger = LoggerFactory.getLogger(CollectorConfig.class);
+    private static final List<String> LEGACY_EXCHANGES = List.of("Coinbase", "Firi");
+
+    private KeySettings defaults = new KeySettings();
+    private List<PairConfig> pairs = new ArrayList<>();
+
+    public static CollectorConfig loadFromFile(Path path) throws IOException {
+        logger.debug("Loading collector config from file: {}", path);
+        JsonMapper mapper = JsonMapper.builder()
+                .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+                .build();
+        CollectorConfig config = mapper.readValue(path.toFile(), CollectorConfig.class);
+        config.validate();
+        return config;
+    }
+
+    /**
+     * Every asset collected from Coinbase and, through its intermediate currency, from Firi, as
+     * given on the command line as ASSET;INTERMEDIATE, and each intermediate currency collected
+     * from Firi as the rate stream for those conversions
+     */
+    public static CollectorConfig forAssets(String[] assets, String[] intermediates) {
+        CollectorConfig config = new CollectorConfig();
+        Set<String> rateStreams = new LinkedHashSet<>();
+        for (int i = 0; i < assets.length; i++) {
+            for (String exchange : LEGACY_EXCHANGES) {
+                config.pairs.add(new PairConfig(exchange, assets[i], exchange.equals("Firi") ? intermediates[i] : null));
+            }
+            if (intermediates[i] != null) {
+                rateStreams.add(intermediates[i]);
+            }
+        }
+        for (String intermediate : rateStreams) {
+            PairConfig rateStream = new PairConfig("Firi", intermediate, null);
+            rateStream.setRateStream(true);
+            config.pairs.add(rateStream);
+        }
+        return config;
+    }
+
+    /**
+     * Settings for a pair, with unset values taken from the defaults
+     */
+    public KeySettings settingsFor(PairConfig pair) {
+        return defaults.overriddenBy(pair);
+    }
+
+    /**
+     * Add a pair to collect, e.g. while the collector is running
+     */
+    public void addPair(PairConfig pair) {
+        pair.validate("pair");
+        pairs.add(pair);
+    }
+
+    public void validate() {
+        if (pairs == null || pairs.isEmpty()) {
+            throw new IllegalArgumentException("Collector config has no pairs");
+        }
+        if (defaults == null) {
+            defaults = new KeySettings();
+        }
+        defaults.validate("defaults");
+        for (int i = 0; i < pairs.size(); i++) {
+            pairs.get(i).validate("pairs[%d]".formatted(i));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ms.maxwillia.cryptodata.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import ms.maxwillia.cryptodata.pipeline.OverflowPolicy;
+
+/**
+ * Performance settings for the queue, batching and storage of one exchange/pair. Unset (null)
+ * settings are inherited: from the config file defaults for a pair, and from the system properties
+ * for the defaults.
+ */
+@Setter
+@Getter
+public class KeySettings {
+    private Integer queueCapacity;
+    private OverflowPolicy overflow;
+    // Tick file format: csv, binary or mapped
+    private String storage;
+    private Long batchMaxLatencyMs;
+    private Integer batchMaxBytes;
+    // REST transports only
+    private Long pollIntervalMs;
+    // Redundant connections collecting the pair, merged by de-duplication; websocket transports only
+    private Integer replicas;
+
+    /**
+     * Settings with every value set in {@code overrides} replacing this one
+     */
+    public KeySettings overriddenBy(KeySettings overrides) {
+        KeySettings merged = new KeySettings();
+        merged.queueCapacity = overrides.queueCapacity != null ? overrides.queueCapacity : queueCapacity;
+        merged.overflow = overrides.overflow != null ? overrides.overflow : overflow;
+        merged.storage = overrides.storage != null ? overrides.storage : storage;
+        merged.batchMaxLatencyMs = overrides.batchMaxLatencyMs != null ? overrides.batchMaxLatencyMs : batchMaxLatencyMs;
+        merged.batchMaxBytes = overrides.batchMaxBytes != null ? overrides.batchMaxBytes : batchMaxBytes;
+        merged.pollIntervalMs = overrides.pollIntervalMs != null ? overrides.pollIntervalMs : pollIntervalMs;
+        merged.replicas = overrides.replicas != null ? overrides.replicas : replicas;
+        return merged;
+    }
+
+    void validate(String context) {
+        if (queueCapacity != null && queueCapacity <= 0) {
+            throw new IllegalArgumentException("%s: queueCapacity must be positive".formatted(context));
+        }
+        if (batchMaxLatencyMs != null && batchMaxLatencyMs < 0) {
+            throw new IllegalArgumentException("%s: batchMaxLatencyMs must not be negative".formatted(context));
+        }
+        if (batchMaxBytes != null && batchMaxBytes <= 0) {
+            throw new IllegalArgumentException("%s: batchMaxBytes must be positive".formatted(context));
+        }
+        if (pollIntervalMs != null && pollIntervalMs <= 0) {
+            throw new IllegalArgumentException("%s: pollIntervalMs must be positive".formatted(context));
+        }
+        if (replicas != null && replicas <= 0) {
+            throw new IllegalArgumentException("%s: replicas must be positive".formatted(context));
+        }
+    }
+}
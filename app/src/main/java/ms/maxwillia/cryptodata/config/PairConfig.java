@@ -0,0 +1,55 @@
+package ms.maxwillia.cryptodata.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One exchange/pair to collect, with any settings that differ from the config file defaults
+ */
+@Setter
+@Getter
+public class PairConfig extends KeySettings {
+    public enum Transport {
+        WEBSOCKET,
+        REST
+    }
+
+    private String exchange;
+    private String asset;
+    // Currency the exchange quotes the asset in, if ticks are converted through it
+    private String intermediate;
+    // Publishes the pair's prices as the rate for the pairs converting through its asset
+    private boolean rateStream;
+    // Converts and stores the pair's prices as fixed-point scaled longs; Firi pairs with binary storage only
+    private boolean fixedPoint;
+    // Publishes ticks through an off-heap ring straight to binary storage; Coinbase pairs with one replica only
+    private boolean tickRing;
+    // Defaults to the transport the exchange's collector uses
+    private Transport transport;
+    // Overrides the exchange's endpoint, e.g. to run against the exchange simulator
+    private String url;
+
+    // Required for Jackson deserialization
+    public PairConfig() {}
+
+    public PairConfig(String exchange, String asset, String intermediate) {
+        this.exchange = exchange;
+        this.asset = asset;
+        this.intermediate = intermediate;
+    }
+
+    @Override
+    void validate(String context) {
+        if (exchange == null || exchange.isBlank()) {
+            throw new IllegalArgumentException("%s: exchange is required".formatted(context));
+        }
+        if (asset == null || asset.isBlank()) {
+            throw new IllegalArgumentException("%s: asset is required".formatted(context));
+        }
+        if (rateStream && intermediate != null) {
+            throw new IllegalArgumentException("%s: a rate stream is collected without an intermediate, not %s"
+                    .formatted(context, intermediate));
+        }
+        super.validate("%s (%s %s)".formatted(context, exchange, asset));
+    }
+}
@@ -0,0 +1,24 @@
+package ms.maxwillia.cryptodata.fx;
+
+/**
+ * Exchange rate between an intermediate and a settlement currency, e.g. NOK per USDC
+ *
+ * @param updatedAt epoch millis the rate was fetched or, when replaying, recorded
+ * @param payload   response the rate was read from, as received, or null if there is none to record
+ */
+public record FxRate(double rate, long updatedAt, String payload) {
+    public FxRate(double rate, long updatedAt) {
+        this(rate, updatedAt, null);
+    }
+
+    public long ageMs(long nowMs) {
+        return nowMs - updatedAt;
+    }
+
+    /**
+     * @param previous rate this one replaced, or null if it is the first
+     */
+    public boolean changedFrom(FxRate previous) {
+        return previous == null || Double.compare(previous.rate, rate) != 0;
+    }
+}
@@ -0,0 +1,253 @@
+package ms.maxwillia.cryptodata.fx;
+
+import lombok.Getter;
+import ms.maxwillia.cryptodata.concurrent.ExecutionMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latest rate of one intermediate currency pair on one exchange, e.g. USDC/NOK on Firi.
+ * <p>
+ * A {@link #shared} service is fetched once for every collector that converts through the same
+ * pair, and refreshed on a schedule for as long as any of them holds it, so they all convert with
+ * the same rate. Traders do not convert through an intermediate and do not use it. Listeners are
+ * told of every update, and can use {@link FxRate#changedFrom} to act only on changes. A rate
+ * older than the maximum staleness is reported by {@link #isStale()}.
+ * <p>
+ * Services created with the constructor are not refreshed, and are updated by their owner, e.g.
+ * from recorded rates when replaying.
+ */
+public class FxRateService {
+    private static final Logger logger = LoggerFactory.getLogger(FxRateService.class);
+    private static final int MAX_RETRIES = 3;
+    private static final long RETRY_DELAY_MS = 500;
+    private static final Map<String, FxRateService> shared = new HashMap<>();
+
+    /**
+     * Fetches the current rate, e.g. from the exchange's market endpoint for the pair
+     */
+    @FunctionalInterface
+    public interface RateSource {
+        /**
+         * @return the rate, stamped with the time it was received
+         */
+        FxRate fetch() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param previous rate before the update, or null for the first
+         */
+        void rateUpdated(FxRate previous, FxRate current);
+    }
+
+    @Getter
+    private final String name;
+    @Getter
+    private final long maxStaleMs;
+    private final AtomicReference<FxRate> current = new AtomicReference<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final Object refreshLock = new Object();
+
+    // Shared services only
+    private final String key;
+    private final RateSource source;
+    private ScheduledExecutorService scheduler;
+    private int holders;
+
+    /**
+     * Service updated only through {@link #update}
+     *
+     * @param name identifies the pair in logs, e.g. "Firi USDCNOK"
+     */
+    public FxRateService(String name, long maxStaleMs) {
+        this(name, maxStaleMs, null, null);
+    }
+
+    private FxRateService(String name, long maxStaleMs, String key, RateSource source) {
+        this.name = name;
+        this.maxStaleMs = maxStaleMs;
+        this.key = key;
+        this.source = source;
+    }
+
+    /**
+     * Take hold of the service for a pair, creating it and scheduling its refresh if nobody holds it
+     * yet. Each call must be matched by a {@link #release}.
+     *
+     * @param name              identifies the pair, e.g. "Firi USDCNOK"
+     * @param endpoint          where the rate is fetched from; holders of the same pair on different
+     *                          endpoints get separate services
+     * @param source            fetches the rate, used only if the service is created
+     * @param refreshIntervalMs how often the rate is refreshed
+     */
+    public static FxRateService shared(String name, String endpoint, RateSource source,
+                                       long refreshIntervalMs, long maxStaleMs) {
+        String key = name + "@" + endpoint;
+        synchronized (shared) {
+            FxRateService service = shared.computeIfAbsent(key, k -> {
+                FxRateService created = new FxRateService(name, maxStaleMs, k, source);
+                created.scheduler = ExecutionMode.configured().newScheduledExecutor("FxRate-" + name.replace(' ', '-'), 1);
+                // A rate fetched by the previous run is just under an interval old when the next one
+                // starts, so only rates updated within the last half interval are left alone
+                created.scheduler.scheduleWithFixedDelay(() -> created.refreshIfOlderThan(refreshIntervalMs / 2),
+                        refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+                logger.info("{} - Sharing rate from {}", name, endpoint);
+                return created;
+            });
+            service.holders++;
+            return service;
+        }
+    }
+
+    /**
+     * Let go of a shared service, stopping its refresh once nobody holds it
+     */
+    public static void release(FxRateService service) {
+        synchronized (shared) {
+            if (service.key == null || --service.holders > 0) {
+                return;
+            }
+            shared.remove(service.key);
+            service.scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Shared services currently held, for metrics
+     */
+    public static List<FxRateService> sharedServices() {
+        synchronized (shared) {
+            return new ArrayList<>(shared.values());
+        }
+    }
+
+    /**
+     * @return latest rate, or null if there has been none yet
+     */
+    public FxRate get() {
+        return current.get();
+    }
+
+    /**
+     * @return latest rate, or -1 if there has been none yet
+     */
+    public double rate() {
+        FxRate rate = current.get();
+        return rate == null ? -1 : rate.rate();
+    }
+
+    public boolean isStale() {
+        FxRate rate = current.get();
+        return rate == null || rate.ageMs(System.currentTimeMillis()) > maxStaleMs;
+    }
+
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    /**
+     * Refreshes that failed after retrying
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public void update(double rate, long updatedAt) {
+        update(new FxRate(rate, updatedAt));
+    }
+
+    /**
+     * Record a new rate and tell the listeners. A rate older than the current one is ignored.
+     */
+    public synchronized void update(FxRate next) {
+        if (next.rate() <= 0) {
+            throw new IllegalArgumentException("%s: Invalid rate %s".formatted(name, next.rate()));
+        }
+        FxRate previous = current.get();
+        if (previous != null && next.updatedAt() < previous.updatedAt()) {
+            return;
+        }
+        current.set(next);
+        if (next.changedFrom(previous)) {
+            logger.debug("{} - Rate changed to {}", name, next.rate());
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.rateUpdated(previous, next);
+            } catch (RuntimeException e) {
+                logger.error("{} - Error in rate listener", name, e);
+            }
+        }
+    }
+
+    /**
+     * Fetch the rate unless it was updated within the interval. Holders starting together wait for
+     * one fetch rather than each making their own.
+     *
+     * @return whether there is a rate that is not stale
+     */
+    public boolean refreshIfOlderThan(long intervalMs) {
+        if (source == null) {
+            return !isStale();
+        }
+        synchronized (refreshLock) {
+            FxRate rate = current.get();
+            if (rate != null && rate.ageMs(System.currentTimeMillis()) < intervalMs) {
+                return true;
+            }
+            for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
+                try {
+                    update(source.fetch());
+                    refreshes.incrementAndGet();
+                    return true;
+                } catch (IOException | IllegalArgumentException e) {
+                    logger.warn("{} - Failed to update rate (attempt {}/{}): {}", name, attempt, MAX_RETRIES, e.getMessage());
+                    if (attempt == MAX_RETRIES) {
+                        break;
+                    }
+                    try {
+                        Thread.sleep(RETRY_DELAY_MS);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            failures.incrementAndGet();
+            if (isStale()) {
+                logger.warn("{} - Rate is stale", name);
+            }
+            return !isStale();
+        }
+    }
+
+    /**
+     * Listen for updates, starting with the current rate if there is one
+     */
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+        FxRate rate = current.get();
+        if (rate != null) {
+            listener.rateUpdated(null, rate);
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,66 @@
+package ms.maxwillia.cryptodata.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback async appender that counts the events it throws away.
+ * <p>
+ * Configured with {@code neverBlock}, a full queue drops the event instead of stalling the logging
+ * thread, and TRACE/DEBUG/INFO events are discarded once the queue passes the discarding threshold.
+ * Both are otherwise silent, so they are counted here. Counts are taken just before the event is
+ * handed to the queue and may be off by a few under heavy contention.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+    private final LongAdder discardedEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remainingCapacity = getRemainingCapacity();
+        if (remainingCapacity < getDiscardingThreshold() && isDiscardable(event)) {
+            discardedEvents.increment();
+        } else if (remainingCapacity == 0 && isNeverBlock()) {
+            droppedEvents.increment();
+        }
+        super.append(event);
+    }
+
+    /**
+     * Low-priority events discarded because the queue was nearly full
+     */
+    public long getDiscardedEvents() {
+        return discardedEvents.sum();
+    }
+
+    /**
+     * Events of any level dropped because the queue was full
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Total events lost by every counting appender attached to the root logger
+     */
+    public static long lostEvents() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return 0;
+        }
+        long lost = 0;
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof CountingAsyncAppender appender) {
+                lost += appender.getDiscardedEvents() + appender.getDroppedEvents();
+            }
+        }
+        return lost;
+    }
+}
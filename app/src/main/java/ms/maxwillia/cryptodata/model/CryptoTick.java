@@ -1,7 +1,7 @@
 package ms.maxwillia.cryptodata.model;
 
 public record CryptoTick(
-        String symbol,
+        int symbolId,      // Exchange and pair, see SymbolRegistry
         double price,      // Price in settlement or intermediate currency
         double volume_24_h,
         double best_bid,
@@ -10,22 +10,49 @@ public record CryptoTick(
         double best_ask_quantity,
         double timestamp,
         double nativePrice,   // Original native currency price
-        double intermediateRate    // USD rate used for conversion from native currency
+        double intermediateRate,    // USD rate used for conversion from native currency
+        int rateAgeMs      // Age of intermediateRate at timestamp, NO_RATE_AGE without one
 ) {
+    public static final int NO_RATE_AGE = -1;
+
+    public CryptoTick(int symbolId, double price, double volume_24_h, double best_bid, double best_bid_quantity, double best_ask, double best_ask_quantity, double timestamp, double nativePrice, double intermediateRate) {
+        this(symbolId, price, volume_24_h, best_bid, best_bid_quantity, best_ask, best_ask_quantity, timestamp, nativePrice, intermediateRate, NO_RATE_AGE);
+    }
+
     // Constructor overload for exchanges that deal directly in USD
-    public CryptoTick(String symbol, double price, double volume_24_h, double best_bid, double best_bid_quantity, double best_ask, double best_ask_quantity, long timestamp) {
-        this(symbol, price, volume_24_h, best_bid, best_bid_quantity, best_ask, best_ask_quantity, timestamp, price, -1);
+    public CryptoTick(int symbolId, double price, double volume_24_h, double best_bid, double best_bid_quantity, double best_ask, double best_ask_quantity, long timestamp) {
+        this(symbolId, price, volume_24_h, best_bid, best_bid_quantity, best_ask, best_ask_quantity, timestamp, price, -1);
     }
     // Constructor overload for exchanges which are in non-native
+    public CryptoTick(int symbolId, double volume_24_h, double best_bid, double best_bid_quantity, double best_ask, double best_ask_quantity, long timestamp, double nativePrice, double intermediateRate) {
+        this(symbolId, nativePrice / intermediateRate, volume_24_h, best_bid / intermediateRate, best_bid_quantity, best_ask / intermediateRate, best_ask_quantity, timestamp, nativePrice, intermediateRate);
+    }
+
+    // Overloads taking the pair as a string, for ticks from outside a collector
+    public CryptoTick(String symbol, double price, double volume_24_h, double best_bid, double best_bid_quantity, double best_ask, double best_ask_quantity, double timestamp, double nativePrice, double intermediateRate) {
+        this(SymbolRegistry.register(null, symbol), price, volume_24_h, best_bid, best_bid_quantity, best_ask, best_ask_quantity, timestamp, nativePrice, intermediateRate);
+    }
+
+    public CryptoTick(String symbol, double price, double volume_24_h, double best_bid, double best_bid_quantity, double best_ask, double best_ask_quantity, long timestamp) {
+        this(SymbolRegistry.register(null, symbol), price, volume_24_h, best_bid, best_bid_quantity, best_ask, best_ask_quantity, timestamp);
+    }
+
     public CryptoTick(String symbol, double volume_24_h, double best_bid, double best_bid_quantity, double best_ask, double best_ask_quantity, long timestamp, double nativePrice, double intermediateRate) {
-        this(symbol, nativePrice / intermediateRate, volume_24_h, best_bid / intermediateRate, best_bid_quantity, best_ask / intermediateRate, best_ask_quantity, timestamp, nativePrice, intermediateRate);
+        this(SymbolRegistry.register(null, symbol), volume_24_h, best_bid, best_bid_quantity, best_ask, best_ask_quantity, timestamp, nativePrice, intermediateRate);
+    }
+
+    /**
+     * Normalised pair, e.g. BTCUSD
+     */
+    public String symbol() {
+        return SymbolRegistry.pair(symbolId);
     }
 
     public static String header() {
-        return "symbol,price,volume_24_h,best_bid,best_bid_quantity,best_ask,best_ask_quantity,timestamp,nativePrice,rate";
+        return "symbol,price,volume_24_h,best_bid,best_bid_quantity,best_ask,best_ask_quantity,timestamp,nativePrice,rate,rateAgeMs";
     }
 
     public static String headerFormat() {
-        return "%s,%.8f,%.8f,%.8f,%.8f,%.8f,%.8f,%.8f,%.8f,%.8f";
+        return "%s,%.8f,%.8f,%.8f,%.8f,%.8f,%.8f,%.8f,%.8f,%.8f,%d";
     }
 }
@@ -0,0 +1,105 @@
+package ms.maxwillia.cryptodata.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Arithmetic on decimal values held as longs scaled by a power of ten, e.g. 123.45 at scale 2 is 12345.
+ * Rounding is half-even throughout, matching {@link RoundingMode#HALF_EVEN}.
+ */
+public final class FixedPoint {
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    public static long pow10(int exponent) {
+        return POWERS_OF_TEN[exponent];
+    }
+
+    /**
+     * Scale a decimal string exactly, e.g. a price as sent by an exchange
+     */
+    public static long parse(String value, int scale) {
+        return new BigDecimal(value).setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Scale a double, rounding its shortest decimal representation
+     */
+    public static long fromDouble(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static double toDouble(long value, int scale) {
+        return value / (double) POWERS_OF_TEN[scale];
+    }
+
+    public static BigDecimal toBigDecimal(long value, int scale) {
+        return BigDecimal.valueOf(value, scale);
+    }
+
+    /**
+     * Change the scale of a value, rounding if digits are dropped
+     */
+    public static long rescale(long value, int fromScale, int toScale) {
+        if (toScale >= fromScale) {
+            return Math.multiplyExact(value, POWERS_OF_TEN[toScale - fromScale]);
+        }
+        return divideHalfEven(value, POWERS_OF_TEN[fromScale - toScale]);
+    }
+
+    /**
+     * Divide two scaled values, giving the result at {@code resultScale}
+     */
+    public static long divide(long dividend, int dividendScale, long divisor, int divisorScale, int resultScale) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        // dividend / 10^ds / (divisor / 10^vs) * 10^rs = dividend * 10^(rs - ds + vs) / divisor
+        int exponent = resultScale - dividendScale + divisorScale;
+        try {
+            if (exponent >= 0) {
+                return divideHalfEven(Math.multiplyExact(dividend, POWERS_OF_TEN[exponent]), divisor);
+            }
+            return divideHalfEven(dividend, Math.multiplyExact(divisor, POWERS_OF_TEN[-exponent]));
+        } catch (ArithmeticException | ArrayIndexOutOfBoundsException e) {
+            return BigDecimal.valueOf(dividend, dividendScale)
+                    .divide(BigDecimal.valueOf(divisor, divisorScale), resultScale, RoundingMode.HALF_EVEN)
+                    .unscaledValue().longValueExact();
+        }
+    }
+
+    /**
+     * Multiply two scaled values, giving the result at {@code resultScale}
+     */
+    public static long multiply(long a, int aScale, long b, int bScale, int resultScale) {
+        try {
+            return rescale(Math.multiplyExact(a, b), aScale + bScale, resultScale);
+        } catch (ArithmeticException | ArrayIndexOutOfBoundsException e) {
+            return BigDecimal.valueOf(a, aScale).multiply(BigDecimal.valueOf(b, bScale))
+                    .setScale(resultScale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        }
+    }
+
+    static long divideHalfEven(long numerator, long denominator) {
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (remainder == 0) {
+            return quotient;
+        }
+        long absRemainder = Math.abs(remainder);
+        int comparison = Long.compare(absRemainder, Math.abs(denominator) - absRemainder);
+        if (comparison > 0 || (comparison == 0 && (quotient & 1) != 0)) {
+            quotient += (numerator < 0) == (denominator < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,124 @@
+package ms.maxwillia.cryptodata.model;
+
+import javax.money.CurrencyUnit;
+
+/**
+ * Fixed-point counterpart of {@link CryptoTick}, with every amount held as a long scaled by its
+ * currency's default fraction digits. Conversion from the native currency and spreads are exact.
+ * Pairs configured as fixed point are converted through it and stored as scaled longs, see
+ * {@link TickView#set(FixedPointTick, int)}.
+ * <p>
+ * Prices are scaled by the price currency, native prices by the native (settlement) currency,
+ * quantities by the asset currency and rates by {@link #RATE_SCALE}. Timestamps are epoch milliseconds.
+ */
+public record FixedPointTick(
+        int symbolId,
+        long price,
+        long volume_24_h,
+        long best_bid,
+        long best_bid_quantity,
+        long best_ask,
+        long best_ask_quantity,
+        long timestamp,
+        long nativePrice,
+        long intermediateRate,   // NO_RATE when the exchange quotes the price currency directly
+        Scale scale
+) {
+    public static final int RATE_SCALE = 8;
+    public static final long NO_RATE = -1;
+
+    /**
+     * Number of decimal places for each kind of amount in a tick
+     */
+    public record Scale(int price, int nativePrice, int quantity) {
+        /**
+         * @param priceCurrency  currency prices are converted into
+         * @param nativeCurrency currency the exchange quotes in
+         * @param assetCurrency  currency being traded, used for quantities
+         */
+        public static Scale of(CurrencyUnit priceCurrency, CurrencyUnit nativeCurrency, CurrencyUnit assetCurrency) {
+            return new Scale(priceCurrency.getDefaultFractionDigits(),
+                    nativeCurrency.getDefaultFractionDigits(),
+                    assetCurrency.getDefaultFractionDigits());
+        }
+    }
+
+    /**
+     * Tick from an exchange quoting the price currency directly
+     */
+    public static FixedPointTick direct(int symbolId, Scale scale, long price, long volume_24_h, long best_bid, long best_bid_quantity,
+                                        long best_ask, long best_ask_quantity, long timestamp) {
+        long nativePrice = FixedPoint.rescale(price, scale.price(), scale.nativePrice());
+        return new FixedPointTick(symbolId, price, volume_24_h, best_bid, best_bid_quantity, best_ask, best_ask_quantity,
+                timestamp, nativePrice, NO_RATE, scale);
+    }
+
+    /**
+     * Tick from an exchange quoting in a native currency, converted exactly into the price currency
+     *
+     * @param nativeBid        best bid at the native price scale
+     * @param nativeAsk        best ask at the native price scale
+     * @param nativePrice      last price at the native price scale
+     * @param intermediateRate native currency per unit of price currency, at {@link #RATE_SCALE}
+     */
+    public static FixedPointTick converted(int symbolId, Scale scale, long volume_24_h, long nativeBid, long best_bid_quantity,
+                                           long nativeAsk, long best_ask_quantity, long timestamp, long nativePrice, long intermediateRate) {
+        return new FixedPointTick(symbolId,
+                FixedPoint.divide(nativePrice, scale.nativePrice(), intermediateRate, RATE_SCALE, scale.price()),
+                volume_24_h,
+                FixedPoint.divide(nativeBid, scale.nativePrice(), intermediateRate, RATE_SCALE, scale.price()),
+                best_bid_quantity,
+                FixedPoint.divide(nativeAsk, scale.nativePrice(), intermediateRate, RATE_SCALE, scale.price()),
+                best_ask_quantity,
+                timestamp, nativePrice, intermediateRate, scale);
+    }
+
+    /**
+     * Round a floating-point tick to fixed point
+     */
+    public static FixedPointTick fromCryptoTick(CryptoTick tick, Scale scale) {
+        return new FixedPointTick(tick.symbolId(),
+                FixedPoint.fromDouble(tick.price(), scale.price()),
+                FixedPoint.fromDouble(tick.volume_24_h(), scale.quantity()),
+                FixedPoint.fromDouble(tick.best_bid(), scale.price()),
+                FixedPoint.fromDouble(tick.best_bid_quantity(), scale.quantity()),
+                FixedPoint.fromDouble(tick.best_ask(), scale.price()),
+                FixedPoint.fromDouble(tick.best_ask_quantity(), scale.quantity()),
+                Math.round(tick.timestamp()),
+                FixedPoint.fromDouble(tick.nativePrice(), scale.nativePrice()),
+                tick.intermediateRate() < 0 ? NO_RATE : FixedPoint.fromDouble(tick.intermediateRate(), RATE_SCALE),
+                scale);
+    }
+
+    public CryptoTick toCryptoTick() {
+        return toCryptoTick(CryptoTick.NO_RATE_AGE);
+    }
+
+    /**
+     * @param rateAgeMs age of the intermediate rate at the tick, which is not held in fixed point
+     */
+    public CryptoTick toCryptoTick(int rateAgeMs) {
+        return new CryptoTick(symbolId,
+                FixedPoint.toDouble(price, scale.price()),
+                FixedPoint.toDouble(volume_24_h, scale.quantity()),
+                FixedPoint.toDouble(best_bid, scale.price()),
+                FixedPoint.toDouble(best_bid_quantity, scale.quantity()),
+                FixedPoint.toDouble(best_ask, scale.price()),
+                FixedPoint.toDouble(best_ask_quantity, scale.quantity()),
+                timestamp,
+                FixedPoint.toDouble(nativePrice, scale.nativePrice()),
+                intermediateRate == NO_RATE ? -1 : FixedPoint.toDouble(intermediateRate, RATE_SCALE),
+                rateAgeMs);
+    }
+
+    /**
+     * Best ask minus best bid, at the price scale
+     */
+    public long spread() {
+        return best_ask - best_bid;
+    }
+
+    public String symbol() {
+        return SymbolRegistry.pair(symbolId);
+    }
+}
@@ -0,0 +1,11 @@
+package ms.maxwillia.cryptodata.model;
+
+/**
+ * A message exactly as received from an exchange, before any parsing
+ *
+ * @param receivedAt epoch milliseconds at which the message was received
+ * @param source     which feed or endpoint the message came from, e.g. "ws" or "depth"
+ * @param payload    raw WebSocket frame or REST response body
+ */
+public record RawFrame(long receivedAt, String source, String payload) {
+}
@@ -0,0 +1,100 @@
+package ms.maxwillia.cryptodata.model;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide registry of the exchange/pair combinations ticks are collected for.
+ * <p>
+ * Each combination is given a small int id when a collector is set up, so ticks can carry the id
+ * instead of a formatted pair string; the strings are built once here and looked up by id only
+ * where they are needed, such as writing CSV. Registration is idempotent and thread safe, and
+ * lookups by id are a single array read.
+ */
+public final class SymbolRegistry {
+    /**
+     * A registered exchange/pair combination
+     *
+     * @param id       compact id carried by ticks
+     * @param exchange exchange name, or empty if the tick source did not record one
+     * @param pair     normalised pair, e.g. BTCUSD
+     * @param key      exchange and pair joined as used for queue and file names, e.g. Coinbase_BTCUSD
+     */
+    public record Symbol(int id, String exchange, String pair, String key) {
+    }
+
+    private static final Map<String, Symbol> symbolsByKey = new ConcurrentHashMap<>();
+    private static final Map<String, CurrencyUnit> currencies = new ConcurrentHashMap<>();
+    private static volatile Symbol[] symbolsById = new Symbol[0];
+
+    private SymbolRegistry() {
+    }
+
+    /**
+     * Get the id for an exchange/pair combination, registering it if it is new
+     */
+    public static int register(String exchange, String pair) {
+        String key = key(exchange, pair);
+        Symbol symbol = symbolsByKey.get(key);
+        if (symbol != null) {
+            return symbol.id();
+        }
+        synchronized (SymbolRegistry.class) {
+            symbol = symbolsByKey.get(key);
+            if (symbol == null) {
+                Symbol[] current = symbolsById;
+                symbol = new Symbol(current.length, exchange, pair, key);
+                Symbol[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[symbol.id()] = symbol;
+                symbolsById = updated;
+                symbolsByKey.put(key, symbol);
+            }
+            return symbol.id();
+        }
+    }
+
+    /**
+     * Look up a registered combination
+     *
+     * @throws IllegalArgumentException if no combination has the id
+     */
+    public static Symbol get(int id) {
+        Symbol[] symbols = symbolsById;
+        if (id < 0 || id >= symbols.length) {
+            throw new IllegalArgumentException("Unknown symbol id: " + id);
+        }
+        return symbols[id];
+    }
+
+    public static String pair(int id) {
+        return get(id).pair();
+    }
+
+    /**
+     * Get the id of a combination without registering it
+     *
+     * @return id, or -1 if the combination has not been registered
+     */
+    public static int idOf(String exchange, String pair) {
+        Symbol symbol = symbolsByKey.get(key(exchange, pair));
+        return symbol == null ? -1 : symbol.id();
+    }
+
+    public static int size() {
+        return symbolsById.length;
+    }
+
+    /**
+     * Cached {@link Monetary#getCurrency} lookup
+     */
+    public static CurrencyUnit currency(String code) {
+        return currencies.computeIfAbsent(code, Monetary::getCurrency);
+    }
+
+    private static String key(String exchange, String pair) {
+        return exchange == null || exchange.isEmpty() ? pair : "%s_%s".formatted(exchange, pair);
+    }
+}
@@ -0,0 +1,255 @@
+package ms.maxwillia.cryptodata.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Flyweight over a tick stored in a fixed-size slot of a (usually direct) {@link ByteBuffer}.
+ * <p>
+ * A view holds no tick data itself: it is pointed at a slot with {@link #wrap} and reads or writes
+ * the fields in place, so one view can be reused for every tick passing through a thread without
+ * allocating. Views are used by the binary tick writers and reader, queue spill files and the
+ * off-heap tick ring, which a collector configured with one writes its ticks into directly. Other
+ * collectors and queues pass ticks as {@link CryptoTick}, the boxed form.
+ * <p>
+ * Slot layout, little-endian, {@value #BYTES} bytes:
+ * <pre>
+ *  0 int    symbolId
+ *  4 int    rateAgeMs + 1, so that 0 (as in files written before it was stored) means no rate
+ *  8 double price
+ * 16 double volume_24_h
+ * 24 double best_bid
+ * 32 double best_bid_quantity
+ * 40 double best_ask
+ * 48 double best_ask_quantity
+ * 56 double timestamp
+ * 64 double nativePrice
+ * 72 double intermediateRate
+ * </pre>
+ * Fixed-point files hold the same fields as {@link FixedPointTick} longs in place of the doubles;
+ * {@link #decode} turns such a slot back into the double layout.
+ */
+public final class TickView {
+    public static final int BYTES = 80;
+    public static final int SYMBOL_ID_OFFSET = 0;
+    public static final int RATE_AGE_OFFSET = 4;
+    public static final int PRICE_OFFSET = 8;
+    public static final int VOLUME_24_H_OFFSET = 16;
+    public static final int BEST_BID_OFFSET = 24;
+    public static final int BEST_BID_QUANTITY_OFFSET = 32;
+    public static final int BEST_ASK_OFFSET = 40;
+    public static final int BEST_ASK_QUANTITY_OFFSET = 48;
+    public static final int TIMESTAMP_OFFSET = 56;
+    public static final int NATIVE_PRICE_OFFSET = 64;
+    public static final int INTERMEDIATE_RATE_OFFSET = 72;
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    /**
+     * Allocate an off-heap buffer with room for a number of tick slots
+     */
+    public static ByteBuffer allocate(int slots) {
+        return ByteBuffer.allocateDirect(slots * BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Point this view at the slot starting at {@code offset}. The buffer must be little-endian.
+     */
+    public TickView wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    public int symbolId() {
+        return buffer.getInt(offset + SYMBOL_ID_OFFSET);
+    }
+
+    public double price() {
+        return buffer.getDouble(offset + PRICE_OFFSET);
+    }
+
+    public double volume_24_h() {
+        return buffer.getDouble(offset + VOLUME_24_H_OFFSET);
+    }
+
+    public double best_bid() {
+        return buffer.getDouble(offset + BEST_BID_OFFSET);
+    }
+
+    public double best_bid_quantity() {
+        return buffer.getDouble(offset + BEST_BID_QUANTITY_OFFSET);
+    }
+
+    public double best_ask() {
+        return buffer.getDouble(offset + BEST_ASK_OFFSET);
+    }
+
+    public double best_ask_quantity() {
+        return buffer.getDouble(offset + BEST_ASK_QUANTITY_OFFSET);
+    }
+
+    public double timestamp() {
+        return buffer.getDouble(offset + TIMESTAMP_OFFSET);
+    }
+
+    public double nativePrice() {
+        return buffer.getDouble(offset + NATIVE_PRICE_OFFSET);
+    }
+
+    public double intermediateRate() {
+        return buffer.getDouble(offset + INTERMEDIATE_RATE_OFFSET);
+    }
+
+    public int rateAgeMs() {
+        return decodeRateAge(buffer.getInt(offset + RATE_AGE_OFFSET));
+    }
+
+    public String symbol() {
+        return SymbolRegistry.pair(symbolId());
+    }
+
+    public TickView symbolId(int symbolId) {
+        buffer.putInt(offset + SYMBOL_ID_OFFSET, symbolId);
+        return this;
+    }
+
+    public TickView price(double price) {
+        buffer.putDouble(offset + PRICE_OFFSET, price);
+        return this;
+    }
+
+    public TickView volume_24_h(double volume) {
+        buffer.putDouble(offset + VOLUME_24_H_OFFSET, volume);
+        return this;
+    }
+
+    public TickView best_bid(double bestBid) {
+        buffer.putDouble(offset + BEST_BID_OFFSET, bestBid);
+        return this;
+    }
+
+    public TickView best_bid_quantity(double quantity) {
+        buffer.putDouble(offset + BEST_BID_QUANTITY_OFFSET, quantity);
+        return this;
+    }
+
+    public TickView best_ask(double bestAsk) {
+        buffer.putDouble(offset + BEST_ASK_OFFSET, bestAsk);
+        return this;
+    }
+
+    public TickView best_ask_quantity(double quantity) {
+        buffer.putDouble(offset + BEST_ASK_QUANTITY_OFFSET, quantity);
+        return this;
+    }
+
+    public TickView timestamp(double timestamp) {
+        buffer.putDouble(offset + TIMESTAMP_OFFSET, timestamp);
+        return this;
+    }
+
+    public TickView nativePrice(double nativePrice) {
+        buffer.putDouble(offset + NATIVE_PRICE_OFFSET, nativePrice);
+        return this;
+    }
+
+    public TickView intermediateRate(double rate) {
+        buffer.putDouble(offset + INTERMEDIATE_RATE_OFFSET, rate);
+        return this;
+    }
+
+    public TickView rateAgeMs(int rateAgeMs) {
+        buffer.putInt(offset + RATE_AGE_OFFSET, encodeRateAge(rateAgeMs));
+        return this;
+    }
+
+    /**
+     * Stored form of a rate age, with {@link CryptoTick#NO_RATE_AGE} as 0
+     */
+    public static int encodeRateAge(int rateAgeMs) {
+        return rateAgeMs < 0 ? 0 : rateAgeMs + 1;
+    }
+
+    public static int decodeRateAge(int stored) {
+        return stored <= 0 ? CryptoTick.NO_RATE_AGE : stored - 1;
+    }
+
+    /**
+     * Write every field of a boxed tick into the slot
+     */
+    public TickView set(CryptoTick tick) {
+        return symbolId(tick.symbolId())
+                .price(tick.price())
+                .volume_24_h(tick.volume_24_h())
+                .best_bid(tick.best_bid())
+                .best_bid_quantity(tick.best_bid_quantity())
+                .best_ask(tick.best_ask())
+                .best_ask_quantity(tick.best_ask_quantity())
+                .timestamp(tick.timestamp())
+                .nativePrice(tick.nativePrice())
+                .intermediateRate(tick.intermediateRate())
+                .rateAgeMs(tick.rateAgeMs());
+    }
+
+    /**
+     * Write every field of a fixed-point tick into the slot as scaled longs
+     */
+    public TickView set(FixedPointTick tick, int rateAgeMs) {
+        buffer.putInt(offset + SYMBOL_ID_OFFSET, tick.symbolId())
+                .putInt(offset + RATE_AGE_OFFSET, encodeRateAge(rateAgeMs))
+                .putLong(offset + PRICE_OFFSET, tick.price())
+                .putLong(offset + VOLUME_24_H_OFFSET, tick.volume_24_h())
+                .putLong(offset + BEST_BID_OFFSET, tick.best_bid())
+                .putLong(offset + BEST_BID_QUANTITY_OFFSET, tick.best_bid_quantity())
+                .putLong(offset + BEST_ASK_OFFSET, tick.best_ask())
+                .putLong(offset + BEST_ASK_QUANTITY_OFFSET, tick.best_ask_quantity())
+                .putLong(offset + TIMESTAMP_OFFSET, tick.timestamp())
+                .putLong(offset + NATIVE_PRICE_OFFSET, tick.nativePrice())
+                .putLong(offset + INTERMEDIATE_RATE_OFFSET, tick.intermediateRate());
+        return this;
+    }
+
+    /**
+     * Rewrite a slot written by {@link #set(FixedPointTick, int)} in place as doubles
+     */
+    public TickView decode(FixedPointTick.Scale scale) {
+        long rate = buffer.getLong(offset + INTERMEDIATE_RATE_OFFSET);
+        return price(FixedPoint.toDouble(buffer.getLong(offset + PRICE_OFFSET), scale.price()))
+                .volume_24_h(FixedPoint.toDouble(buffer.getLong(offset + VOLUME_24_H_OFFSET), scale.quantity()))
+                .best_bid(FixedPoint.toDouble(buffer.getLong(offset + BEST_BID_OFFSET), scale.price()))
+                .best_bid_quantity(FixedPoint.toDouble(buffer.getLong(offset + BEST_BID_QUANTITY_OFFSET), scale.quantity()))
+                .best_ask(FixedPoint.toDouble(buffer.getLong(offset + BEST_ASK_OFFSET), scale.price()))
+                .best_ask_quantity(FixedPoint.toDouble(buffer.getLong(offset + BEST_ASK_QUANTITY_OFFSET), scale.quantity()))
+                .timestamp(buffer.getLong(offset + TIMESTAMP_OFFSET))
+                .nativePrice(FixedPoint.toDouble(buffer.getLong(offset + NATIVE_PRICE_OFFSET), scale.nativePrice()))
+                .intermediateRate(rate == FixedPointTick.NO_RATE ? -1 : FixedPoint.toDouble(rate, FixedPointTick.RATE_SCALE));
+    }
+
+    /**
+     * Copy the slot bytes of another view into this one
+     */
+    public TickView set(TickView other) {
+        buffer.put(offset, other.buffer, other.offset, BYTES);
+        return this;
+    }
+
+    public CryptoTick toCryptoTick() {
+        return new CryptoTick(symbolId(), price(), volume_24_h(), best_bid(), best_bid_quantity(),
+                best_ask(), best_ask_quantity(), timestamp(), nativePrice(), intermediateRate(), rateAgeMs());
+    }
+
+    @Override
+    public String toString() {
+        return buffer == null ? "TickView[unwrapped]" : "TickView[%s]".formatted(toCryptoTick());
+    }
+}
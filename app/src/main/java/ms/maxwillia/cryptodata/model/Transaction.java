@@ -29,5 +29,13 @@ public class Transaction {
     TransactionStatus status = TransactionStatus.CREATED;
     @Builder.Default
     String response = null;
+    @Builder.Default
+    Double filledQuantity = null;
+    @Builder.Default
+    Double filledPrice = null;
+    @Builder.Default
+    Integer fillCount = null;
+    @Builder.Default
+    ZonedDateTime filledTime = null;
 
 }
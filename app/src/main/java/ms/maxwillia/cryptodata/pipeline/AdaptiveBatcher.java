@@ -0,0 +1,118 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes write batches for one queue from its observed arrival rate.
+ * <p>
+ * The target is the number of ticks expected to arrive within the maximum write latency, so a
+ * quiet queue writes each tick as it comes and a busy one writes as much as the latency allows,
+ * capped at the maximum batch size in bytes. The caller still writes a partial batch once its
+ * oldest tick has waited {@link #getMaxLatencyNanos()}.
+ * <p>
+ * Arrivals and batches are recorded by the queue's processor; {@link #snapshotAndReset()} may be
+ * called from the metrics reporter.
+ */
+public class AdaptiveBatcher {
+    public static final String MAX_LATENCY_MS_PROPERTY = "batch.max.latency.ms";
+    public static final String MAX_BYTES_PROPERTY = "batch.max.bytes";
+    public static final long DEFAULT_MAX_LATENCY_MS = 250;
+    public static final int DEFAULT_MAX_BYTES = 64 * 1024;
+    // Arrival rate is sampled over windows of this length and smoothed across windows
+    private static final long RATE_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final double RATE_SMOOTHING = 0.3;
+
+    @Getter
+    private final long maxLatencyNanos;
+    @Getter
+    private final int maxBatchTicks;
+
+    private double ticksPerNano = Double.NaN;
+    private long windowStart;
+    private long windowTicks;
+
+    private long batches;
+    private long batchedTicks;
+    private int maxBatch;
+
+    /**
+     * Snapshot of the batches written over one reporting interval
+     *
+     * @param target batch size the batcher is aiming for at the time of the snapshot
+     */
+    public record Snapshot(long batches, double meanSize, int maxSize, int target) {
+    }
+
+    /**
+     * @param maxLatencyMs  longest a tick should wait in a batch before it is written
+     * @param maxBatchBytes largest batch to write at once
+     * @param bytesPerTick  approximate size of one stored tick
+     */
+    public AdaptiveBatcher(long maxLatencyMs, int maxBatchBytes, int bytesPerTick) {
+        if (maxLatencyMs < 0 || maxBatchBytes < bytesPerTick || bytesPerTick <= 0) {
+            throw new IllegalArgumentException("Invalid batch limits: %d ms, %d bytes, %d bytes per tick"
+                    .formatted(maxLatencyMs, maxBatchBytes, bytesPerTick));
+        }
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMs);
+        this.maxBatchTicks = maxBatchBytes / bytesPerTick;
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * Batcher with the given limits, or where one is null, the limit set by the
+     * {@value #MAX_LATENCY_MS_PROPERTY} or {@value #MAX_BYTES_PROPERTY} system property
+     */
+    public static AdaptiveBatcher configured(Long maxLatencyMs, Integer maxBatchBytes, int bytesPerTick) {
+        return new AdaptiveBatcher(
+                maxLatencyMs != null ? maxLatencyMs : Long.getLong(MAX_LATENCY_MS_PROPERTY, DEFAULT_MAX_LATENCY_MS),
+                maxBatchBytes != null ? maxBatchBytes : Integer.getInteger(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES),
+                bytesPerTick);
+    }
+
+    /**
+     * Record ticks taken from the queue, or none when a poll timed out
+     */
+    public synchronized void arrived(int ticks, long nowNanos) {
+        windowTicks += ticks;
+        long elapsed = nowNanos - windowStart;
+        if (elapsed >= RATE_WINDOW_NANOS) {
+            double rate = (double) windowTicks / elapsed;
+            ticksPerNano = Double.isNaN(ticksPerNano) ? rate : ticksPerNano + RATE_SMOOTHING * (rate - ticksPerNano);
+            windowStart = nowNanos;
+            windowTicks = 0;
+        }
+    }
+
+    /**
+     * Number of ticks to collect before writing
+     */
+    public synchronized int targetBatchSize() {
+        if (Double.isNaN(ticksPerNano)) {
+            return 1;
+        }
+        double expected = ticksPerNano * maxLatencyNanos;
+        return (int) Math.max(1, Math.min(maxBatchTicks, Math.ceil(expected)));
+    }
+
+    public synchronized void recordBatch(int size) {
+        batches++;
+        batchedTicks += size;
+        maxBatch = Math.max(maxBatch, size);
+    }
+
+    /**
+     * Take the batches recorded since the last call
+     */
+    public synchronized Snapshot snapshotAndReset() {
+        Snapshot snapshot = new Snapshot(batches,
+                batches == 0 ? 0 : (double) batchedTicks / batches,
+                maxBatch,
+                targetBatchSize());
+        batches = 0;
+        batchedTicks = 0;
+        maxBatch = 0;
+        return snapshot;
+    }
+}
@@ -0,0 +1,89 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.SymbolRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latest tick for every exchange/pair, for consumers that only need current top of book rather
+ * than every tick, such as spread calculation, dashboards and traders.
+ * <p>
+ * Each {@link SymbolRegistry} id has one slot holding the tick with the latest timestamp seen so
+ * far; older ticks arriving late are ignored. Updates and reads never block and a read is a single
+ * array and reference load, however far behind storage is. Ticks are immutable, so a reader always
+ * sees a complete tick.
+ */
+public class LatestTicks {
+    // Slots are never replaced, so growing the array cannot lose an update made to the old one
+    private volatile AtomicReference<CryptoTick>[] slots = newSlots(0);
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReference<CryptoTick>[] newSlots(int length) {
+        return new AtomicReference[length];
+    }
+
+    /**
+     * Make the tick the latest for its exchange/pair, unless a later one has already been seen
+     */
+    public void update(CryptoTick tick) {
+        slot(tick.symbolId()).accumulateAndGet(tick,
+                (current, offered) -> current == null || offered.timestamp() >= current.timestamp() ? offered : current);
+    }
+
+    /**
+     * @return latest tick for the symbol id, or null if none has been seen
+     */
+    public CryptoTick latest(int symbolId) {
+        AtomicReference<CryptoTick>[] current = slots;
+        if (symbolId < 0 || symbolId >= current.length || current[symbolId] == null) {
+            return null;
+        }
+        return current[symbolId].get();
+    }
+
+    /**
+     * @return latest tick for the exchange and pair, or null if none has been seen
+     */
+    public CryptoTick latest(String exchange, String pair) {
+        return latest(SymbolRegistry.idOf(exchange, pair));
+    }
+
+    /**
+     * Latest tick of every exchange/pair seen so far, in symbol id order. Each tick is current as of
+     * when it was read; the list as a whole is not an atomic snapshot.
+     */
+    public List<CryptoTick> snapshot() {
+        List<CryptoTick> ticks = new ArrayList<>();
+        for (AtomicReference<CryptoTick> slot : slots) {
+            CryptoTick tick = slot == null ? null : slot.get();
+            if (tick != null) {
+                ticks.add(tick);
+            }
+        }
+        return ticks;
+    }
+
+    private AtomicReference<CryptoTick> slot(int symbolId) {
+        AtomicReference<CryptoTick>[] current = slots;
+        if (symbolId < current.length && current[symbolId] != null) {
+            return current[symbolId];
+        }
+        synchronized (this) {
+            current = slots;
+            if (symbolId >= current.length) {
+                current = Arrays.copyOf(current, Math.max(symbolId + 1, SymbolRegistry.size()));
+            } else if (current[symbolId] != null) {
+                return current[symbolId];
+            } else {
+                current = current.clone();
+            }
+            current[symbolId] = new AtomicReference<>();
+            slots = current;
+            return current[symbolId];
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.TickView;
+import ms.maxwillia.cryptodata.storage.TickStorage;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer, single-consumer queue of ticks held in off-heap {@link TickView} slots.
+ * <p>
+ * The producer {@link #claim()}s the next free slot, writes the tick fields into it and
+ * {@link #publish()}es it; the consumer {@link #peek()}s the oldest published slot, hands it on
+ * (e.g. to {@link TickStorage#storeTick(TickView)}) and {@link #release()}s it. Each side reuses
+ * one view, so moving a tick through the ring does not allocate. Exactly one thread may produce
+ * and one thread may consume at a time.
+ * <p>
+ * A {@link TickQueue} given a ring with {@link TickQueue#useRing} carries the ticks of a collector
+ * that writes them straight into its slots, and its writer stores them from there.
+ */
+public class OffHeapTickRing {
+    private final int capacity;
+    private final int mask;
+    private final ByteBuffer slots;
+    private final TickView producerView = new TickView();
+    private final TickView consumerView = new TickView();
+    // Next slot to consume, only advanced by the consumer
+    private final AtomicLong head = new AtomicLong();
+    // Next slot to produce, only advanced by the producer
+    private final AtomicLong tail = new AtomicLong();
+    // Claims refused because the ring was full, only advanced by the producer
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public OffHeapTickRing(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 24) {
+            throw new IllegalArgumentException("Ring capacity must be between 1 and 2^24: " + capacity);
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = TickView.allocate(this.capacity);
+    }
+
+    private int offset(long sequence) {
+        return (int) (sequence & mask) * TickView.BYTES;
+    }
+
+    /**
+     * Claim the next free slot for writing
+     *
+     * @return view over the slot, or null if the ring is full, which counts the tick as dropped
+     */
+    public TickView claim() {
+        long sequence = tail.get();
+        if (sequence - head.get() >= capacity) {
+            dropped.lazySet(dropped.get() + 1);
+            return null;
+        }
+        return producerView.wrap(slots, offset(sequence));
+    }
+
+    /**
+     * Make the slot returned by the last {@link #claim()} visible to the consumer
+     */
+    public void publish() {
+        tail.lazySet(tail.get() + 1);
+    }
+
+    /**
+     * Copy a boxed tick into the ring
+     *
+     * @return false if the ring is full
+     */
+    public boolean offer(CryptoTick tick) {
+        TickView slot = claim();
+        if (slot == null) {
+            return false;
+        }
+        slot.set(tick);
+        publish();
+        return true;
+    }
+
+    /**
+     * Look at the oldest published slot without consuming it
+     *
+     * @return view over the slot, or null if the ring is empty
+     */
+    public TickView peek() {
+        long sequence = head.get();
+        if (sequence >= tail.get()) {
+            return null;
+        }
+        return consumerView.wrap(slots, offset(sequence));
+    }
+
+    /**
+     * Return the slot returned by the last {@link #peek()} to the producer
+     */
+    public void release() {
+        head.lazySet(head.get() + 1);
+    }
+
+    /**
+     * Remove and box the oldest tick
+     *
+     * @return the tick, or null if the ring is empty
+     */
+    public CryptoTick poll() {
+        TickView slot = peek();
+        if (slot == null) {
+            return null;
+        }
+        CryptoTick tick = slot.toCryptoTick();
+        release();
+        return tick;
+    }
+
+    /**
+     * Store up to {@code maxTicks} ticks directly from their slots
+     *
+     * @return number of ticks stored
+     */
+    public int drainTo(TickStorage storage, int maxTicks) {
+        int drained = 0;
+        TickView slot;
+        while (drained < maxTicks && (slot = peek()) != null) {
+            storage.storeTick(slot);
+            release();
+            drained++;
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Ticks published since the ring was created
+     */
+    public long getPublished() {
+        return tail.get();
+    }
+
+    /**
+     * Ticks that found the ring full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
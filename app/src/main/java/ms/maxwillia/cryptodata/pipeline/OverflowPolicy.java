@@ -0,0 +1,45 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import java.util.Locale;
+
+/**
+ * What a {@link TickQueue} does with a tick offered while it is full. Selected for all queues with
+ * the {@value #PROPERTY} system property, or for one queue with {@code <property>.<key>}, e.g.
+ * {@code -Dqueue.overflow.Coinbase_BTCUSDC=spill}.
+ */
+public enum OverflowPolicy {
+    /**
+     * The offered tick is dropped
+     */
+    DROP_NEWEST,
+    /**
+     * The oldest queued tick is dropped to make room for the offered one
+     */
+    DROP_OLDEST,
+    /**
+     * Overflowing ticks are held back, keeping only the latest for each symbol, and queued once
+     * the consumer makes room
+     */
+    CONFLATE,
+    /**
+     * Overflowing ticks are appended to a local file and queued in order once the consumer
+     * makes room, so nothing is dropped
+     */
+    SPILL;
+
+    public static final String PROPERTY = "queue.overflow";
+    // Directory for spill files, java.io.tmpdir by default
+    public static final String SPILL_DIR_PROPERTY = "queue.spill.dir";
+
+    /**
+     * Policy for the queue with the given key, {@link #DROP_NEWEST} unless configured
+     */
+    public static OverflowPolicy configured(String key) {
+        String policy = System.getProperty(PROPERTY + "." + key, System.getProperty(PROPERTY, DROP_NEWEST.name()));
+        try {
+            return valueOf(policy.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown %s for %s: %s".formatted(PROPERTY, key, policy), e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.TickView;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * First-in, first-out file of {@link TickView} records for ticks that did not fit in a queue.
+ * Symbol ids are those of the running process, so the file is only readable by the process that
+ * wrote it and is deleted on close. Not thread safe.
+ */
+class SpillFile implements AutoCloseable {
+    private static final int READ_RECORDS = 256;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer = TickView.allocate(1);
+    private final TickView writeView = new TickView().wrap(writeBuffer, 0);
+    private final ByteBuffer readBuffer = TickView.allocate(READ_RECORDS);
+    private final TickView readView = new TickView();
+    private long writePosition;
+    private long readPosition;
+
+    SpillFile(Path directory, String prefix) {
+        try {
+            this.path = Files.createTempFile(directory, prefix + "_", ".spill");
+            this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create spill file in " + directory, e);
+        }
+    }
+
+    long size() {
+        return (writePosition - readPosition) / TickView.BYTES;
+    }
+
+    boolean isEmpty() {
+        return writePosition == readPosition;
+    }
+
+    void append(CryptoTick tick) {
+        writeView.set(tick);
+        writeBuffer.clear();
+        try {
+            while (writeBuffer.hasRemaining()) {
+                writePosition += channel.write(writeBuffer, writePosition);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill tick to " + path, e);
+        }
+    }
+
+    /**
+     * Read up to {@code max} of the oldest spilled ticks, oldest first
+     *
+     * @return number of ticks read
+     */
+    int read(int max, Consumer<CryptoTick> consumer) {
+        int records = (int) Math.min(Math.min(max, READ_RECORDS), size());
+        if (records <= 0) {
+            return 0;
+        }
+        readBuffer.clear().limit(records * TickView.BYTES);
+        try {
+            while (readBuffer.hasRemaining()) {
+                int read = channel.read(readBuffer, readPosition + readBuffer.position());
+                if (read < 0) {
+                    throw new IOException("Spill file truncated: " + path);
+                }
+            }
+            for (int i = 0; i < records; i++) {
+                consumer.accept(readView.wrap(readBuffer, i * TickView.BYTES).toCryptoTick());
+            }
+            readPosition += (long) records * TickView.BYTES;
+            if (isEmpty()) {
+                // Everything spilled has been read back, so start the file over
+                channel.truncate(0);
+                writePosition = 0;
+                readPosition = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read spilled ticks from " + path, e);
+        }
+        return records;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close spill file " + path, e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import lombok.Getter;
+import ms.maxwillia.cryptodata.concurrent.ExecutionMode;
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Multicast ring of ticks: every {@link Subscription} reads every published tick from the same
+ * ring, on its own thread and at its own pace, tracking its own sequence.
+ * <p>
+ * Any number of threads may publish. Each claims the next sequence, stores the tick reference in
+ * that slot and then marks the slot with the sequence, so subscribers share the tick without
+ * copying it. Publishers never wait for subscribers; a subscriber that falls a full ring behind
+ * has the ticks it has not read yet overwritten, skips to the oldest tick still in the ring and
+ * counts the ones it missed. A subscriber more than half a ring behind is reported as slow.
+ */
+public class TickBus implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TickBus.class);
+    public static final String CAPACITY_PROPERTY = "bus.capacity";
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    // Slot sequence while a publisher is replacing its tick
+    private static final long WRITING = -1;
+    private static final long MIN_IDLE_NANOS = 50_000;
+    private static final long MAX_IDLE_NANOS = 1_000_000;
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    @Getter
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<CryptoTick> ticks;
+    private final AtomicLongArray sequences;
+    // Next sequence to claim
+    private final AtomicLong next = new AtomicLong();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ExecutionMode executionMode;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public TickBus(int capacity, ExecutionMode executionMode) {
+        if (capacity <= 0 || capacity > 1 << 24) {
+            throw new IllegalArgumentException("Bus capacity must be between 1 and 2^24: " + capacity);
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.ticks = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, WRITING);
+        }
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * Bus sized by the {@value #CAPACITY_PROPERTY} system property
+     */
+    public static TickBus configured(ExecutionMode executionMode) {
+        return new TickBus(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY), executionMode);
+    }
+
+    /**
+     * Make a tick available to every subscriber. Does nothing while there are none.
+     */
+    public void publish(CryptoTick tick) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        long sequence = next.getAndIncrement();
+        int slot = (int) sequence & mask;
+        sequences.set(slot, WRITING);
+        ticks.set(slot, tick);
+        sequences.set(slot, sequence);
+    }
+
+    /**
+     * Start delivering ticks published from now on to the handler, on a thread of its own
+     *
+     * @param name identifies the subscriber in thread names and metrics
+     */
+    public Subscription subscribe(String name, Consumer<CryptoTick> handler) {
+        Subscription subscription = new Subscription(name, handler);
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        logger.info("{} subscribed to tick bus", name);
+        return subscription;
+    }
+
+    public List<Subscription> getSubscriptions() {
+        return List.copyOf(subscriptions);
+    }
+
+    /**
+     * Number of ticks published so far
+     */
+    public long getPublished() {
+        return next.get();
+    }
+
+    /**
+     * Stop every subscription
+     */
+    @Override
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * One consumer of the bus
+     */
+    public final class Subscription implements AutoCloseable {
+        @Getter
+        private final String name;
+        private final Consumer<CryptoTick> handler;
+        private final Thread thread;
+        // Next sequence to read, only advanced by the subscription thread
+        private final AtomicLong sequence = new AtomicLong(next.get());
+        private final AtomicLong received = new AtomicLong();
+        private final AtomicLong missed = new AtomicLong();
+        private volatile boolean running = true;
+
+        private Subscription(String name, Consumer<CryptoTick> handler) {
+            this.name = name;
+            this.handler = handler;
+            this.thread = executionMode.newThread("TickBus-" + name, true, this::consume);
+        }
+
+        /**
+         * Ticks published but not yet read
+         */
+        public long getLag() {
+            return Math.max(0, next.get() - sequence.get());
+        }
+
+        /**
+         * Whether the subscriber has fallen more than half a ring behind, and risks missing ticks
+         */
+        public boolean isSlow() {
+            return getLag() > capacity / 2;
+        }
+
+        public long getReceived() {
+            return received.get();
+        }
+
+        /**
+         * Ticks overwritten before the subscriber read them
+         */
+        public long getMissed() {
+            return missed.get();
+        }
+
+        private void consume() {
+            long idleNanos = MIN_IDLE_NANOS;
+            while (running) {
+                CryptoTick tick = read();
+                if (tick == null) {
+                    LockSupport.parkNanos(idleNanos);
+                    idleNanos = Math.min(idleNanos * 2, MAX_IDLE_NANOS);
+                    continue;
+                }
+                idleNanos = MIN_IDLE_NANOS;
+                received.incrementAndGet();
+                try {
+                    handler.accept(tick);
+                } catch (RuntimeException e) {
+                    logger.error("{}: Error handling tick {}", name, tick, e);
+                }
+            }
+        }
+
+        /**
+         * @return next tick, or null if it has not been published yet
+         */
+        private CryptoTick read() {
+            while (true) {
+                long current = sequence.get();
+                int slot = (int) current & mask;
+                if (sequences.get(slot) == current) {
+                    CryptoTick tick = ticks.get(slot);
+                    // Re-check in case a publisher a full ring ahead replaced the tick meanwhile
+                    if (sequences.get(slot) == current) {
+                        sequence.lazySet(current + 1);
+                        return tick;
+                    }
+                }
+                long claimed = next.get();
+                if (claimed - current <= capacity) {
+                    return null;
+                }
+                // Overrun: skip to the oldest sequence that has not been claimed over
+                long oldest = claimed - capacity;
+                missed.addAndGet(oldest - current);
+                sequence.lazySet(oldest);
+            }
+        }
+
+        /**
+         * Stop reading and leave the bus
+         */
+        @Override
+        public void close() {
+            running = false;
+            subscriptions.remove(this);
+            LockSupport.unpark(thread);
+            if (Thread.currentThread() != thread) {
+                try {
+                    thread.join(CLOSE_TIMEOUT_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Merges the streams of redundant collectors of the same pair by letting through the first copy of
+ * each tick and rejecting the copies that arrive later over the other connections.
+ * <p>
+ * Copies are recognised by their ticker content: pair, price, 24h volume and best bid and ask with
+ * their quantities. The timestamp is left out because Coinbase stamps each message when it is sent
+ * on a connection, and sequence numbers are per connection too. Only the most recent ticks are
+ * remembered, so a copy arriving more than a window of ticks after the first is let through again;
+ * the window should cover the most the redundant connections are expected to lag each other.
+ * <p>
+ * The Coinbase simulator quotes independently per connection, so redundant streams from it never
+ * share ticks; the merging is covered by unit tests only.
+ */
+public class TickDeduplicator {
+    public static final String WINDOW_PROPERTY = "dedup.window";
+    public static final int DEFAULT_WINDOW = 4096;
+
+    private final int window;
+    private final Set<Content> seen;
+    private final ArrayDeque<Content> order;
+
+    private record Content(int symbolId, double price, double volume_24_h, double best_bid,
+                           double best_bid_quantity, double best_ask, double best_ask_quantity) {
+        Content(CryptoTick tick) {
+            this(tick.symbolId(), tick.price(), tick.volume_24_h(), tick.best_bid(),
+                    tick.best_bid_quantity(), tick.best_ask(), tick.best_ask_quantity());
+        }
+    }
+
+    /**
+     * @param window number of recent ticks remembered
+     */
+    public TickDeduplicator(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Deduplication window must be positive: " + window);
+        }
+        this.window = window;
+        this.seen = HashSet.newHashSet(window);
+        this.order = new ArrayDeque<>(window);
+    }
+
+    /**
+     * Deduplicator with the window set by the {@value #WINDOW_PROPERTY} system property
+     */
+    public static TickDeduplicator configured() {
+        return new TickDeduplicator(Integer.getInteger(WINDOW_PROPERTY, DEFAULT_WINDOW));
+    }
+
+    /**
+     * @return whether this is the first copy of the tick seen within the window
+     */
+    public synchronized boolean firstSeen(CryptoTick tick) {
+        Content content = new Content(tick);
+        if (!seen.add(content)) {
+            return false;
+        }
+        order.add(content);
+        if (order.size() > window) {
+            seen.remove(order.poll());
+        }
+        return true;
+    }
+}
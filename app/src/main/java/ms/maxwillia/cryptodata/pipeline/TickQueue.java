@@ -0,0 +1,302 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import lombok.Getter;
+import lombok.Setter;
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.storage.TickStorage;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded tick queue between a collector and its processor that applies an {@link OverflowPolicy}
+ * when a tick is offered while it is full, and counts every tick received and dropped.
+ * <p>
+ * Ticks held back by {@link OverflowPolicy#CONFLATE} or {@link OverflowPolicy#SPILL} are moved into
+ * the queue as the consumer takes from it. While any are held back, newly offered ticks join them
+ * rather than the queue, so ticks reach the consumer in the order they were offered. Held back ticks
+ * count towards {@link #size()}.
+ * <p>
+ * {@link #put(CryptoTick)} still blocks while the queue is full, for replay.
+ * <p>
+ * If set, {@link LatestTicks} is updated and {@link TickBus} published to with every tick offered
+ * or put, before any overflow policy applies, so they see every tick even while the consumer falls
+ * behind.
+ * <p>
+ * If set, {@link TickDeduplicator} discards copies of ticks already offered by a redundant
+ * collector before they are counted as received.
+ * <p>
+ * With {@link #useRing}, the queue also carries ticks its collector writes straight into an
+ * {@link OffHeapTickRing}, which its writer stores with {@link #drainRingTo} without boxing them.
+ * Those ticks bypass the overflow policy, de-duplication, {@link LatestTicks} and {@link TickBus}:
+ * a full ring drops the newest tick. They count towards {@link #size()}, received and dropped.
+ */
+public class TickQueue extends LinkedBlockingQueue<CryptoTick> implements AutoCloseable {
+    @Getter
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    @Setter
+    private volatile LatestTicks latestTicks;
+    @Setter
+    private volatile TickBus tickBus;
+    @Setter
+    private volatile TickDeduplicator deduplicator;
+    private final AtomicLong duplicates = new AtomicLong();
+    @Getter
+    private volatile OffHeapTickRing ring;
+
+    // Held back ticks, only touched while holding overflowLock
+    private final Object overflowLock = new Object();
+    private final Map<Integer, CryptoTick> conflated = new LinkedHashMap<>();
+    private final ArrayDeque<CryptoTick> carried = new ArrayDeque<>();
+    private SpillFile spillFile;
+    private Path spillDirectory;
+    private String name;
+    private volatile long heldBack;
+
+    public TickQueue(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Set what happens to ticks offered while the queue is full. Must be called before anything is
+     * offered.
+     *
+     * @param spillDirectory where {@link OverflowPolicy#SPILL} creates its file
+     * @param name           prefix of the spill file name
+     */
+    public void useOverflowPolicy(OverflowPolicy policy, Path spillDirectory, String name) {
+        this.overflowPolicy = policy;
+        this.spillDirectory = spillDirectory;
+        this.name = name;
+    }
+
+    /**
+     * Carry the ticks of a collector publishing into an off-heap ring. Must be called before the
+     * collector starts.
+     *
+     * @param capacity number of slots, rounded up to a power of two
+     * @return the ring for the collector to publish into
+     */
+    public OffHeapTickRing useRing(int capacity) {
+        ring = new OffHeapTickRing(capacity);
+        return ring;
+    }
+
+    /**
+     * Store up to {@code maxTicks} ticks straight from the ring. Only the queue's writer may call this.
+     *
+     * @return number of ticks stored, 0 without a ring
+     */
+    public int drainRingTo(TickStorage storage, int maxTicks) {
+        OffHeapTickRing tickRing = ring;
+        return tickRing == null ? 0 : tickRing.drainTo(storage, maxTicks);
+    }
+
+    @Override
+    public boolean offer(CryptoTick tick) {
+        if (isDuplicate(tick)) {
+            return true;
+        }
+        received(tick);
+        if (heldBack == 0 && super.offer(tick)) {
+            return true;
+        }
+        return switch (overflowPolicy) {
+            case DROP_NEWEST -> {
+                dropped.incrementAndGet();
+                yield false;
+            }
+            case DROP_OLDEST -> {
+                while (!super.offer(tick)) {
+                    if (super.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                yield true;
+            }
+            case CONFLATE, SPILL -> {
+                synchronized (overflowLock) {
+                    if (heldBack == 0 && super.offer(tick)) {
+                        yield true;
+                    }
+                    holdBack(tick);
+                }
+                yield true;
+            }
+        };
+    }
+
+    @Override
+    public void put(CryptoTick tick) throws InterruptedException {
+        if (isDuplicate(tick)) {
+            return;
+        }
+        received(tick);
+        super.put(tick);
+    }
+
+    @Override
+    public CryptoTick poll() {
+        refill();
+        return super.poll();
+    }
+
+    @Override
+    public CryptoTick poll(long timeout, TimeUnit unit) throws InterruptedException {
+        refill();
+        return super.poll(timeout, unit);
+    }
+
+    @Override
+    public CryptoTick take() throws InterruptedException {
+        refill();
+        return super.take();
+    }
+
+    @Override
+    public int drainTo(Collection<? super CryptoTick> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super CryptoTick> collection, int maxElements) {
+        refill();
+        return super.drainTo(collection, maxElements);
+    }
+
+    @Override
+    public int size() {
+        OffHeapTickRing tickRing = ring;
+        return super.size() + (int) heldBack + (tickRing == null ? 0 : tickRing.size());
+    }
+
+    public long getReceived() {
+        OffHeapTickRing tickRing = ring;
+        return received.get() + (tickRing == null ? 0 : tickRing.getPublished() + tickRing.getDropped());
+    }
+
+    /**
+     * Ticks discarded by the overflow policy: the offered tick for {@link OverflowPolicy#DROP_NEWEST},
+     * the oldest queued one for {@link OverflowPolicy#DROP_OLDEST}, an older tick for the same
+     * symbol replaced by {@link OverflowPolicy#CONFLATE}, or a tick that found the ring full
+     */
+    public long getDropped() {
+        OffHeapTickRing tickRing = ring;
+        return dropped.get() + (tickRing == null ? 0 : tickRing.getDropped());
+    }
+
+    /**
+     * Ticks that were held back because the queue was full, including any later dropped by conflation
+     */
+    public long getOverflowed() {
+        return overflowed.get();
+    }
+
+    /**
+     * Ticks currently held back, waiting for room in the queue
+     */
+    public long getHeldBack() {
+        return heldBack;
+    }
+
+    /**
+     * Copies of ticks discarded by the deduplicator
+     */
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    private boolean isDuplicate(CryptoTick tick) {
+        TickDeduplicator dedup = deduplicator;
+        if (dedup != null && !dedup.firstSeen(tick)) {
+            duplicates.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void received(CryptoTick tick) {
+        received.incrementAndGet();
+        LatestTicks latest = latestTicks;
+        if (latest != null) {
+            latest.update(tick);
+        }
+        TickBus bus = tickBus;
+        if (bus != null) {
+            bus.publish(tick);
+        }
+    }
+
+    private void holdBack(CryptoTick tick) {
+        overflowed.incrementAndGet();
+        if (overflowPolicy == OverflowPolicy.CONFLATE) {
+            if (conflated.put(tick.symbolId(), tick) != null) {
+                dropped.incrementAndGet();
+            }
+        } else {
+            if (spillFile == null) {
+                spillFile = new SpillFile(spillDirectory != null ? spillDirectory : Path.of(System.getProperty("java.io.tmpdir")),
+                        name != null ? name : "ticks");
+            }
+            spillFile.append(tick);
+        }
+        updateHeldBack();
+    }
+
+    /**
+     * Move held back ticks into the queue while there is room, oldest first
+     */
+    private void refill() {
+        if (heldBack == 0) {
+            return;
+        }
+        synchronized (overflowLock) {
+            while (remainingCapacity() > 0) {
+                if (carried.isEmpty()) {
+                    if (!conflated.isEmpty()) {
+                        Iterator<CryptoTick> oldest = conflated.values().iterator();
+                        carried.add(oldest.next());
+                        oldest.remove();
+                    } else if (spillFile != null) {
+                        spillFile.read(remainingCapacity(), carried::add);
+                    }
+                }
+                CryptoTick next = carried.peek();
+                // A producer that saw nothing held back may have taken the room first
+                if (next == null || !super.offer(next)) {
+                    break;
+                }
+                carried.poll();
+            }
+            updateHeldBack();
+        }
+    }
+
+    private void updateHeldBack() {
+        heldBack = conflated.size() + carried.size() + (spillFile != null ? spillFile.size() : 0);
+    }
+
+    /**
+     * Delete the spill file, discarding any ticks still held back in it
+     */
+    @Override
+    public void close() {
+        synchronized (overflowLock) {
+            if (spillFile != null) {
+                spillFile.close();
+                spillFile = null;
+            }
+            updateHeldBack();
+        }
+    }
+}
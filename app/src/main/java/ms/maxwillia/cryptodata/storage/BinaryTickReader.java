@@ -0,0 +1,113 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.FixedPointTick;
+import ms.maxwillia.cryptodata.model.SymbolRegistry;
+import ms.maxwillia.cryptodata.model.TickView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads files written by {@link BinaryTickStorage}.
+ * <p>
+ * {@link #nextView()} returns the next record in place in an off-heap read buffer, with its
+ * file-local symbol index already mapped back to a process symbol id; {@link #next()} boxes it.
+ * Fixed-point records are decoded to doubles in the read buffer. Reading stops at the first
+ * zero-filled record of a preallocated file.
+ */
+public class BinaryTickReader implements TickReader {
+    private static final Logger logger = LoggerFactory.getLogger(BinaryTickReader.class);
+    private static final int BUFFERED_TICKS = 256;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int[] symbolIds;
+    // Null when records hold doubles
+    private final FixedPointTick.Scale scale;
+    private final ByteBuffer buffer = TickView.allocate(BUFFERED_TICKS);
+    private final TickView view = new TickView();
+    private boolean exhausted;
+
+    public BinaryTickReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(TickFileHeader.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            TickFileHeader.Contents contents = TickFileHeader.parse(header, file.toString());
+            String[][] symbols = contents.symbols();
+            this.scale = contents.scale();
+            this.symbolIds = new int[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                symbolIds[i] = SymbolRegistry.register(symbols[i][0], symbols[i][1]);
+            }
+            channel.position(TickFileHeader.HEADER_BYTES);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        buffer.limit(0);
+    }
+
+    /**
+     * Read the next record without allocating. The view is only valid until the next call.
+     *
+     * @return view over the next record, or null once all records have been read
+     */
+    public TickView nextView() throws IOException {
+        if (exhausted) {
+            return null;
+        }
+        if (buffer.remaining() < TickView.BYTES) {
+            buffer.compact();
+            while (buffer.position() < TickView.BYTES && channel.read(buffer) > 0) {
+                // Fill at least one complete record
+            }
+            buffer.flip();
+            if (buffer.remaining() < TickView.BYTES) {
+                if (buffer.hasRemaining()) {
+                    logger.warn("Ignoring truncated record at end of {}", file);
+                    buffer.position(buffer.limit());
+                }
+                return null;
+            }
+        }
+        int offset = buffer.position();
+        view.wrap(buffer, offset);
+        if (view.timestamp() == 0) {
+            // Preallocated space after the last record
+            exhausted = true;
+            return null;
+        }
+        buffer.position(offset + TickView.BYTES);
+        int index = view.symbolId();
+        if (index < 0 || index >= symbolIds.length) {
+            throw new IOException("Record references unknown symbol index %d in %s".formatted(index, file));
+        }
+        if (scale != null) {
+            view.decode(scale);
+        }
+        return view.symbolId(symbolIds[index]);
+    }
+
+    @Override
+    public CryptoTick next() throws IOException {
+        TickView next = nextView();
+        return next == null ? null : next.toCryptoTick();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
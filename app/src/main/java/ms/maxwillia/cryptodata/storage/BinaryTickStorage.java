@@ -0,0 +1,125 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.FixedPointTick;
+import ms.maxwillia.cryptodata.model.TickView;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores ticks as fixed-size binary records in the {@link TickView} slot layout.
+ * <p>
+ * Ticks handed over as views are copied slot to slot into off-heap chunks and written with a
+ * single gathering write per flush, so storing does not allocate. Records carry a file-local
+ * symbol index resolved through the {@link TickFileHeader} symbol table. Opening an existing file
+ * appends to it, dropping a partially written trailing record and any preallocated space.
+ */
+public class BinaryTickStorage implements TickStorage {
+    public static final String FILE_SUFFIX = ".ticks";
+    static final int HEADER_BYTES = TickFileHeader.HEADER_BYTES;
+
+    private final String filename;
+    private final FileChannel channel;
+    private final TickFileHeader header;
+    private final GatheringChannelWriter writer;
+    private final TickView slot = new TickView();
+    // Null when records hold doubles
+    private final FixedPointTick.Scale scale;
+
+    public BinaryTickStorage(String filename) throws IOException {
+        this(filename, null);
+    }
+
+    /**
+     * @param scale scale to store fixed-point records at, or null to store doubles
+     */
+    public BinaryTickStorage(String filename, FixedPointTick.Scale scale) throws IOException {
+        this.filename = filename;
+        this.scale = scale;
+        this.channel = FileChannel.open(Path.of(filename),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.header = new TickFileHeader(channel, filename, scale);
+            long records = TickFileHeader.recordCount(channel);
+            channel.truncate(HEADER_BYTES + records * TickView.BYTES);
+            channel.position(channel.size());
+            this.writer = new GatheringChannelWriter(channel, filename);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private int localIndex(int symbolId) {
+        try {
+            return header.localIndex(symbolId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TickView nextSlot() {
+        ByteBuffer chunk = writer.reserve(TickView.BYTES);
+        int offset = chunk.position();
+        chunk.position(offset + TickView.BYTES);
+        return slot.wrap(chunk, offset);
+    }
+
+    @Override
+    public void storeTick(CryptoTick tick) {
+        int index = localIndex(tick.symbolId());
+        if (scale != null) {
+            // Exact for ticks built from fixed point, whose doubles round back to the same scaled longs
+            nextSlot().set(FixedPointTick.fromCryptoTick(tick, scale), tick.rateAgeMs()).symbolId(index);
+            return;
+        }
+        nextSlot().set(tick).symbolId(index);
+    }
+
+    @Override
+    public void storeTick(TickView tick) {
+        if (scale != null) {
+            storeTick(tick.toCryptoTick());
+            return;
+        }
+        int index = localIndex(tick.symbolId());
+        nextSlot().set(tick).symbolId(index);
+    }
+
+    @Override
+    public void flush() {
+        writer.write();
+    }
+
+    @Override
+    public void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error syncing " + filename, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error closing " + filename, e);
+            }
+        }
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+}
@@ -3,36 +3,60 @@ package ms.maxwillia.cryptodata.storage;
 
 import ms.maxwillia.cryptodata.model.CryptoTick;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 
-public class CsvStorage {
+public class CsvStorage implements TickStorage {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
     private final String filename;
-    private final PrintWriter writer;
+    private final FileChannel channel;
+    private final GatheringChannelWriter writer;
 
     public CsvStorage(String filename) throws IOException {
         this.filename = filename;
-        this.writer = new PrintWriter(new FileWriter(filename, true));
+        this.channel = FileChannel.open(Path.of(filename),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writer = new GatheringChannelWriter(channel, filename);
         writeHeader();
     }
 
+    @Override
     public void flush() {
-        writer.flush();
+        writer.write();
     }
 
+    @Override
+    public void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error syncing " + filename, e);
+        }
+    }
+
+    @Override
     public String getFilename() {
         return filename;
     }
 
     private void writeHeader() {
-        writer.println(CryptoTick.header());
-        writer.flush();
+        writeLine(CryptoTick.header());
+        flush();
+    }
+
+    private void writeLine(String line) {
+        byte[] bytes = (line + LINE_SEPARATOR).getBytes(StandardCharsets.UTF_8);
+        writer.reserve(bytes.length).put(bytes);
     }
 
+    @Override
     public void storeTick(CryptoTick tick) {
-        writer.printf(CryptoTick.headerFormat(),
+        writeLine(String.format(CryptoTick.headerFormat(),
             tick.symbol(),
             tick.price(),
             tick.volume_24_h(),
@@ -42,13 +66,21 @@ public class CsvStorage {
             tick.best_ask_quantity(),
             tick.timestamp(),
             tick.nativePrice(),
-            tick.intermediateRate()
-        );
-        writer.println();
+            tick.intermediateRate(),
+            tick.rateAgeMs()
+        ));
     }
 
+    @Override
     public void close() {
-        writer.flush();
-        writer.close();
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error closing " + filename, e);
+            }
+        }
     }
 }
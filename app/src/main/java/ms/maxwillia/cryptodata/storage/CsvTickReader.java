@@ -0,0 +1,92 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.SymbolRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads ticks back from files written by {@link CsvStorage}.
+ * A header is written every time a file is reopened, so header lines are skipped wherever they occur.
+ * Files written before the rate age column was added are read with {@link CryptoTick#NO_RATE_AGE}.
+ */
+public class CsvTickReader implements TickReader {
+    private static final Logger logger = LoggerFactory.getLogger(CsvTickReader.class);
+    private static final int FIELD_COUNT = 11;
+    private static final int FIELD_COUNT_WITHOUT_RATE_AGE = 10;
+    private static final String HEADER_PREFIX = "symbol,";
+
+    private final Path path;
+    private final String exchange;
+    private final BufferedReader reader;
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private long lineNumber = 0;
+
+    public CsvTickReader(Path path) throws IOException {
+        this(path, null);
+    }
+
+    /**
+     * @param exchange exchange the ticks were collected from, used to register their symbols
+     */
+    public CsvTickReader(Path path, String exchange) throws IOException {
+        this.path = path;
+        this.exchange = exchange;
+        this.reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public CryptoTick next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith(HEADER_PREFIX)) {
+                continue;
+            }
+            CryptoTick tick = parse(line);
+            if (tick != null) {
+                return tick;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private CryptoTick parse(String line) {
+        String[] fields = line.split(",");
+        if (fields.length != FIELD_COUNT && fields.length != FIELD_COUNT_WITHOUT_RATE_AGE) {
+            logger.warn("Skipping malformed line {} in {}: expected {} fields but found {}", lineNumber, path, FIELD_COUNT, fields.length);
+            return null;
+        }
+        try {
+            return new CryptoTick(
+                    symbolIds.computeIfAbsent(fields[0], symbol -> SymbolRegistry.register(exchange, symbol)),
+                    Double.parseDouble(fields[1]),
+                    Double.parseDouble(fields[2]),
+                    Double.parseDouble(fields[3]),
+                    Double.parseDouble(fields[4]),
+                    Double.parseDouble(fields[5]),
+                    Double.parseDouble(fields[6]),
+                    Double.parseDouble(fields[7]),
+                    Double.parseDouble(fields[8]),
+                    Double.parseDouble(fields[9]),
+                    fields.length == FIELD_COUNT ? Integer.parseInt(fields[10]) : CryptoTick.NO_RATE_AGE
+            );
+        } catch (NumberFormatException e) {
+            logger.warn("Skipping malformed line {} in {}: {}", lineNumber, path, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ms.maxwillia.cryptodata.storage;
+
+import java.util.Locale;
+
+/**
+ * When stored ticks are forced to the storage device, trading write throughput against how much
+ * a host crash can lose. Selected with the {@value #PROPERTY} system property.
+ */
+public enum Durability {
+    /**
+     * Batches are only flushed to the operating system, which writes them back when it chooses.
+     * A crash can lose whatever is still in the page cache, typically up to half a minute.
+     */
+    ASYNC,
+    /**
+     * One thread forces every storage on a fixed interval ({@value #GROUP_COMMIT_MS_PROPERTY}),
+     * sharing the cost of each fsync across all the batches written since the last one.
+     */
+    GROUP_COMMIT,
+    /**
+     * Every batch is forced before the next one is taken from the queue.
+     */
+    PER_BATCH;
+
+    public static final String PROPERTY = "storage.durability";
+    public static final String GROUP_COMMIT_MS_PROPERTY = "storage.group.commit.ms";
+    public static final long DEFAULT_GROUP_COMMIT_MS = 200;
+
+    /**
+     * Durability selected by the {@value #PROPERTY} system property, {@link #ASYNC} by default
+     */
+    public static Durability configured() {
+        String durability = System.getProperty(PROPERTY, ASYNC.name());
+        try {
+            return valueOf(durability.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown %s: %s".formatted(PROPERTY, durability), e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ms.maxwillia.cryptodata.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects encoded ticks in a list of off-heap chunks and writes everything collected since the
+ * last {@link #write()} with a single gathering {@link FileChannel#write(ByteBuffer[], int, int)},
+ * so a large batch costs one system call instead of one per buffer. Chunks are reused between
+ * writes. Once {@value #MAX_CHUNKS} chunks are full they are written without waiting to be asked.
+ */
+class GatheringChannelWriter {
+    static final int CHUNK_BYTES = 64 * 1024;
+    static final int MAX_CHUNKS = 64;
+
+    private final FileChannel channel;
+    private final String filename;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer[] gather = new ByteBuffer[0];
+    private int current;
+
+    GatheringChannelWriter(FileChannel channel, String filename) {
+        this.channel = channel;
+        this.filename = filename;
+        chunks.add(allocate(CHUNK_BYTES));
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Get a little-endian chunk with at least {@code bytes} remaining, positioned where they
+     * should be written
+     */
+    ByteBuffer reserve(int bytes) {
+        ByteBuffer chunk = chunks.get(current);
+        if (chunk.remaining() >= bytes) {
+            return chunk;
+        }
+        if (current + 1 == MAX_CHUNKS) {
+            write();
+            chunk = chunks.get(current);
+            if (chunk.remaining() >= bytes) {
+                return chunk;
+            }
+        }
+        current++;
+        if (current == chunks.size()) {
+            chunks.add(allocate(Math.max(CHUNK_BYTES, bytes)));
+        } else if (chunks.get(current).capacity() < bytes) {
+            chunks.set(current, allocate(bytes));
+        }
+        return chunks.get(current);
+    }
+
+    /**
+     * Write every reserved byte to the channel
+     */
+    void write() {
+        int count = current + 1;
+        if (gather.length < count) {
+            gather = new ByteBuffer[MAX_CHUNKS];
+        }
+        long remaining = 0;
+        for (int i = 0; i < count; i++) {
+            ByteBuffer chunk = chunks.get(i).flip();
+            gather[i] = chunk;
+            remaining += chunk.remaining();
+        }
+        try {
+            while (remaining > 0) {
+                remaining -= channel.write(gather, 0, count);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing " + filename, e);
+        } finally {
+            for (int i = 0; i < count; i++) {
+                chunks.get(i).clear();
+                gather[i] = null;
+            }
+            current = 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.concurrent.ExecutionMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Forces every registered storage to disk on a fixed interval from a single thread, for
+ * {@link Durability#GROUP_COMMIT}.
+ * <p>
+ * Writers keep flushing their own batches to the operating system; this thread only calls
+ * {@link TickStorage#force()}, so a storage must be {@link #unregister unregistered} before it is
+ * closed. Unregistering waits for a commit in progress, so no storage is forced after it returns.
+ */
+public class GroupCommitter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitter.class);
+
+    private record Registration(TickStorage storage, SyncLatency latency) {
+    }
+
+    private final long intervalMs;
+    private final Map<String, Registration> registrations = new LinkedHashMap<>();
+    private final Thread committerThread;
+    private volatile boolean running = true;
+    private long commits;
+
+    public GroupCommitter(long intervalMs, ExecutionMode executionMode) {
+        if (intervalMs <= 0) {
+            throw new IllegalArgumentException("Group commit interval must be positive: " + intervalMs);
+        }
+        this.intervalMs = intervalMs;
+        this.committerThread = executionMode.newThread("GroupCommitter", true, this::commitPeriodically);
+        committerThread.start();
+    }
+
+    public synchronized void register(String key, TickStorage storage, SyncLatency latency) {
+        registrations.put(key, new Registration(storage, latency));
+    }
+
+    public synchronized void unregister(String key) {
+        registrations.remove(key);
+    }
+
+    /**
+     * Force every registered storage now
+     */
+    public synchronized void commit() {
+        for (Map.Entry<String, Registration> entry : registrations.entrySet()) {
+            Registration registration = entry.getValue();
+            try {
+                registration.latency().time(registration.storage()::force);
+            } catch (RuntimeException e) {
+                logger.error("{} - Group commit failed", entry.getKey(), e);
+            }
+        }
+        commits++;
+    }
+
+    public synchronized long getCommits() {
+        return commits;
+    }
+
+    private void commitPeriodically() {
+        long nextCommit = System.nanoTime() + intervalMs * 1_000_000;
+        while (running) {
+            // Parked rather than interrupted: an interrupt during force() would close the file channel
+            LockSupport.parkNanos(nextCommit - System.nanoTime());
+            if (running && System.nanoTime() - nextCommit >= 0) {
+                commit();
+                nextCommit += intervalMs * 1_000_000;
+            }
+        }
+    }
+
+    /**
+     * Stop the committer thread after a final commit
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(committerThread);
+        try {
+            committerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commit();
+    }
+}
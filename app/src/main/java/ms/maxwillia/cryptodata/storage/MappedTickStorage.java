@@ -0,0 +1,234 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.TickView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores ticks by writing them straight into memory-mapped regions of a binary tick file.
+ * <p>
+ * Writes the same format as {@link BinaryTickStorage}, so files are read back with
+ * {@link BinaryTickReader}. The file is mapped one region at a time through
+ * {@link FileChannel#map(FileChannel.MapMode, long, long, Arena)}, each region in its own arena.
+ * When a region fills up its arena is closed, which unmaps it immediately instead of whenever the
+ * garbage collector gets round to it. The next region is then mapped further into the file. Offsets
+ * are longs throughout, so files can grow well past 2 GiB over several days of collection.
+ * <p>
+ * Mapped writes reach the page cache without a system call, so {@link #flush()} has nothing to do;
+ * {@link #force()} may run on another thread and only contends with the writer when it changes region.
+ * Closing unmaps the last region and truncates the preallocated space after the last record.
+ * Uses the java.lang.foreign preview API, so the JVM must run with {@code --enable-preview}.
+ */
+public class MappedTickStorage implements TickStorage {
+    private static final Logger logger = LoggerFactory.getLogger(MappedTickStorage.class);
+    public static final long DEFAULT_REGION_RECORDS = 1L << 21;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Record layout, matching the {@link TickView} slot
+     */
+    static final StructLayout TICK_LAYOUT = MemoryLayout.structLayout(
+            INT.withName("symbolId"),
+            INT.withName("rateAge"),
+            DOUBLE.withName("price"),
+            DOUBLE.withName("volume_24_h"),
+            DOUBLE.withName("best_bid"),
+            DOUBLE.withName("best_bid_quantity"),
+            DOUBLE.withName("best_ask"),
+            DOUBLE.withName("best_ask_quantity"),
+            DOUBLE.withName("timestamp"),
+            DOUBLE.withName("nativePrice"),
+            DOUBLE.withName("intermediateRate")).withName("tick");
+
+    private static final long SYMBOL_ID = offset("symbolId");
+    private static final long RATE_AGE = offset("rateAge");
+    private static final long PRICE = offset("price");
+    private static final long VOLUME_24_H = offset("volume_24_h");
+    private static final long BEST_BID = offset("best_bid");
+    private static final long BEST_BID_QUANTITY = offset("best_bid_quantity");
+    private static final long BEST_ASK = offset("best_ask");
+    private static final long BEST_ASK_QUANTITY = offset("best_ask_quantity");
+    private static final long TIMESTAMP = offset("timestamp");
+    private static final long NATIVE_PRICE = offset("nativePrice");
+    private static final long INTERMEDIATE_RATE = offset("intermediateRate");
+    private static final long RECORD_BYTES = TICK_LAYOUT.byteSize();
+
+    static {
+        if (RECORD_BYTES != TickView.BYTES || TIMESTAMP != TickView.TIMESTAMP_OFFSET) {
+            throw new IllegalStateException("Mapped tick layout does not match TickView: " + TICK_LAYOUT);
+        }
+    }
+
+    private final String filename;
+    private final FileChannel channel;
+    private final TickFileHeader header;
+    private final long regionRecords;
+    private final TickView scratch = new TickView().wrap(TickView.allocate(1), 0);
+
+    private final Object regionLock = new Object();
+    private Arena regionArena;
+    private MemorySegment region;
+    private long regionStart;
+    private long records;
+    private long regionsMapped;
+
+    public MappedTickStorage(String filename) throws IOException {
+        this(filename, DEFAULT_REGION_RECORDS);
+    }
+
+    /**
+     * @param regionRecords number of records mapped at a time
+     */
+    public MappedTickStorage(String filename, long regionRecords) throws IOException {
+        if (regionRecords <= 0) {
+            throw new IllegalArgumentException("Region must hold at least one record: " + regionRecords);
+        }
+        this.filename = filename;
+        this.regionRecords = regionRecords;
+        this.channel = FileChannel.open(Path.of(filename),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.header = new TickFileHeader(channel, filename);
+            this.records = TickFileHeader.recordCount(channel);
+            mapRegion();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static long offset(String field) {
+        return TICK_LAYOUT.byteOffset(MemoryLayout.PathElement.groupElement(field));
+    }
+
+    /**
+     * Map the region starting at the next record to write, growing the file as needed
+     */
+    private void mapRegion() throws IOException {
+        Arena arena = Arena.ofShared();
+        MemorySegment mapped;
+        try {
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE,
+                    TickFileHeader.HEADER_BYTES + records * RECORD_BYTES,
+                    regionRecords * RECORD_BYTES,
+                    arena);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+        synchronized (regionLock) {
+            regionStart = records;
+            regionArena = arena;
+            region = mapped;
+        }
+        regionsMapped++;
+        logger.debug("Mapped records {} to {} of {}", regionStart, regionStart + regionRecords, filename);
+    }
+
+    private void unmapRegion() {
+        synchronized (regionLock) {
+            if (regionArena != null) {
+                regionArena.close();
+                regionArena = null;
+                region = null;
+            }
+        }
+    }
+
+    @Override
+    public void storeTick(CryptoTick tick) {
+        storeTick(scratch.set(tick));
+    }
+
+    @Override
+    public void storeTick(TickView tick) {
+        if (region == null) {
+            throw new IllegalStateException("Storage is closed: " + filename);
+        }
+        try {
+            int index = header.localIndex(tick.symbolId());
+            if (records - regionStart == regionRecords) {
+                unmapRegion();
+                mapRegion();
+            }
+            long offset = (records - regionStart) * RECORD_BYTES;
+            region.set(INT, offset + SYMBOL_ID, index);
+            region.set(INT, offset + RATE_AGE, TickView.encodeRateAge(tick.rateAgeMs()));
+            region.set(DOUBLE, offset + PRICE, tick.price());
+            region.set(DOUBLE, offset + VOLUME_24_H, tick.volume_24_h());
+            region.set(DOUBLE, offset + BEST_BID, tick.best_bid());
+            region.set(DOUBLE, offset + BEST_BID_QUANTITY, tick.best_bid_quantity());
+            region.set(DOUBLE, offset + BEST_ASK, tick.best_ask());
+            region.set(DOUBLE, offset + BEST_ASK_QUANTITY, tick.best_ask_quantity());
+            region.set(DOUBLE, offset + NATIVE_PRICE, tick.nativePrice());
+            region.set(DOUBLE, offset + INTERMEDIATE_RATE, tick.intermediateRate());
+            // Timestamp last: a record is only visible to readers once it is non-zero
+            region.set(DOUBLE, offset + TIMESTAMP, tick.timestamp());
+            records++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing " + filename, e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        // Mapped writes are already in the page cache
+    }
+
+    @Override
+    public void force() {
+        // Keeps the writer from unmapping the region while it is being forced
+        synchronized (regionLock) {
+            if (region == null) {
+                throw new IllegalStateException("Storage is closed: " + filename);
+            }
+            region.force();
+        }
+        try {
+            // Header updates and earlier regions go through the file rather than the current mapping
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error syncing " + filename, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        unmapRegion();
+        try {
+            // Only safe once nothing is mapped past the new end of the file
+            channel.truncate(TickFileHeader.HEADER_BYTES + records * RECORD_BYTES);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error closing " + filename, e);
+        }
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getRegionsMapped() {
+        return regionsMapped;
+    }
+}
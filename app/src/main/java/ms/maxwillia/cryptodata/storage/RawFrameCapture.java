@@ -0,0 +1,206 @@
+package ms.maxwillia.cryptodata.storage;
+
+import lombok.Getter;
+import ms.maxwillia.cryptodata.model.RawFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records every raw message received by a collector to a rolling, gzip-compressed binary log.
+ * <p>
+ * {@link #capture} only stamps the receive time and hands the frame to a bounded queue, so the
+ * WebSocket or polling thread never waits on disk; frames are dropped (and counted) if the writer
+ * falls behind. A new segment {@code <name>_<timestamp>_<n>.raw.gz} is started once the current one
+ * holds {@code maxSegmentBytes} of uncompressed data. Each segment begins with the metadata it was
+ * created with, so it can be read on its own by {@link RawFrameReader}.
+ */
+public class RawFrameCapture implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(RawFrameCapture.class);
+    static final int MAGIC = 0x52415746; // "RAWF"
+    static final int VERSION = 1;
+    public static final String FILE_SUFFIX = ".raw.gz";
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    private static final int DRAIN_BATCH = 256;
+
+    private final Path directory;
+    @Getter
+    private final String name;
+    private final Map<String, String> metadata;
+    private final long maxSegmentBytes;
+    private final BlockingQueue<RawFrame> queue;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private final AtomicLong framesCaptured = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong framesWritten = new AtomicLong();
+    private final AtomicLong segments = new AtomicLong();
+
+    private DataOutputStream output;
+    private long segmentBytes;
+    @Getter
+    private volatile Path currentSegment;
+
+    public RawFrameCapture(Path directory, String name, Map<String, String> metadata) throws IOException {
+        this(directory, name, metadata, DEFAULT_MAX_SEGMENT_BYTES, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param directory       directory to write segments to
+     * @param name            segment file name prefix
+     * @param metadata        written at the start of every segment, e.g. exchange and currencies
+     * @param maxSegmentBytes uncompressed bytes after which a new segment is started
+     * @param queueCapacity   frames buffered before new frames are dropped
+     */
+    public RawFrameCapture(Path directory, String name, Map<String, String> metadata,
+                           long maxSegmentBytes, int queueCapacity) throws IOException {
+        this.directory = directory;
+        this.name = name;
+        this.metadata = Map.copyOf(metadata);
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Files.createDirectories(directory);
+        openSegment();
+        this.writerThread = new Thread(this::writeFrames, "RawFrameCapture-" + name);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queue a received message for writing, stamped with the current time
+     *
+     * @return false if the frame was dropped because the writer is behind
+     */
+    public boolean capture(String source, String payload) {
+        if (!running) {
+            return false;
+        }
+        if (queue.offer(new RawFrame(System.currentTimeMillis(), source, payload))) {
+            framesCaptured.incrementAndGet();
+            return true;
+        }
+        framesDropped.incrementAndGet();
+        return false;
+    }
+
+    public long getFramesCaptured() {
+        return framesCaptured.get();
+    }
+
+    public long getFramesDropped() {
+        return framesDropped.get();
+    }
+
+    public long getFramesWritten() {
+        return framesWritten.get();
+    }
+
+    public long getSegments() {
+        return segments.get();
+    }
+
+    /**
+     * Stop accepting frames, write everything already queued and close the current segment
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writerThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for raw frame writer {} to finish", name);
+        }
+    }
+
+    private void writeFrames() {
+        List<RawFrame> batch = new ArrayList<>(DRAIN_BATCH);
+        try {
+            while (running || !queue.isEmpty()) {
+                RawFrame first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                for (RawFrame frame : batch) {
+                    writeFrame(frame);
+                }
+                batch.clear();
+                // Sync flush so a crash loses at most the frames still in the queue
+                output.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Error writing raw frames to {}, capture stopped", currentSegment, e);
+            running = false;
+        } finally {
+            closeSegment();
+        }
+    }
+
+    private void writeFrame(RawFrame frame) throws IOException {
+        if (segmentBytes >= maxSegmentBytes) {
+            closeSegment();
+            openSegment();
+        }
+        byte[] payload = frame.payload().getBytes(StandardCharsets.UTF_8);
+        int before = output.size();
+        output.writeLong(frame.receivedAt());
+        output.writeUTF(frame.source());
+        output.writeInt(payload.length);
+        output.write(payload);
+        segmentBytes += output.size() - before;
+        framesWritten.incrementAndGet();
+    }
+
+    private void openSegment() throws IOException {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        Path segment = directory.resolve("%s_%s_%d%s".formatted(name, timestamp, segments.get(), FILE_SUFFIX));
+        output = new DataOutputStream(new GZIPOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(segment)), 65536, true));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(metadata.size());
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeUTF(entry.getValue());
+        }
+        output.flush();
+        segmentBytes = 0;
+        currentSegment = segment;
+        segments.incrementAndGet();
+        logger.info("Capturing raw frames to {}", segment);
+    }
+
+    private void closeSegment() {
+        if (output == null) {
+            return;
+        }
+        try {
+            output.close();
+        } catch (IOException e) {
+            logger.error("Error closing raw frame segment {}", currentSegment, e);
+        }
+        output = null;
+    }
+}
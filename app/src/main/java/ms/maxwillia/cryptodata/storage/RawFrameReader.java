@@ -0,0 +1,81 @@
+package ms.maxwillia.cryptodata.storage;
+
+import lombok.Getter;
+import ms.maxwillia.cryptodata.model.RawFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a segment written by {@link RawFrameCapture}.
+ * A segment cut short by a crash is read up to its last complete frame.
+ */
+public class RawFrameReader implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(RawFrameReader.class);
+
+    private final Path path;
+    private final DataInputStream input;
+    @Getter
+    private final Map<String, String> metadata;
+
+    public RawFrameReader(Path path) throws IOException {
+        this.path = path;
+        this.input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path))));
+        try {
+            if (input.readInt() != RawFrameCapture.MAGIC) {
+                throw new IOException("Not a raw frame capture: " + path);
+            }
+            int version = input.readInt();
+            if (version != RawFrameCapture.VERSION) {
+                throw new IOException("Unsupported raw frame capture version %d in %s".formatted(version, path));
+            }
+            int entries = input.readInt();
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < entries; i++) {
+                values.put(input.readUTF(), input.readUTF());
+            }
+            this.metadata = Map.copyOf(values);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the next frame
+     *
+     * @return next frame, or null at the end of the segment
+     */
+    public RawFrame next() throws IOException {
+        long receivedAt;
+        try {
+            receivedAt = input.readLong();
+        } catch (EOFException e) {
+            return null;
+        }
+        try {
+            String source = input.readUTF();
+            byte[] payload = new byte[input.readInt()];
+            input.readFully(payload);
+            return new RawFrame(receivedAt, source, new String(payload, StandardCharsets.UTF_8));
+        } catch (EOFException e) {
+            logger.warn("Truncated frame at end of {}", path);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
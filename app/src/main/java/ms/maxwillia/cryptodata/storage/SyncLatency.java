@@ -0,0 +1,44 @@
+package ms.maxwillia.cryptodata.storage;
+
+/**
+ * Count and latency of fsyncs since the last report
+ */
+public class SyncLatency {
+    private long syncs;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Snapshot of the syncs recorded over one reporting interval
+     */
+    public record Snapshot(long syncs, double meanMillis, double maxMillis) {
+    }
+
+    public synchronized void record(long nanos) {
+        syncs++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Run a sync and record how long it took
+     */
+    public void time(Runnable sync) {
+        long start = System.nanoTime();
+        sync.run();
+        record(System.nanoTime() - start);
+    }
+
+    /**
+     * Take the syncs recorded since the last call
+     */
+    public synchronized Snapshot snapshotAndReset() {
+        Snapshot snapshot = new Snapshot(syncs,
+                syncs == 0 ? 0 : totalNanos / 1e6 / syncs,
+                maxNanos / 1e6);
+        syncs = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        return snapshot;
+    }
+}
@@ -0,0 +1,180 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.model.FixedPointTick;
+import ms.maxwillia.cryptodata.model.SymbolRegistry;
+import ms.maxwillia.cryptodata.model.TickView;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Header of a binary tick file, shared by the binary tick storages and {@link BinaryTickReader}.
+ * <p>
+ * Symbol ids are only valid within one process, so records carry a file-local symbol index
+ * instead, resolved through the symbol table kept here:
+ * <pre>
+ * int  magic, int version, int record size, int symbol count
+ * version 2 only: byte price scale, byte native price scale, byte quantity scale
+ * per symbol: byte length + UTF-8 exchange, byte length + UTF-8 pair
+ * </pre>
+ * The header is padded to {@value #HEADER_BYTES} bytes and {@link TickView} records follow it.
+ * Version 1 records hold doubles; version 2 records hold fixed-point longs at the scale in the header.
+ * Space after the last record may be preallocated and zero filled; a record with a zero timestamp
+ * marks the end of the data.
+ */
+final class TickFileHeader {
+    static final int MAGIC = 0x5449434B;
+    static final int VERSION = 1;
+    static final int FIXED_POINT_VERSION = 2;
+    static final int HEADER_BYTES = 4096;
+    private static final int FIXED_HEADER_BYTES = 16;
+    private static final int SYMBOL_COUNT_OFFSET = 12;
+
+    private final FileChannel channel;
+    private final String filename;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private int[] localIndexBySymbolId = new int[0];
+    private int symbolCount;
+
+    /**
+     * Contents of a parsed header
+     *
+     * @param symbols exchange and pair of each file-local symbol index
+     * @param scale   scale of the fixed-point records, or null if records hold doubles
+     */
+    record Contents(String[][] symbols, FixedPointTick.Scale scale) {
+    }
+
+    TickFileHeader(FileChannel channel, String filename) throws IOException {
+        this(channel, filename, null);
+    }
+
+    /**
+     * Write a new header to an empty file, or load the symbol table of an existing one
+     *
+     * @param scale scale of fixed-point records, or null for doubles; must match an existing file
+     */
+    TickFileHeader(FileChannel channel, String filename, FixedPointTick.Scale scale) throws IOException {
+        this.channel = channel;
+        this.filename = filename;
+        if (channel.size() == 0) {
+            header.putInt(MAGIC).putInt(scale == null ? VERSION : FIXED_POINT_VERSION).putInt(TickView.BYTES).putInt(0);
+            if (scale != null) {
+                header.put((byte) scale.price()).put((byte) scale.nativePrice()).put((byte) scale.quantity());
+            }
+            write();
+        } else {
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            Contents contents = parse(header, filename);
+            if (!Objects.equals(scale, contents.scale())) {
+                throw new IOException("%s holds ticks at scale %s, not %s".formatted(filename, contents.scale(), scale));
+            }
+            header.limit(HEADER_BYTES);
+            for (String[] symbol : contents.symbols()) {
+                assign(SymbolRegistry.register(symbol[0], symbol[1]));
+            }
+        }
+    }
+
+    /**
+     * Parse and validate a file header, leaving the buffer positioned after the symbol table
+     */
+    static Contents parse(ByteBuffer header, String filename) throws IOException {
+        if (header.remaining() < FIXED_HEADER_BYTES || header.getInt() != MAGIC) {
+            throw new IOException("Not a binary tick file: " + filename);
+        }
+        int version = header.getInt();
+        int recordBytes = header.getInt();
+        if ((version != VERSION && version != FIXED_POINT_VERSION) || recordBytes != TickView.BYTES) {
+            throw new IOException("Unsupported binary tick file version %d with %d byte records: %s"
+                    .formatted(version, recordBytes, filename));
+        }
+        String[][] symbols = new String[header.getInt()][];
+        FixedPointTick.Scale scale = null;
+        if (version == FIXED_POINT_VERSION) {
+            scale = new FixedPointTick.Scale(header.get(), header.get(), header.get());
+        }
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = new String[]{readString(header), readString(header)};
+        }
+        return new Contents(symbols, scale);
+    }
+
+    private static String readString(ByteBuffer header) {
+        byte[] bytes = new byte[Byte.toUnsignedInt(header.get())];
+        header.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Count the complete records in a file, ignoring a partial trailing record and any zero-filled
+     * preallocated space
+     */
+    static long recordCount(FileChannel channel) throws IOException {
+        ByteBuffer timestamp = ByteBuffer.allocate(Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long low = 0;
+        long high = Math.max(0, (channel.size() - HEADER_BYTES) / TickView.BYTES);
+        // Records are written in order, so the first zero timestamp can be found by bisection.
+        // A fixed-point timestamp is a nonzero long, whose bits are also a nonzero double.
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            timestamp.clear();
+            long position = HEADER_BYTES + middle * TickView.BYTES + TickView.TIMESTAMP_OFFSET;
+            while (timestamp.hasRemaining() && channel.read(timestamp, position + timestamp.position()) > 0) {
+                // Keep reading until the field is complete
+            }
+            if (timestamp.getDouble(0) != 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void write() throws IOException {
+        ByteBuffer padded = header.duplicate().order(ByteOrder.LITTLE_ENDIAN).limit(HEADER_BYTES).position(0);
+        while (padded.hasRemaining()) {
+            channel.write(padded, padded.position());
+        }
+    }
+
+    private int assign(int symbolId) {
+        if (symbolId >= localIndexBySymbolId.length) {
+            int oldLength = localIndexBySymbolId.length;
+            localIndexBySymbolId = Arrays.copyOf(localIndexBySymbolId, Math.max(symbolId + 1, oldLength * 2));
+            Arrays.fill(localIndexBySymbolId, oldLength, localIndexBySymbolId.length, -1);
+        }
+        if (localIndexBySymbolId[symbolId] < 0) {
+            localIndexBySymbolId[symbolId] = symbolCount++;
+        }
+        return localIndexBySymbolId[symbolId];
+    }
+
+    /**
+     * Map a process symbol id to its index in this file, adding it to the symbol table if new
+     */
+    int localIndex(int symbolId) throws IOException {
+        if (symbolId < localIndexBySymbolId.length && localIndexBySymbolId[symbolId] >= 0) {
+            return localIndexBySymbolId[symbolId];
+        }
+        SymbolRegistry.Symbol symbol = SymbolRegistry.get(symbolId);
+        byte[] exchange = (symbol.exchange() == null ? "" : symbol.exchange()).getBytes(StandardCharsets.UTF_8);
+        byte[] pair = symbol.pair().getBytes(StandardCharsets.UTF_8);
+        if (exchange.length > 255 || pair.length > 255 || header.remaining() < exchange.length + pair.length + 2) {
+            throw new IOException("No room in header of %s for symbol %s".formatted(filename, symbol.key()));
+        }
+        header.put((byte) exchange.length).put(exchange).put((byte) pair.length).put(pair);
+        header.putInt(SYMBOL_COUNT_OFFSET, symbolCount + 1);
+        write();
+        return assign(symbolId);
+    }
+}
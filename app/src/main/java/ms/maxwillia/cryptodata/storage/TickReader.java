@@ -0,0 +1,21 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+
+import java.io.IOException;
+
+/**
+ * Sequential reader over previously stored ticks
+ */
+public interface TickReader extends AutoCloseable {
+    /**
+     * Read the next tick
+     *
+     * @return next tick, or null once all ticks have been read
+     * @throws IOException if the underlying file cannot be read
+     */
+    CryptoTick next() throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
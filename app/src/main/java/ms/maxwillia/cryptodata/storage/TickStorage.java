@@ -0,0 +1,41 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.TickView;
+
+/**
+ * Destination for the ticks of one exchange and pair
+ */
+public interface TickStorage {
+    void storeTick(CryptoTick tick);
+
+    /**
+     * Store a tick held off-heap. Formats that cannot write the slot directly box it first.
+     */
+    default void storeTick(TickView tick) {
+        storeTick(tick.toCryptoTick());
+    }
+
+    /**
+     * Push buffered ticks to the operating system
+     */
+    void flush();
+
+    /**
+     * Force ticks already flushed to the storage device, so they survive a host crash. Unlike the
+     * other methods this may be called from a thread other than the writer, but not after close.
+     */
+    void force();
+
+    /**
+     * Flush and force written ticks to the storage device
+     */
+    default void sync() {
+        flush();
+        force();
+    }
+
+    void close();
+
+    String getFilename();
+}
@@ -0,0 +1,319 @@
+package ms.maxwillia.cryptodata.storage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+import ms.maxwillia.cryptodata.model.Transaction;
+import ms.maxwillia.cryptodata.model.TransactionSide;
+import ms.maxwillia.cryptodata.model.TransactionStatus;
+import ms.maxwillia.cryptodata.model.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Append-only JSON-lines journal of transactions.
+ * <p>
+ * Every add or update appends a full snapshot of the transaction; on replay the latest snapshot wins.
+ * Only a bounded window of recent transactions is kept, and older transactions in a terminal state
+ * are forgotten once they leave it. Transactions still waiting on the exchange are never evicted.
+ * <p>
+ * When opened, a journal holding more records than the transactions it keeps is compacted to one
+ * record per kept transaction. The file as it was is first copied to {@code <name>.<epoch millis>},
+ * so the settled history is archived rather than lost.
+ */
+public class TransactionJournal implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionJournal.class);
+    public static final int DEFAULT_HOT_WINDOW = 1000;
+    private static final Set<TransactionStatus> OPEN_STATUSES = EnumSet.of(TransactionStatus.REQUESTED);
+
+    /**
+     * When the journal forces appended records to the storage device
+     */
+    public enum SyncPolicy {
+        /** Leave write-back to the operating system */
+        NONE,
+        /** fsync once a transaction reaches a terminal state; a host crash can lose open orders */
+        TERMINAL,
+        /** fsync after every append */
+        ALWAYS
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Getter
+    private final Path path;
+    private FileChannel channel;
+    private final SyncPolicy syncPolicy;
+    private final int hotWindowSize;
+
+    private final LinkedHashMap<String, Transaction> hotWindow = new LinkedHashMap<>();
+    private final Map<String, String> idsByExchangeId = new HashMap<>();
+    private long recordCount = 0;
+
+    /**
+     * Create a journal which only keeps the hot window in memory
+     */
+    public TransactionJournal(int hotWindowSize) {
+        this.path = null;
+        this.channel = null;
+        this.syncPolicy = SyncPolicy.NONE;
+        this.hotWindowSize = hotWindowSize;
+    }
+
+    /**
+     * Open (or create) a journal file, recovering any transactions already written to it
+     */
+    public TransactionJournal(Path path, SyncPolicy syncPolicy, int hotWindowSize) throws IOException {
+        this.path = path;
+        this.syncPolicy = syncPolicy;
+        this.hotWindowSize = hotWindowSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+        if (recordCount > hotWindow.size()) {
+            compact();
+        }
+        logger.info("Opened transaction journal {} with {} transactions", path, hotWindow.size());
+    }
+
+    public boolean isPersistent() {
+        return channel != null;
+    }
+
+    /**
+     * Append a new or updated transaction
+     */
+    public synchronized void append(Transaction transaction) {
+        if (transaction.getId() == null) {
+            throw new IllegalArgumentException("Transaction id is required for journaling");
+        }
+        if (channel != null) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(line(transaction));
+                long position = channel.size();
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                if (syncPolicy == SyncPolicy.ALWAYS
+                        || (syncPolicy == SyncPolicy.TERMINAL && isTerminal(transaction))) {
+                    channel.force(false);
+                }
+                recordCount++;
+            } catch (IOException e) {
+                logger.error("Failed to journal transaction {}", transaction.getId(), e);
+            }
+        }
+        index(transaction);
+    }
+
+    /**
+     * Find a transaction in the hot window by client id
+     */
+    public synchronized Optional<Transaction> get(String id) {
+        return Optional.ofNullable(hotWindow.get(id));
+    }
+
+    public synchronized Optional<Transaction> getByExchangeId(String exchangeId) {
+        String id = idsByExchangeId.get(exchangeId);
+        return id == null ? Optional.empty() : get(id);
+    }
+
+    /**
+     * Get transactions currently held in memory, oldest first
+     */
+    public synchronized List<Transaction> getRecent() {
+        return new ArrayList<>(hotWindow.values());
+    }
+
+    /**
+     * Get transactions which have not reached a terminal state, e.g. to reconcile after a restart
+     */
+    public synchronized List<Transaction> getOpen() {
+        return hotWindow.values().stream()
+                .filter(transaction -> !isTerminal(transaction))
+                .toList();
+    }
+
+    public synchronized int size() {
+        return hotWindow.size();
+    }
+
+    public synchronized void flush() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null || !channel.isOpen()) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            logger.error("Failed to close transaction journal {}", path, e);
+        }
+    }
+
+    /**
+     * Transactions are settled unless they are waiting on the exchange. Transactions that were
+     * never sent (e.g. trading disabled) will not change again and are treated as terminal.
+     */
+    public static boolean isTerminal(Transaction transaction) {
+        return !OPEN_STATUSES.contains(transaction.getStatus());
+    }
+
+    private void index(Transaction transaction) {
+        hotWindow.remove(transaction.getId());
+        hotWindow.put(transaction.getId(), transaction);
+        if (transaction.getExchangeId() != null) {
+            idsByExchangeId.put(transaction.getExchangeId(), transaction.getId());
+        }
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Transaction> iterator = hotWindow.values().iterator();
+        while (hotWindow.size() > hotWindowSize && iterator.hasNext()) {
+            Transaction eldest = iterator.next();
+            if (isTerminal(eldest)) {
+                iterator.remove();
+                if (eldest.getExchangeId() != null) {
+                    idsByExchangeId.remove(eldest.getExchangeId());
+                }
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        long offset = 0;
+        long truncateAt = -1;
+        channel.position(0);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            long lineLength = line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (offset + lineLength > channel.size()) {
+                // Final record without its newline: an append interrupted by a crash
+                truncateAt = offset;
+                break;
+            }
+            if (!line.isBlank()) {
+                try {
+                    Transaction transaction = fromJson(objectMapper.readTree(line));
+                    recordCount++;
+                    index(transaction);
+                } catch (IOException e) {
+                    logger.warn("Skipping corrupt journal record at offset {} in {}", offset, path);
+                }
+            }
+            offset += lineLength;
+        }
+        if (truncateAt >= 0) {
+            logger.warn("Truncating incomplete journal record at offset {} in {}", truncateAt, path);
+            channel.truncate(truncateAt);
+        }
+    }
+
+    /**
+     * Rewrite the file with the latest record of each transaction in the hot window, archiving the
+     * file as it was. The compacted file replaces it in a single move, so a crash part way through
+     * leaves either the old or the new journal.
+     */
+    private void compact() throws IOException {
+        String name = path.getFileName().toString();
+        Path archive = path.resolveSibling("%s.%d".formatted(name, System.currentTimeMillis()));
+        Path compacted = path.resolveSibling(name + ".tmp");
+        Files.copy(path, archive);
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Transaction transaction : hotWindow.values()) {
+                ByteBuffer buffer = ByteBuffer.wrap(line(transaction));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        logger.info("Compacted transaction journal {} from {} to {} records, archived to {}",
+                path, recordCount, hotWindow.size(), archive);
+        recordCount = hotWindow.size();
+    }
+
+    private byte[] line(Transaction transaction) throws IOException {
+        return (objectMapper.writeValueAsString(toJson(transaction)) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private ObjectNode toJson(Transaction transaction) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("id", transaction.getId());
+        node.put("exchangeId", transaction.getExchangeId());
+        node.put("exchange", transaction.getExchange());
+        node.put("currency", transaction.getCurrency());
+        node.put("orderType", transaction.getOrderType() == null ? null : transaction.getOrderType().name());
+        node.put("side", transaction.getSide() == null ? null : transaction.getSide().name());
+        node.put("preview", transaction.isPreview());
+        node.put("price", transaction.getPrice());
+        node.put("quantity", transaction.getQuantity());
+        node.put("fee", transaction.getFee());
+        node.put("createdTime", transaction.getCreatedTime() == null ? null : transaction.getCreatedTime().toString());
+        node.put("status", transaction.getStatus() == null ? null : transaction.getStatus().name());
+        node.put("response", transaction.getResponse());
+        node.put("filledQuantity", transaction.getFilledQuantity());
+        node.put("filledPrice", transaction.getFilledPrice());
+        node.put("fillCount", transaction.getFillCount());
+        node.put("filledTime", transaction.getFilledTime() == null ? null : transaction.getFilledTime().toString());
+        return node;
+    }
+
+    private static Transaction fromJson(JsonNode node) throws IOException {
+        if (!node.hasNonNull("id")) {
+            throw new IOException("Journal record without id");
+        }
+        return Transaction.builder()
+                .id(text(node, "id"))
+                .exchangeId(text(node, "exchangeId"))
+                .exchange(text(node, "exchange"))
+                .currency(text(node, "currency"))
+                .orderType(node.hasNonNull("orderType") ? TransactionType.valueOf(text(node, "orderType")) : null)
+                .side(node.hasNonNull("side") ? TransactionSide.valueOf(text(node, "side")) : null)
+                .preview(node.path("preview").asBoolean(false))
+                .price(number(node, "price"))
+                .quantity(number(node, "quantity"))
+                .fee(number(node, "fee"))
+                .createdTime(node.hasNonNull("createdTime") ? ZonedDateTime.parse(text(node, "createdTime")) : null)
+                .status(node.hasNonNull("status") ? TransactionStatus.valueOf(text(node, "status")) : null)
+                .response(text(node, "response"))
+                .filledQuantity(number(node, "filledQuantity"))
+                .filledPrice(number(node, "filledPrice"))
+                .fillCount(node.hasNonNull("fillCount") ? node.get("fillCount").asInt() : null)
+                .filledTime(node.hasNonNull("filledTime") ? ZonedDateTime.parse(text(node, "filledTime")) : null)
+                .build();
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+
+    private static Double number(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asDouble() : null;
+    }
+}
@@ -0,0 +1,370 @@
+package ms.maxwillia.cryptodata;
+
+import ms.maxwillia.cryptodata.client.ClientStatus;
+import ms.maxwillia.cryptodata.client.collector.ExchangeCollector;
+import ms.maxwillia.cryptodata.client.collector.replay.ReplayCollector;
+import ms.maxwillia.cryptodata.concurrent.ParallelStartup;
+import ms.maxwillia.cryptodata.config.CollectorConfig;
+import ms.maxwillia.cryptodata.config.PairConfig;
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.storage.BinaryTickReader;
+import ms.maxwillia.cryptodata.storage.BinaryTickStorage;
+import ms.maxwillia.cryptodata.storage.CsvStorage;
+import ms.maxwillia.cryptodata.storage.CsvTickReader;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CryptoDataCollectorTest {
+    private static final int RECORDED_TICKS = 50_000;
+
+    @TempDir
+    Path tempDir;
+
+    private String originalTmpDir;
+    private Path outputDir;
+    private Path recording;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        originalTmpDir = System.getProperty("java.io.tmpdir");
+        outputDir = Files.createDirectories(tempDir.resolve("output"));
+        System.setProperty("java.io.tmpdir", outputDir + File.separator);
+
+        recording = tempDir.resolve("Coinbase_BTCUSD_20250101_000000.csv");
+        CsvStorage storage = new CsvStorage(recording.toString());
+        for (int i = 0; i < RECORDED_TICKS; i++) {
+            storage.storeTick(new CryptoTick("BTCUSD", 100 + i, 1, 99, 1, 101, 1, 1735689600000L + i));
+        }
+        storage.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setProperty("java.io.tmpdir", originalTmpDir);
+        System.clearProperty(CryptoDataCollector.SHUTDOWN_DRAIN_MS_PROPERTY);
+        System.clearProperty(CryptoDataCollector.WRITER_THREADS_PROPERTY);
+        System.clearProperty(ParallelStartup.DEADLINE_MS_PROPERTY);
+    }
+
+    private long storedTicks() throws IOException {
+        return storedTicks("Coinbase_BTCUSD");
+    }
+
+    private long storedTicks(String key) throws IOException {
+        Path output;
+        try (Stream<Path> files = Files.list(outputDir)) {
+            output = files.filter(file -> file.getFileName().toString().startsWith(key)).findFirst().orElseThrow();
+        }
+        long count = 0;
+        try (CsvTickReader reader = new CsvTickReader(output)) {
+            while (reader.next() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long replayed(CryptoDataCollector collector) {
+        return collector.getClients().stream()
+                .mapToLong(client -> ((ReplayCollector) client).getTicksReplayed())
+                .sum();
+    }
+
+    @Test
+    void testStopDrainsEveryQueuedTickToStorage() throws IOException {
+        CryptoDataCollector collector = CryptoDataCollector.replay(List.of(recording), ReplayCollector.AS_FAST_AS_POSSIBLE);
+        collector.start();
+        // Stop while the replay is still filling the queue
+        CryptoDataCollector.ShutdownReport report = collector.stop();
+
+        assertTrue(report.complete(), report.toString());
+        assertEquals(0, report.abandoned());
+        assertEquals(replayed(collector), storedTicks(), "Every tick a collector queued must reach storage");
+        assertSame(report, collector.stop(), "Stopping again must not touch closed storage");
+    }
+
+    @Test
+    void testDrainDeadlineAbandonsRemainingTicks() throws IOException {
+        System.setProperty(CryptoDataCollector.SHUTDOWN_DRAIN_MS_PROPERTY, "0");
+        CryptoDataCollector collector = CryptoDataCollector.replay(List.of(recording), ReplayCollector.AS_FAST_AS_POSSIBLE);
+        collector.start();
+        CryptoDataCollector.ShutdownReport report = collector.stop();
+
+        CryptoDataCollector.DrainResult result = report.results().get("Coinbase_BTCUSD");
+        assertNotNull(result);
+        assertTrue(result.synced());
+        assertEquals(replayed(collector), storedTicks() + result.abandoned(),
+                "Every queued tick is either stored or reported as abandoned");
+    }
+
+    @Test
+    void testSharedWriterKeepsFilesPerKey() throws IOException {
+        Path second = tempDir.resolve("Coinbase_ETHUSD_20250101_000000.csv");
+        CsvStorage storage = new CsvStorage(second.toString());
+        for (int i = 0; i < 1000; i++) {
+            storage.storeTick(new CryptoTick("ETHUSD", 10 + i, 1, 9, 1, 11, 1, 1735689600000L + i));
+        }
+        storage.close();
+
+        System.setProperty(CryptoDataCollector.WRITER_THREADS_PROPERTY, "1");
+        CryptoDataCollector collector = CryptoDataCollector.replay(List.of(recording, second), ReplayCollector.AS_FAST_AS_POSSIBLE);
+        collector.start();
+        for (var client : collector.getClients()) {
+            assertTrue(assertDoesNotThrow(() -> ((ReplayCollector) client).awaitCompletion(30, TimeUnit.SECONDS)));
+        }
+        CryptoDataCollector.ShutdownReport report = collector.stop();
+
+        assertTrue(report.complete(), report.toString());
+        assertEquals(RECORDED_TICKS, storedTicks("Coinbase_BTCUSD"));
+        assertEquals(1000, storedTicks("Coinbase_ETHUSD"));
+    }
+
+    @Test
+    void testPairKeyMatchesCollectorKey() {
+        assertEquals("Coinbase_BTCUSD", CryptoDataCollector.pairKey(new PairConfig("Coinbase", "BTC", null)));
+        assertEquals("Firi_ETHNOK", CryptoDataCollector.pairKey(new PairConfig("Firi", "ETH", "USDC")));
+    }
+
+    @Test
+    void testAddsAndRemovesPairsIndividually() throws IOException {
+        CollectorConfig config = new CollectorConfig();
+        config.addPair(new PairConfig("Firi", "BTC", "USDC"));
+        CryptoDataCollector collector = new CryptoDataCollector(config);
+        assertEquals(Set.of("Firi_BTCNOK"), collector.getPairKeys());
+
+        assertEquals("Coinbase_ETHUSD", collector.addPair(new PairConfig("Coinbase", "ETH", null)));
+        assertEquals(Set.of("Firi_BTCNOK", "Coinbase_ETHUSD"), collector.getPairKeys());
+        assertThrows(IllegalStateException.class, () -> collector.addPair(new PairConfig("Coinbase", "ETH", null)));
+        assertThrows(IllegalArgumentException.class, () -> collector.addPair(new PairConfig("Coinbase", null, null)));
+        assertThrows(IllegalArgumentException.class, () -> collector.addPair(new PairConfig("Coinbase", "BTC", "USDC")),
+                "Coinbase settles in USD without an intermediate");
+
+        CryptoDataCollector.DrainResult removed = collector.removePair("Coinbase_ETHUSD");
+        assertTrue(removed.synced());
+        assertEquals(Set.of("Firi_BTCNOK"), collector.getPairKeys());
+        assertThrows(NoSuchElementException.class, () -> collector.removePair("Coinbase_ETHUSD"));
+
+        CryptoDataCollector.ShutdownReport report = collector.stop();
+        assertEquals(Set.of("Firi_BTCNOK"), report.results().keySet());
+        assertThrows(IllegalStateException.class, () -> collector.addPair(new PairConfig("Coinbase", "ETH", null)));
+    }
+
+    @Test
+    void testRedundantCollectorsShareQueue() throws IOException {
+        CollectorConfig config = new CollectorConfig();
+        PairConfig coinbase = new PairConfig("Coinbase", "BTC", null);
+        coinbase.setReplicas(2);
+        config.addPair(coinbase);
+        CryptoDataCollector collector = new CryptoDataCollector(config);
+        assertEquals(2, collector.getClients().size());
+        assertEquals(Set.of("Coinbase_BTCUSD"), collector.getPairKeys());
+
+        PairConfig firi = new PairConfig("Firi", "BTC", "USDC");
+        firi.setReplicas(2);
+        assertThrows(IllegalArgumentException.class, () -> collector.addPair(firi));
+
+        collector.removePair("Coinbase_BTCUSD");
+        assertTrue(collector.getClients().isEmpty());
+        collector.stop();
+    }
+
+    @Test
+    void testStartsPairsThatCanStartAndDropsTheRest() throws IOException {
+        Path missing = tempDir.resolve("Coinbase_ETHUSD_20250101_000000.csv");
+        CryptoDataCollector collector = CryptoDataCollector.replay(List.of(recording, missing), ReplayCollector.AS_FAST_AS_POSSIBLE);
+        CryptoDataCollector.StartupReport startup = collector.start();
+
+        assertEquals(Set.of("Coinbase_BTCUSD"), startup.started());
+        assertEquals(Set.of("Coinbase_ETHUSD"), startup.failed());
+        assertEquals(Set.of("Coinbase_BTCUSD"), collector.getPairKeys());
+        assertSame(startup, collector.start());
+
+        CryptoDataCollector.ShutdownReport report = collector.stop();
+        assertTrue(report.complete(), report.toString());
+        assertEquals(replayed(collector), storedTicks());
+    }
+
+    @Test
+    void testHangingReplicaIsStoppedAndDropped() throws Exception {
+        try (MockWebServer coinbase = new MockWebServer()) {
+            // Whichever replica connects first is subscribed, the other never gets a handshake response
+            coinbase.enqueue(new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+                @Override
+                public void onMessage(@NotNull WebSocket webSocket, @NotNull String subscribe) {
+                    webSocket.send("{\"channel\": \"subscriptions\", \"sequence_num\": 0, "
+                            + "\"events\": [{\"subscriptions\": {\"ticker\": [\"BTC-USD\"]}}]}");
+                }
+
+                @Override
+                public void onClosing(@NotNull WebSocket webSocket, int code, @NotNull String reason) {
+                    webSocket.close(code, null);
+                }
+            }));
+            coinbase.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+            coinbase.start();
+
+            System.setProperty(ParallelStartup.DEADLINE_MS_PROPERTY, "2000");
+            CollectorConfig config = new CollectorConfig();
+            PairConfig btc = new PairConfig("Coinbase", "BTC", null);
+            btc.setUrl("ws://%s:%d".formatted(coinbase.getHostName(), coinbase.getPort()));
+            btc.setReplicas(2);
+            config.addPair(btc);
+            CryptoDataCollector collector = new CryptoDataCollector(config);
+            List<ExchangeCollector> replicas = List.copyOf(collector.getClients());
+
+            assertEquals(Set.of("Coinbase_BTCUSD"), collector.start().started());
+            assertEquals(1, collector.getClients().size(), "The hanging replica is dropped");
+            ExchangeCollector hanging = replicas.stream()
+                    .filter(replica -> !collector.getClients().contains(replica))
+                    .findFirst().orElseThrow();
+            ExchangeCollector started = collector.getClients().get(0);
+            // The interrupted connect attempt may still be unwinding
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((hanging.getStatus() != ClientStatus.STOPPED || !started.isCollecting())
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Thread.sleep(300);
+            assertEquals(ClientStatus.STOPPED, hanging.getStatus(), "The dropped replica does not reconnect");
+            assertTrue(started.isCollecting());
+
+            assertTrue(collector.stop().complete());
+        }
+    }
+
+    @Test
+    void testPairAddedAfterStartJoinsSharedWriter() throws Exception {
+        try (MockWebServer firi = new MockWebServer()) {
+            firi.setDispatcher(new Dispatcher() {
+                @NotNull
+                @Override
+                public MockResponse dispatch(@NotNull RecordedRequest request) {
+                    String path = String.valueOf(request.getPath());
+                    if (path.endsWith("/depth")) {
+                        return new MockResponse().setBody("{\"bids\": [[100.0, 1.0]], \"asks\": [[101.0, 1.0]]}");
+                    }
+                    if (path.endsWith("/markets/USDCNOK")) {
+                        return new MockResponse().setBody("{\"last\": \"10.0\", \"volume\": \"0\"}");
+                    }
+                    if (path.contains("/markets/")) {
+                        return new MockResponse().setBody("{\"last\": \"100.5\", \"volume\": \"5\"}");
+                    }
+                    return new MockResponse().setBody("[]");
+                }
+            });
+            firi.start();
+            String url = firi.url("/").toString().replaceAll("/$", "");
+
+            System.setProperty(CryptoDataCollector.WRITER_THREADS_PROPERTY, "1");
+            CollectorConfig config = new CollectorConfig();
+            PairConfig btc = new PairConfig("Firi", "BTC", "USDC");
+            btc.setUrl(url);
+            config.addPair(btc);
+            CryptoDataCollector collector = new CryptoDataCollector(config);
+            assertEquals(Set.of("Firi_BTCNOK"), collector.start().started());
+
+            PairConfig eth = new PairConfig("Firi", "ETH", "USDC");
+            eth.setUrl(url);
+            assertEquals("Firi_ETHNOK", collector.addPair(eth));
+            assertTrue(Thread.getAllStackTraces().keySet().stream()
+                            .noneMatch(thread -> thread.getName().startsWith("DataProcessor-")),
+                    "Pairs added after start-up are written by the shared writer");
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (storedTicks("Firi_ETHNOK") == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+
+            CryptoDataCollector.ShutdownReport report = collector.stop();
+            assertTrue(report.complete(), report.toString());
+            assertTrue(storedTicks("Firi_ETHNOK") > 0);
+        }
+    }
+
+    @Test
+    void testTickRingStoresTicksStraightFromSlots() throws Exception {
+        int ticks = 200;
+        try (MockWebServer coinbase = new MockWebServer()) {
+            coinbase.enqueue(new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+                @Override
+                public void onMessage(@NotNull WebSocket webSocket, @NotNull String subscribe) {
+                    webSocket.send("{\"channel\": \"subscriptions\", \"sequence_num\": 0, "
+                            + "\"events\": [{\"subscriptions\": {\"ticker\": [\"BTC-USD\"]}}]}");
+                    for (int i = 1; i <= ticks; i++) {
+                        webSocket.send(("{\"channel\": \"ticker\", \"sequence_num\": %d, \"timestamp\": \"2025-01-01T00:00:00.%03dZ\", "
+                                + "\"events\": [{\"tickers\": [{\"price\": \"%d\", \"volume_24_h\": \"1\", \"best_bid\": \"99\", "
+                                + "\"best_bid_quantity\": \"1\", \"best_ask\": \"101\", \"best_ask_quantity\": \"1\"}]}]}")
+                                .formatted(i, i, 100 + i));
+                    }
+                }
+
+                @Override
+                public void onClosing(@NotNull WebSocket webSocket, int code, @NotNull String reason) {
+                    webSocket.close(code, null);
+                }
+            }));
+            coinbase.start();
+
+            CollectorConfig config = new CollectorConfig();
+            PairConfig btc = new PairConfig("Coinbase", "BTC", null);
+            btc.setUrl("ws://%s:%d".formatted(coinbase.getHostName(), coinbase.getPort()));
+            btc.setTickRing(true);
+            btc.setStorage("binary");
+            config.addPair(btc);
+            CryptoDataCollector collector = new CryptoDataCollector(config);
+
+            PairConfig csv = new PairConfig("Coinbase", "ETH", null);
+            csv.setTickRing(true);
+            csv.setStorage("csv");
+            assertThrows(IllegalArgumentException.class, () -> collector.addPair(csv));
+            PairConfig firi = new PairConfig("Firi", "ETH", "USDC");
+            firi.setTickRing(true);
+            assertThrows(IllegalArgumentException.class, () -> collector.addPair(firi));
+            assertEquals(Set.of("Coinbase_BTCUSD"), collector.getPairKeys());
+
+            assertEquals(Set.of("Coinbase_BTCUSD"), collector.start().started());
+            Path output;
+            try (Stream<Path> files = Files.list(outputDir)) {
+                output = files.filter(file -> file.toString().endsWith(BinaryTickStorage.FILE_SUFFIX)).findFirst().orElseThrow();
+            }
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (Files.size(output) < 4096 + ticks * 80L && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            CryptoDataCollector.ShutdownReport report = collector.stop();
+            assertTrue(report.complete(), report.toString());
+
+            try (BinaryTickReader reader = new BinaryTickReader(output)) {
+                for (int i = 1; i <= ticks; i++) {
+                    CryptoTick tick = reader.next();
+                    assertNotNull(tick, "Tick " + i);
+                    assertEquals(100 + i, tick.price());
+                    assertEquals(1735689600000L + i, tick.timestamp());
+                    assertEquals("BTCUSD", tick.symbol());
+                }
+                assertNull(reader.next());
+            }
+        }
+    }
+}
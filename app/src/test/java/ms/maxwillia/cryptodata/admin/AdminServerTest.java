@@ -0,0 +1,87 @@
+package ms.maxwillia.cryptodata.admin;
+
+import ms.maxwillia.cryptodata.CryptoDataCollector;
+import ms.maxwillia.cryptodata.config.PairConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AdminServerTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private CryptoDataCollector collector;
+    private AdminServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        collector = mock(CryptoDataCollector.class);
+        server = new AdminServer(collector, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:%d%s".formatted(server.getPort(), path)));
+    }
+
+    @Test
+    void testListsAddsAndRemovesPairs() throws Exception {
+        when(collector.getPairKeys()).thenReturn(Set.of("Coinbase_BTCUSD"));
+        HttpResponse<String> list = send(request("/pairs").GET());
+        assertEquals(200, list.statusCode());
+        assertEquals("[\"Coinbase_BTCUSD\"]", list.body());
+
+        when(collector.addPair(any())).thenReturn("Firi_SOLNOK");
+        HttpResponse<String> added = send(request("/pairs").POST(HttpRequest.BodyPublishers.ofString(
+                "{\"exchange\": \"Firi\", \"asset\": \"SOL\", \"intermediate\": \"USDC\", \"transport\": \"rest\", \"pollIntervalMs\": 500}")));
+        assertEquals(201, added.statusCode());
+        assertEquals("{\"key\":\"Firi_SOLNOK\"}", added.body());
+        ArgumentCaptor<PairConfig> pair = ArgumentCaptor.forClass(PairConfig.class);
+        verify(collector).addPair(pair.capture());
+        assertEquals("SOL", pair.getValue().getAsset());
+        assertEquals(PairConfig.Transport.REST, pair.getValue().getTransport());
+        assertEquals(500, pair.getValue().getPollIntervalMs());
+
+        when(collector.removePair("Firi_SOLNOK")).thenReturn(new CryptoDataCollector.DrainResult(3, 0, true));
+        HttpResponse<String> removed = send(request("/pairs/Firi_SOLNOK").DELETE());
+        assertEquals(200, removed.statusCode());
+        assertTrue(removed.body().contains("\"flushed\":3"), removed.body());
+    }
+
+    @Test
+    void testReportsErrorsByStatus() throws Exception {
+        HttpResponse<String> misspelt = send(request("/pairs").POST(HttpRequest.BodyPublishers.ofString(
+                "{\"exchange\": \"Coinbase\", \"aset\": \"SOL\"}")));
+        assertEquals(400, misspelt.statusCode());
+        verify(collector, never()).addPair(any());
+
+        when(collector.addPair(any())).thenThrow(new IllegalStateException("Coinbase_BTCUSD is already configured"));
+        HttpResponse<String> duplicate = send(request("/pairs").POST(HttpRequest.BodyPublishers.ofString(
+                "{\"exchange\": \"Coinbase\", \"asset\": \"BTC\"}")));
+        assertEquals(409, duplicate.statusCode());
+        assertTrue(duplicate.body().contains("already configured"));
+
+        when(collector.removePair("Coinbase_XRPUSD")).thenThrow(new NoSuchElementException("Coinbase_XRPUSD is not configured"));
+        assertEquals(404, send(request("/pairs/Coinbase_XRPUSD").DELETE()).statusCode());
+        assertEquals(405, send(request("/pairs").DELETE()).statusCode());
+    }
+}
@@ -0,0 +1,184 @@
+package ms.maxwillia.cryptodata.client.collector.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ms.maxwillia.cryptodata.client.ClientStatus;
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.storage.CsvStorage;
+import ms.maxwillia.cryptodata.storage.CsvTickReader;
+import ms.maxwillia.cryptodata.storage.RawFrameCapture;
+import ms.maxwillia.cryptodata.storage.RawFrameReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayCollectorTest {
+    private static final long START_TIME = 1700000000000L;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    private Path recording;
+    private List<CryptoTick> recorded;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        recording = tempDir.resolve("Firi_BTCNOK_20250101_120000.csv");
+        recorded = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            recorded.add(new CryptoTick("BTCUSDC", 1000.0 + i, 11.5, 0.5 + i, 1.2, 11.6 + i, START_TIME + i * 50L, 1100000.0 + i, 11.0));
+        }
+        CsvStorage storage = new CsvStorage(recording.toString());
+        recorded.subList(0, 10).forEach(storage::storeTick);
+        storage.close();
+        // Reopening appends a second header mid-file
+        storage = new CsvStorage(recording.toString());
+        recorded.subList(10, 20).forEach(storage::storeTick);
+        storage.close();
+    }
+
+    @Test
+    void testCsvTickReaderRoundTrip() throws IOException {
+        try (CsvTickReader reader = new CsvTickReader(recording)) {
+            for (CryptoTick expected : recorded) {
+                CryptoTick actual = reader.next();
+                assertNotNull(actual);
+                assertEquals(expected.symbol(), actual.symbol());
+                assertEquals(expected.price(), actual.price(), 1e-8);
+                assertEquals(expected.best_ask(), actual.best_ask(), 1e-8);
+                assertEquals(expected.timestamp(), actual.timestamp(), 1e-8);
+                assertEquals(expected.intermediateRate(), actual.intermediateRate(), 1e-8);
+            }
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testReplayAsFastAsPossibleIsDeterministic() throws Exception {
+        // A queue smaller than the recording must block the replay rather than drop ticks
+        LinkedBlockingQueue<CryptoTick> queue = new LinkedBlockingQueue<>(5);
+        ReplayCollector collector = new ReplayCollector(recording, ReplayCollector.AS_FAST_AS_POSSIBLE, queue);
+        assertEquals("Firi", collector.getExchangeName());
+        assertEquals("BTCNOK", collector.getTradePair());
+        assertTrue(collector.initialize());
+        assertTrue(collector.startDataCollection());
+
+        List<CryptoTick> replayed = new ArrayList<>();
+        while (replayed.size() < recorded.size()) {
+            CryptoTick tick = queue.poll(1, TimeUnit.SECONDS);
+            assertNotNull(tick, "Replay stalled after " + replayed.size() + " ticks");
+            replayed.add(tick);
+        }
+        assertTrue(collector.awaitCompletion(1, TimeUnit.SECONDS));
+        assertEquals(ClientStatus.STOPPED, collector.getStatus());
+        assertEquals(recorded.size(), collector.getTicksReplayed());
+        for (int i = 0; i < recorded.size(); i++) {
+            assertEquals(recorded.get(i).timestamp(), replayed.get(i).timestamp(), 1e-8);
+        }
+    }
+
+    @Test
+    void testReplayPacedByRecordedTimestamps() throws Exception {
+        // 20 ticks recorded 50 ms apart span 950 ms, so 5x replay should take around 190 ms
+        LinkedBlockingQueue<CryptoTick> queue = new LinkedBlockingQueue<>();
+        ReplayCollector collector = new ReplayCollector(recording, 5.0, queue);
+        assertTrue(collector.initialize());
+        long start = System.nanoTime();
+        assertTrue(collector.startDataCollection());
+        assertTrue(collector.awaitCompletion(5, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(recorded.size(), queue.size());
+        assertTrue(elapsedMs >= 180, "Replay finished too quickly: " + elapsedMs + " ms");
+        assertTrue(elapsedMs < 2000, "Replay finished too slowly: " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testReplayRawCoinbaseFrames() throws Exception {
+        JsonNode testData = objectMapper.readTree(Path.of("src/test/resources/websocket/coinbase-ws-test-data.json").toFile());
+        JsonNode messages = testData.get("validMessages");
+        try (RawFrameCapture capture = new RawFrameCapture(tempDir, "Coinbase_BTCUSD",
+                RawFrameTickReader.metadata("Coinbase", "BTC", null))) {
+            capture.capture("ws", Files.readString(Path.of("src/test/resources/cb_subscriptions_btcusd.json")));
+            capture.capture("ws", messages.get("singleTicker").toString());
+            // Duplicate sequence numbers are dropped on replay exactly as they were live
+            capture.capture("ws", messages.get("duplicateSequence").toString());
+            capture.capture("ws", messages.get("newSequence").toString());
+        }
+        List<Path> segments;
+        try (var files = Files.list(tempDir)) {
+            segments = files.filter(file -> file.toString().endsWith(RawFrameCapture.FILE_SUFFIX)).toList();
+        }
+
+        LinkedBlockingQueue<CryptoTick> queue = new LinkedBlockingQueue<>();
+        ReplayCollector collector = new ReplayCollector(segments, ReplayCollector.AS_FAST_AS_POSSIBLE, queue);
+        assertEquals("BTCUSD", collector.getTradePair());
+        assertTrue(collector.initialize());
+        assertTrue(collector.startDataCollection());
+        assertTrue(collector.awaitCompletion(1, TimeUnit.SECONDS));
+
+        assertEquals(2, queue.size());
+        CryptoTick first = queue.poll();
+        assertEquals("BTCUSD", first.symbol());
+        assertEquals(45000.0, first.price());
+        assertEquals(java.time.Instant.parse("2024-01-04T12:00:00.000Z").toEpochMilli(), first.timestamp());
+        assertEquals(45003.0, queue.poll().price());
+    }
+
+    @Test
+    void testReplayRawFiriFrames() throws Exception {
+        Path segment;
+        try (RawFrameCapture capture = new RawFrameCapture(tempDir, "Firi_BTCNOK",
+                RawFrameTickReader.metadata("Firi", "BTC", "USDC"))) {
+            capture.capture("rate", "{\"id\":\"USDCNOK\",\"last\":\"10.0\"}");
+            capture.capture("depth", "{\"bids\":[[\"990000\",\"0.5\"]],\"asks\":[[\"1010000\",\"0.25\"]]}");
+            capture.capture("market", "{\"id\":\"BTCNOK\",\"last\":\"1000000\",\"volume\":\"12.5\"}");
+            segment = capture.getCurrentSegment();
+        }
+        long depthReceivedAt;
+        try (RawFrameReader reader = new RawFrameReader(segment)) {
+            reader.next();
+            depthReceivedAt = reader.next().receivedAt();
+        }
+
+        LinkedBlockingQueue<CryptoTick> queue = new LinkedBlockingQueue<>();
+        ReplayCollector collector = new ReplayCollector(segment, ReplayCollector.AS_FAST_AS_POSSIBLE, queue);
+        assertTrue(collector.initialize());
+        assertTrue(collector.startDataCollection());
+        assertTrue(collector.awaitCompletion(1, TimeUnit.SECONDS));
+
+        CryptoTick tick = queue.poll();
+        assertNotNull(tick);
+        assertEquals("BTCUSDC", tick.symbol());
+        assertEquals(100000.0, tick.price(), 1e-8);
+        assertEquals(99000.0, tick.best_bid(), 1e-8);
+        assertEquals(101000.0, tick.best_ask(), 1e-8);
+        assertEquals(10.0, tick.intermediateRate());
+        assertEquals(depthReceivedAt, tick.timestamp());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void testStopInterruptsReplay() throws Exception {
+        LinkedBlockingQueue<CryptoTick> queue = new LinkedBlockingQueue<>();
+        ReplayCollector collector = new ReplayCollector(recording, 0.01, queue);
+        assertTrue(collector.initialize());
+        assertTrue(collector.startDataCollection());
+        Thread.sleep(100);
+        collector.stopDataCollection();
+        assertTrue(collector.awaitCompletion(1, TimeUnit.SECONDS));
+        assertFalse(collector.isCollecting());
+        assertTrue(queue.size() < recorded.size());
+    }
+}
@@ -3,7 +3,12 @@ package ms.maxwillia.cryptodata.client.collector.rest;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import ms.maxwillia.cryptodata.client.ClientStatus;
+import ms.maxwillia.cryptodata.fx.FxRateService;
 import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.RawFrame;
+import ms.maxwillia.cryptodata.model.SymbolRegistry;
+import ms.maxwillia.cryptodata.storage.RawFrameCapture;
+import ms.maxwillia.cryptodata.storage.RawFrameReader;
 import ms.maxwillia.cryptodata.utils.ReflectionTestUtils;
 import okhttp3.OkHttpClient;
 import okhttp3.mockwebserver.Dispatcher;
@@ -14,12 +19,20 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +45,7 @@ class FiriRestClientTest {
     private FiriRestCollector client;
     private BlockingQueue<CryptoTick> dataQueue;
     private JsonNode testData;
+    private final AtomicInteger rateRequests = new AtomicInteger();
 
     @BeforeEach
     void setUp() throws IOException {
@@ -95,8 +109,17 @@ class FiriRestClientTest {
                                 .setBody(testData.get("invalidResponses").get("malformed").get("depth").toString());
                     }
 
+                    // USDC/NOK order book, for the rate stream
+                    if (path.contains("/USDCNOK/depth")) {
+                        return new MockResponse()
+                                .setResponseCode(200)
+                                .setHeader("Content-Type", "application/json")
+                                .setBody(testData.get("validResponses").get("USDCNOK").get("depth").toString());
+                    }
+
                     // USDC/NOK rate endpoint
                     if (path.contains("markets/USDCNOK")) {
+                        rateRequests.incrementAndGet();
                         return new MockResponse()
                                 .setResponseCode(200)
                                 .setHeader("Content-Type", "application/json")
@@ -216,4 +239,114 @@ class FiriRestClientTest {
         // Verify no data was added to queue due to malformed data
         assertNull(dataQueue.poll());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFixedPointTicksAreRoundedQuotients() throws Exception {
+        client.setFixedPoint(true);
+        assertTrue(client.initialize());
+        assertTrue(client.startDataCollection());
+
+        CryptoTick tick = dataQueue.poll(5, TimeUnit.SECONDS);
+        assertNotNull(tick);
+        BigDecimal rate = new BigDecimal("11.47");
+        assertEquals(new BigDecimal("1087211.42").divide(rate, 2, RoundingMode.HALF_EVEN).doubleValue(), tick.price());
+        assertEquals(new BigDecimal("450000.0").divide(rate, 2, RoundingMode.HALF_EVEN).doubleValue(), tick.best_bid());
+        assertEquals(new BigDecimal("451000.0").divide(rate, 2, RoundingMode.HALF_EVEN).doubleValue(), tick.best_ask());
+        assertEquals(1087211.42, tick.nativePrice());
+        assertEquals(11.47, tick.intermediateRate());
+        assertEquals(12.76, tick.volume_24_h());
+        assertTrue(tick.rateAgeMs() >= 0);
+    }
+
+    @Test
+    void testRegistersOnlyItsNokPairs() {
+        assertEquals(-1, SymbolRegistry.idOf("Firi", "BTCUSD"), "No pair in the default settlement currency");
+        assertEquals(client.getTradePairId(), SymbolRegistry.idOf("Firi", "BTCNOK"));
+        assertEquals(client.getIntermediatePairId(), SymbolRegistry.idOf("Firi", "BTCUSDC"));
+    }
+
+    @Test
+    void testCollectorsShareIntermediateRate() {
+        FiriRestCollector second = new FiriRestCollector(TEST_CURRENCY, "USDC", new LinkedBlockingQueue<>());
+        second.setBaseUrl(client.getBaseUrl());
+        try {
+            assertTrue(client.initialize());
+            assertTrue(second.initialize());
+            assertEquals(1, rateRequests.get(), "Rate is fetched once for both collectors");
+        } finally {
+            second.stopDataCollection();
+        }
+    }
+
+    @Test
+    void testSharedRateIsCapturedAsReceived(@TempDir Path captureDir) throws IOException {
+        FiriRestCollector second = new FiriRestCollector(TEST_CURRENCY, "USDC", new LinkedBlockingQueue<>());
+        second.setBaseUrl(client.getBaseUrl());
+        RawFrameCapture capture = new RawFrameCapture(captureDir, "Firi_BTCNOK", Map.of());
+        second.setRawFrameCapture(capture);
+        try {
+            assertTrue(client.initialize());
+            assertTrue(second.initialize());
+        } finally {
+            second.stopDataCollection();
+            capture.close();
+        }
+
+        List<RawFrame> frames = new ArrayList<>();
+        try (RawFrameReader reader = new RawFrameReader(Files.list(captureDir).findFirst().orElseThrow())) {
+            RawFrame frame;
+            while ((frame = reader.next()) != null) {
+                frames.add(frame);
+            }
+        }
+        assertEquals(1, frames.size());
+        assertEquals(FiriRestCollector.RATE_SOURCE, frames.getFirst().source());
+        assertEquals(testData.get("validResponses").get("USDCNOK").get("/").toString(), frames.getFirst().payload(),
+                "The collector that did not fetch the rate records the response it was read from");
+    }
+
+    @Test
+    void testOnlyRateStreamsPublishTheirPrice() {
+        FiriRestCollector direct = new FiriRestCollector("USDC", null, new LinkedBlockingQueue<>());
+        direct.setBaseUrl(client.getBaseUrl());
+        try {
+            assertTrue(direct.initialize());
+            assertTrue(FxRateService.sharedServices().stream().noneMatch(rates -> rates.getName().equals("Firi USDCNOK")),
+                    "A NOK pair that is not a rate stream shares no rate");
+        } finally {
+            direct.stopDataCollection();
+        }
+    }
+
+    @Test
+    void testRateStreamUpdatesSharedRate() throws Exception {
+        BlockingQueue<CryptoTick> rateQueue = new LinkedBlockingQueue<>();
+        FiriRestCollector rateStream = new FiriRestCollector("USDC", null, rateQueue);
+        rateStream.setBaseUrl(client.getBaseUrl());
+        rateStream.setRateStream(true);
+        try {
+            assertTrue(rateStream.initialize());
+            assertTrue(client.initialize());
+            assertTrue(rateStream.startDataCollection());
+
+            CryptoTick rateTick = rateQueue.poll(5, TimeUnit.SECONDS);
+            assertNotNull(rateTick);
+            assertEquals("USDCNOK", rateTick.symbol());
+            assertEquals(11.47, rateTick.price());
+            assertEquals(11.46, rateTick.best_bid());
+            assertEquals(CryptoTick.NO_RATE_AGE, rateTick.rateAgeMs());
+            assertTrue(FxRateService.sharedServices().stream()
+                            .filter(rates -> rates.getName().equals("Firi USDCNOK") && rates.get() != null)
+                            .anyMatch(rates -> rates.get().updatedAt() >= (long) rateTick.timestamp()),
+                    "The stream's prices update the rate shared with converting collectors");
+
+            assertTrue(client.startDataCollection());
+            CryptoTick tick = dataQueue.poll(5, TimeUnit.SECONDS);
+            assertNotNull(tick);
+            assertEquals(11.47, tick.intermediateRate());
+            assertTrue(tick.rateAgeMs() >= 0, "Converted ticks record the age of their rate");
+        } finally {
+            rateStream.stopDataCollection();
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.pipeline.OffHeapTickRing;
 import ms.maxwillia.cryptodata.utils.ReflectionTestUtils;
 
 
@@ -109,6 +110,23 @@ class CoinbaseWebSocketClientTest {
         assertEquals(2.0, tick.best_ask_quantity());
     }
 
+    @Test
+    void testTickRingTakesTicksInsteadOfQueue() throws JsonProcessingException {
+        OffHeapTickRing ring = new OffHeapTickRing(4);
+        client.setTickRing(ring);
+        client.connect();
+        client.subscribeToMarketData();
+        client.handleMessage(objectMapper.writeValueAsString(
+                testData.get("subscriptionMessages").get("subscribeResponse")));
+        client.handleMessage(objectMapper.writeValueAsString(testData.get("validMessages").get("singleTicker")));
+
+        assertTrue(dataQueue.isEmpty());
+        CryptoTick tick = ring.poll();
+        assertNotNull(tick);
+        assertEquals(new CryptoTick(client.getTradePairId(), 45000.00, 1000.5, 44999.00, 1.5, 45001.00, 2.0,
+                1704369600000L, 45000.00, 1.0, CryptoTick.NO_RATE_AGE), tick);
+    }
+
     @Test
     void testInvalidMessages() throws JsonProcessingException {
         Method handleMessage = ReflectionTestUtils.getMethod(
@@ -88,10 +88,10 @@ class CoinbaseTraderTest {
         coinbaseTrader.initialize();
         coinbaseTrader.connect();
         var transaction = coinbaseTrader.marketBuy(0.01);
-        assert coinbaseTrader.getTransactions().size() == 1;
-        assert coinbaseTrader.getTransactions().getFirst().getStatus() == TransactionStatus.CREATED;
-        assert coinbaseTrader.getTransactions().getFirst().getSide() == TransactionSide.BUY;
-        assert coinbaseTrader.getTransactions().getFirst().getOrderType() == TransactionType.MARKET;
+        assert coinbaseTrader.getRecentTransactions().size() == 1;
+        assert coinbaseTrader.getRecentTransactions().getFirst().getStatus() == TransactionStatus.CREATED;
+        assert coinbaseTrader.getRecentTransactions().getFirst().getSide() == TransactionSide.BUY;
+        assert coinbaseTrader.getRecentTransactions().getFirst().getOrderType() == TransactionType.MARKET;
         assert transaction.get(0).getStatus() == TransactionStatus.CREATED;
     }
 
@@ -100,10 +100,10 @@ class CoinbaseTraderTest {
         coinbaseTrader.initialize();
         coinbaseTrader.connect();
         var transaction = coinbaseTrader.marketSell(0.01);
-        assert coinbaseTrader.getTransactions().size() == 1;
-        assert coinbaseTrader.getTransactions().getFirst().getStatus() == TransactionStatus.CREATED;
-        assert coinbaseTrader.getTransactions().getFirst().getSide() == TransactionSide.SELL;
-        assert coinbaseTrader.getTransactions().getFirst().getOrderType() == TransactionType.MARKET;
+        assert coinbaseTrader.getRecentTransactions().size() == 1;
+        assert coinbaseTrader.getRecentTransactions().getFirst().getStatus() == TransactionStatus.CREATED;
+        assert coinbaseTrader.getRecentTransactions().getFirst().getSide() == TransactionSide.SELL;
+        assert coinbaseTrader.getRecentTransactions().getFirst().getOrderType() == TransactionType.MARKET;
         assert transaction.get(0).getStatus() == TransactionStatus.CREATED;
     }
 
@@ -113,8 +113,8 @@ class CoinbaseTraderTest {
         coinbaseTrader.connect();
         var transaction = coinbaseTrader.marketBuy(0.01);
         coinbaseTrader.marketBuy(0.01);
-        assert coinbaseTrader.getTransactions().size() == 2;
-        assert coinbaseTrader.getTransactions().stream()
+        assert coinbaseTrader.getRecentTransactions().size() == 2;
+        assert coinbaseTrader.getRecentTransactions().stream()
                 .allMatch(t -> t.getStatus() == TransactionStatus.CREATED);
         assert transaction.get(0).getStatus() == TransactionStatus.CREATED;
     }
@@ -129,8 +129,8 @@ class CoinbaseTraderTest {
         coinbaseTrader.disablePreviewTrading();
         coinbaseTrader.connect();
         var transaction = coinbaseTrader.marketBuy(0.01, SUCCESS_CLIENT_ORDER_ID);
-        assert coinbaseTrader.getTransactions().size() == 1;
-        assert coinbaseTrader.getTransactions().getFirst().getStatus().equals(TransactionStatus.REQUESTED);
+        assert coinbaseTrader.getRecentTransactions().size() == 1;
+        assert coinbaseTrader.getRecentTransactions().getFirst().getStatus().equals(TransactionStatus.REQUESTED);
         assert transaction.getFirst().getStatus().equals(TransactionStatus.REQUESTED);
         assert transaction.getFirst().getResponse() != null;
         assert transaction.getFirst().getExchangeId().equals("11111-00000-000000");
@@ -143,8 +143,8 @@ class CoinbaseTraderTest {
         coinbaseTrader.disablePreviewTrading();
         coinbaseTrader.connect();
         var transaction = coinbaseTrader.marketBuy(0.01, FAIL_CLIENT_ORDER_ID);
-        assert coinbaseTrader.getTransactions().size() == 1;
-        assert coinbaseTrader.getTransactions().getFirst().getStatus().equals(TransactionStatus.REQUEST_ERROR);
+        assert coinbaseTrader.getRecentTransactions().size() == 1;
+        assert coinbaseTrader.getRecentTransactions().getFirst().getStatus().equals(TransactionStatus.REQUEST_ERROR);
         assert transaction.getFirst().getStatus().equals(TransactionStatus.REQUEST_ERROR);
         assert transaction.getFirst().getResponse() != null;
         assert transaction.getFirst().getId().equals(FAIL_CLIENT_ORDER_ID);
@@ -157,7 +157,7 @@ class CoinbaseTraderTest {
         coinbaseTrader.enablePreviewTrading();
         coinbaseTrader.connect();
         var transaction = coinbaseTrader.marketBuy(SUCCESS_PREVIEW_QUOTE_SIZE, "1111-11111-111111");
-        assert coinbaseTrader.getTransactions().size() == 1;
+        assert coinbaseTrader.getRecentTransactions().size() == 1;
         assert transaction.getFirst().getStatus().equals(TransactionStatus.PREVIEW_SUCCESS);
         assert transaction.getFirst().isPreview();
         assert transaction.getFirst().getResponse() != null;
@@ -171,7 +171,7 @@ class CoinbaseTraderTest {
         coinbaseTrader.enablePreviewTrading();
         coinbaseTrader.connect();
         var transaction = coinbaseTrader.marketBuy(ERRORS_PREVIEW_QUOTE_SIZE, "1111-11111-111111");
-        assert coinbaseTrader.getTransactions().size() == 1;
+        assert coinbaseTrader.getRecentTransactions().size() == 1;
         assert transaction.getFirst().isPreview();
         assert transaction.getFirst().getStatus().equals(TransactionStatus.PREVIEW_ERROR);
         assert transaction.getFirst().getResponse() != null;
@@ -185,7 +185,7 @@ class CoinbaseTraderTest {
         coinbaseTrader.enablePreviewTrading();
         coinbaseTrader.connect();
         var transaction = coinbaseTrader.marketBuy(WARNINGS_PREVIEW_QUOTE_SIZE, "1111-11111-111111");
-        assert coinbaseTrader.getTransactions().size() == 1;
+        assert coinbaseTrader.getRecentTransactions().size() == 1;
         assert transaction.getFirst().isPreview();
         assert transaction.getFirst().getStatus().equals(TransactionStatus.PREVIEW_WARNING);
         assert transaction.getFirst().getResponse() != null;
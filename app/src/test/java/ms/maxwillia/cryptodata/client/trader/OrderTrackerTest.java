@@ -0,0 +1,144 @@
+package ms.maxwillia.cryptodata.client.trader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ms.maxwillia.cryptodata.config.ExchangeCredentials;
+import ms.maxwillia.cryptodata.model.Transaction;
+import ms.maxwillia.cryptodata.model.TransactionSide;
+import ms.maxwillia.cryptodata.model.TransactionStatus;
+import ms.maxwillia.cryptodata.model.TransactionType;
+import ms.maxwillia.cryptodata.utils.ReflectionTestUtils;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderTrackerTest {
+    private static final Path TEST_DATA_ROOT = Path.of("src/test/resources/rest").toAbsolutePath();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private MockWebServer mockWebServer;
+    private CoinbaseTrader trader;
+    private JsonNode testData;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testData = objectMapper.readTree(TEST_DATA_ROOT.resolve("coinbase-orders-test-data.json").toFile());
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        ExchangeCredentials credentials = ExchangeCredentials.loadFromFile(Path.of("src/test/resources/config/ec_private_key.json").toAbsolutePath());
+        trader = new CoinbaseTrader("BTC", null, credentials);
+        trader.setApiRoot(mockWebServer.url("/api/v3"));
+        assertTrue(trader.initialize());
+        ReflectionTestUtils.setField(trader, "isConnected", true);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        trader.getOrderTracker().stop();
+        mockWebServer.shutdown();
+    }
+
+    private Transaction requestedTransaction(String clientOrderId, String orderId, ZonedDateTime createdTime) {
+        Transaction transaction = Transaction.builder()
+                .id(clientOrderId)
+                .exchangeId(orderId)
+                .exchange("Coinbase")
+                .currency("BTCUSDC")
+                .orderType(TransactionType.MARKET)
+                .side(TransactionSide.BUY)
+                .price(50000.0)
+                .quantity(0.001)
+                .createdTime(createdTime)
+                .status(TransactionStatus.REQUESTED)
+                .build();
+        trader.addTransaction(transaction);
+        return transaction;
+    }
+
+    private void enqueueOrders(String key) {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setHeader("Content-Type", "application/json")
+                .setBody(testData.get("validResponses").get(key).toString()));
+    }
+
+    @Test
+    void testNoRequestWithoutOutstandingOrders() {
+        assertEquals(0, trader.getOrderTracker().poll());
+        assertEquals(0, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testFilledOrderUpdatesTransaction() throws Exception {
+        Transaction transaction = requestedTransaction("1111-11111-111111", "0000-000000-000001",
+                ZonedDateTime.parse("2025-01-01T12:00:00Z"));
+        enqueueOrders("filled");
+
+        OrderTracker tracker = trader.getOrderTracker();
+        assertEquals(1, tracker.poll());
+
+        RecordedRequest request = mockWebServer.takeRequest(1, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertTrue(request.getPath().contains("/brokerage/orders/historical/batch"));
+        assertTrue(request.getPath().contains("order_ids=0000-000000-000001"));
+        assertTrue(request.getHeader("Authorization").startsWith("Bearer"));
+
+        assertEquals(TransactionStatus.EXECUTED, transaction.getStatus());
+        assertEquals(0.001, transaction.getFilledQuantity());
+        assertEquals(50000.0, transaction.getFilledPrice());
+        assertEquals(0.30, transaction.getFee());
+        assertEquals(2, transaction.getFillCount());
+        assertEquals(1, tracker.getFilledOrders());
+        assertEquals(1500, tracker.getMaxTimeToFillMs());
+        assertTrue(trader.getOutstandingTransactions().isEmpty());
+    }
+
+    @Test
+    void testAverageTimeToFillSkipsUntimedFills() {
+        requestedTransaction("1111-11111-111111", "0000-000000-000001", ZonedDateTime.parse("2025-01-01T12:00:00Z"));
+        enqueueOrders("filled");
+        OrderTracker tracker = trader.getOrderTracker();
+        tracker.poll();
+
+        // Recovered without its creation time, so its time to fill is unknown
+        requestedTransaction("4444-44444-444444", "0000-000000-000001", null);
+        enqueueOrders("filled");
+        tracker.poll();
+
+        assertEquals(2, tracker.getFilledOrders());
+        assertEquals(1500, tracker.getAverageTimeToFillMs());
+    }
+
+    @Test
+    void testOutstandingOrdersAreBatched() throws Exception {
+        Transaction open = requestedTransaction("2222-22222-222222", "0000-000000-000002", ZonedDateTime.now());
+        Transaction cancelled = requestedTransaction("3333-33333-333333", "0000-000000-000003", ZonedDateTime.now());
+        enqueueOrders("open");
+
+        OrderTracker tracker = trader.getOrderTracker();
+        assertEquals(1, tracker.poll());
+        assertEquals(1, mockWebServer.getRequestCount());
+
+        RecordedRequest request = mockWebServer.takeRequest(1, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertTrue(request.getPath().contains("0000-000000-000002"));
+        assertTrue(request.getPath().contains("0000-000000-000003"));
+
+        assertEquals(TransactionStatus.REQUESTED, open.getStatus());
+        assertEquals(0.0005, open.getFilledQuantity());
+        assertEquals(1, open.getFillCount());
+        assertEquals(TransactionStatus.EXECUTION_ERROR, cancelled.getStatus());
+        assertEquals(1, tracker.getFailedOrders());
+        assertEquals(1, trader.getOutstandingTransactions().size());
+    }
+}
@@ -0,0 +1,62 @@
+package ms.maxwillia.cryptodata.client.trader;
+
+import ms.maxwillia.cryptodata.model.Transaction;
+import ms.maxwillia.cryptodata.model.TransactionSide;
+import ms.maxwillia.cryptodata.model.TransactionStatus;
+import ms.maxwillia.cryptodata.model.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraderFactoryTest {
+    private static final String API_KEY_PATH = "src/test/resources/config/ec_private_key.json";
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty(TraderFactory.JOURNAL_DIR_PROPERTY, tempDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(TraderFactory.JOURNAL_DIR_PROPERTY);
+    }
+
+    @Test
+    void testRestartedTraderRecoversOpenTransactions() throws IOException {
+        BaseExchangeTrader trader = (BaseExchangeTrader) TraderFactory.createTrader("Coinbase", "BTC", null, API_KEY_PATH);
+        assertTrue(trader.getTransactionJournal().isPersistent());
+        trader.addTransaction(Transaction.builder()
+                .id("open-order")
+                .exchangeId("exchange-open-order")
+                .exchange("Coinbase")
+                .currency("BTCUSDC")
+                .orderType(TransactionType.MARKET)
+                .side(TransactionSide.BUY)
+                .price(50000.0)
+                .quantity(0.001)
+                .createdTime(ZonedDateTime.now())
+                .status(TransactionStatus.REQUESTED)
+                .build());
+        // Stands in for a crash: nothing but the journal survives
+        trader.getTransactionJournal().close();
+        assertTrue(Files.exists(tempDir.resolve("Coinbase_BTCUSDC.jsonl")));
+
+        BaseExchangeTrader restarted = (BaseExchangeTrader) TraderFactory.createTrader("Coinbase", "BTC", null, API_KEY_PATH);
+        List<Transaction> outstanding = restarted.getOutstandingTransactions();
+        assertEquals(1, outstanding.size(), "The open order is reconciled with the exchange after the restart");
+        assertEquals("exchange-open-order", outstanding.getFirst().getExchangeId());
+        restarted.getTransactionJournal().close();
+    }
+}
@@ -0,0 +1,45 @@
+package ms.maxwillia.cryptodata.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+    private static List<String> keys() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            keys.add("Exchange%d_ASSET%dUSD".formatted(i % 3, i));
+        }
+        return keys;
+    }
+
+    @Test
+    void testSpreadsKeysAcrossShards() {
+        ConsistentHashRing ring = new ConsistentHashRing(3, 128);
+        int[] counts = new int[3];
+        for (String key : keys()) {
+            counts[ring.owner(key, shard -> true)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 700 && count < 1300, "Uneven spread: " + count);
+        }
+        assertEquals(-1, ring.owner("Coinbase_BTCUSD", shard -> false));
+    }
+
+    @Test
+    void testOnlyKeysOfDeadShardMove() {
+        ConsistentHashRing ring = new ConsistentHashRing(3, 128);
+        for (String key : keys()) {
+            int before = ring.owner(key, shard -> true);
+            int after = ring.owner(key, shard -> shard != 1);
+            if (before == 1) {
+                assertNotEquals(1, after);
+            } else {
+                assertEquals(before, after, "Keys of live shards stay put");
+            }
+        }
+    }
+}
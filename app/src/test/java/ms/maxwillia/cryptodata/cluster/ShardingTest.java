@@ -0,0 +1,72 @@
+package ms.maxwillia.cryptodata.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardingTest {
+    @TempDir
+    Path leaseDir;
+
+    private static List<String> keys() {
+        List<String> keys = new ArrayList<>();
+        for (String asset : new String[]{"BTC", "ETH", "SOL", "ADA", "XRP", "DOT", "LTC", "LINK"}) {
+            keys.add("Coinbase_" + asset + "USD");
+            keys.add("Firi_" + asset + "NOK");
+        }
+        return keys;
+    }
+
+    @Test
+    void testLiveShardsSplitKeysBetweenThem() {
+        try (Sharding first = new Sharding(2, 0, leaseDir, 60_000);
+             Sharding second = new Sharding(2, 1, leaseDir, 60_000)) {
+            first.renew();
+            second.renew();
+
+            Set<String> firstKeys = first.ownedKeys(keys());
+            Set<String> secondKeys = second.ownedKeys(keys());
+            assertFalse(firstKeys.isEmpty());
+            assertFalse(secondKeys.isEmpty());
+            Set<String> all = new HashSet<>(firstKeys);
+            all.addAll(secondKeys);
+            assertEquals(keys().size(), all.size());
+            assertEquals(keys().size(), firstKeys.size() + secondKeys.size(), "Each key has one owner");
+        }
+    }
+
+    @Test
+    void testTakesOverKeysWhenLeaseLapsesOrIsReleased() throws InterruptedException {
+        try (Sharding first = new Sharding(2, 0, leaseDir, 60_000)) {
+            first.renew();
+            // Short lease that the second instance stops renewing, as if its process died
+            Sharding second = new Sharding(2, 1, leaseDir, 50);
+            second.renew();
+            assertEquals(Set.of(0, 1), first.liveShards());
+            Thread.sleep(100);
+            assertEquals(Set.of(0), first.liveShards());
+            assertEquals(keys().size(), first.ownedKeys(keys()).size());
+
+            // Comes back, and takes its keys back
+            Sharding restarted = new Sharding(2, 1, leaseDir, 60_000);
+            restarted.renew();
+            assertTrue(first.ownedKeys(keys()).size() < keys().size());
+
+            restarted.close();
+            assertEquals(keys().size(), first.ownedKeys(keys()).size(), "Released without waiting for expiry");
+        }
+    }
+
+    @Test
+    void testRejectsInvalidShard() {
+        assertThrows(IllegalArgumentException.class, () -> new Sharding(2, 2, leaseDir, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new Sharding(0, 0, leaseDir, 1000));
+    }
+}
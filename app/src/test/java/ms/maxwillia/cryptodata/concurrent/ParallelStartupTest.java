@@ -0,0 +1,44 @@
+package ms.maxwillia.cryptodata.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelStartupTest {
+    private static boolean start(String client) {
+        try {
+            Thread.sleep(switch (client) {
+                case "stuck" -> 60_000;
+                default -> 200;
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return switch (client) {
+            case "failing" -> false;
+            case "throwing" -> throw new IllegalStateException("Connection refused");
+            default -> true;
+        };
+    }
+
+    @Test
+    void testStartsConcurrentlyAndReportsEachOutcome() {
+        List<String> clients = List.of("first", "second", "third", "failing", "throwing", "stuck");
+        long start = System.nanoTime();
+        Map<String, ParallelStartup.Outcome> outcomes = ParallelStartup.run(clients, ParallelStartupTest::start,
+                1000, ExecutionMode.PLATFORM);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(clients, List.copyOf(outcomes.keySet()));
+        assertEquals(ParallelStartup.Outcome.STARTED, outcomes.get("first"));
+        assertEquals(ParallelStartup.Outcome.STARTED, outcomes.get("third"));
+        assertEquals(ParallelStartup.Outcome.FAILED, outcomes.get("failing"));
+        assertEquals(ParallelStartup.Outcome.FAILED, outcomes.get("throwing"));
+        assertEquals(ParallelStartup.Outcome.TIMED_OUT, outcomes.get("stuck"));
+        assertTrue(elapsedMs < 5000, "Returns at the deadline rather than waiting for the stuck client: " + elapsedMs);
+    }
+}
@@ -0,0 +1,73 @@
+package ms.maxwillia.cryptodata.config;
+
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import ms.maxwillia.cryptodata.pipeline.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectorConfigTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLoadMergesPairSettingsOverDefaults() throws IOException {
+        CollectorConfig config = CollectorConfig.loadFromFile(Path.of("src/test/resources/config/collector.json").toAbsolutePath());
+        assertEquals(2, config.getPairs().size());
+
+        PairConfig coinbase = config.getPairs().get(0);
+        assertEquals(PairConfig.Transport.WEBSOCKET, coinbase.getTransport());
+        KeySettings coinbaseSettings = config.settingsFor(coinbase);
+        assertEquals("binary", coinbaseSettings.getStorage());
+        assertEquals(OverflowPolicy.SPILL, coinbaseSettings.getOverflow());
+        assertNull(coinbaseSettings.getQueueCapacity(), "Unset values fall through to the system properties");
+
+        PairConfig firi = config.getPairs().get(1);
+        assertEquals("USDC", firi.getIntermediate());
+        KeySettings firiSettings = config.settingsFor(firi);
+        assertEquals(OverflowPolicy.CONFLATE, firiSettings.getOverflow());
+        assertEquals(2000, firiSettings.getQueueCapacity());
+        assertEquals(500, firiSettings.getPollIntervalMs());
+        assertEquals(100, firiSettings.getBatchMaxLatencyMs());
+    }
+
+    @Test
+    void testRejectsInvalidConfig() throws IOException {
+        Path misspelt = Files.writeString(tempDir.resolve("misspelt.json"),
+                "{\"pairs\": [{\"exchange\": \"Coinbase\", \"asset\": \"BTC\", \"queueCapacty\": 10}]}");
+        assertThrows(UnrecognizedPropertyException.class, () -> CollectorConfig.loadFromFile(misspelt));
+
+        Path noAsset = Files.writeString(tempDir.resolve("no-asset.json"), "{\"pairs\": [{\"exchange\": \"Coinbase\"}]}");
+        assertThrows(IllegalArgumentException.class, () -> CollectorConfig.loadFromFile(noAsset));
+
+        Path negative = Files.writeString(tempDir.resolve("negative.json"),
+                "{\"defaults\": {\"queueCapacity\": 0}, \"pairs\": [{\"exchange\": \"Coinbase\", \"asset\": \"BTC\"}]}");
+        assertThrows(IllegalArgumentException.class, () -> CollectorConfig.loadFromFile(negative));
+
+        Path convertedRateStream = Files.writeString(tempDir.resolve("converted-rate-stream.json"),
+                "{\"pairs\": [{\"exchange\": \"Firi\", \"asset\": \"ETH\", \"intermediate\": \"USDC\", \"rateStream\": true}]}");
+        assertThrows(IllegalArgumentException.class, () -> CollectorConfig.loadFromFile(convertedRateStream));
+    }
+
+    @Test
+    void testForAssetsMatchesCommandLineTopology() {
+        CollectorConfig config = CollectorConfig.forAssets(new String[]{"BTC", "ETH"}, new String[]{"USDC", "USDC"});
+        assertEquals(5, config.getPairs().size());
+        assertEquals("Coinbase", config.getPairs().get(0).getExchange());
+        assertNull(config.getPairs().get(0).getIntermediate());
+        assertEquals("Firi", config.getPairs().get(1).getExchange());
+        assertEquals("USDC", config.getPairs().get(1).getIntermediate());
+        assertFalse(config.getPairs().get(1).isRateStream());
+        assertEquals("ETH", config.getPairs().get(3).getAsset());
+        PairConfig rateStream = config.getPairs().get(4);
+        assertEquals("Firi", rateStream.getExchange());
+        assertEquals("USDC", rateStream.getAsset());
+        assertNull(rateStream.getIntermediate(), "The shared intermediate is collected once, in NOK");
+        assertTrue(rateStream.isRateStream());
+    }
+}
@@ -0,0 +1,108 @@
+package ms.maxwillia.cryptodata.fx;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxRateServiceTest {
+    private static final long HOUR_MS = 3_600_000;
+
+    @Test
+    void testHoldersOfSamePairShareOneFetch() {
+        AtomicInteger fetches = new AtomicInteger();
+        FxRateService.RateSource source = () -> {
+            fetches.incrementAndGet();
+            return new FxRate(10.5, System.currentTimeMillis());
+        };
+        FxRateService first = FxRateService.shared("Test USDCNOK", "http://one", source, HOUR_MS, HOUR_MS);
+        FxRateService second = FxRateService.shared("Test USDCNOK", "http://one", source, HOUR_MS, HOUR_MS);
+        FxRateService elsewhere = FxRateService.shared("Test USDCNOK", "http://two", source, HOUR_MS, HOUR_MS);
+        try {
+            assertSame(first, second);
+            assertNotSame(first, elsewhere);
+
+            assertTrue(first.refreshIfOlderThan(HOUR_MS));
+            assertTrue(second.refreshIfOlderThan(HOUR_MS));
+            assertEquals(1, fetches.get(), "The second holder sees the fresh rate");
+            assertEquals(10.5, second.rate());
+            assertFalse(second.isStale());
+        } finally {
+            FxRateService.release(first);
+            FxRateService.release(second);
+            FxRateService.release(elsewhere);
+        }
+        assertTrue(FxRateService.sharedServices().stream().noneMatch(service -> service.getName().equals("Test USDCNOK")));
+    }
+
+    @Test
+    void testScheduledRefreshComesOneIntervalAfterFetch() throws InterruptedException {
+        AtomicInteger fetches = new AtomicInteger();
+        FxRateService rates = FxRateService.shared("Scheduled USDCNOK", "http://one", () -> {
+            fetches.incrementAndGet();
+            return new FxRate(10.0, System.currentTimeMillis());
+        }, 500, HOUR_MS);
+        try {
+            assertTrue(rates.refreshIfOlderThan(500));
+            Thread.sleep(800);
+            assertEquals(2, fetches.get(), "The first scheduled run refreshes the rate fetched on start-up");
+        } finally {
+            FxRateService.release(rates);
+        }
+    }
+
+    @Test
+    void testListenersSeeUpdatesAndStalenessIsTracked() {
+        FxRateService rates = new FxRateService("Test USDCNOK", 1000);
+        assertTrue(rates.isStale(), "No rate yet");
+        assertEquals(-1, rates.rate());
+
+        long now = System.currentTimeMillis();
+        rates.update(10.0, now - 5000);
+        assertTrue(rates.isStale());
+
+        List<FxRate> changes = new ArrayList<>();
+        rates.addListener((previous, rate) -> {
+            if (rate.changedFrom(previous)) {
+                changes.add(rate);
+            }
+        });
+        rates.update(10.0, now - 4000);
+        rates.update(10.2, now);
+        // Recorded before the current rate, so ignored
+        rates.update(9.0, now - 2000);
+
+        assertEquals(List.of(new FxRate(10.0, now - 5000), new FxRate(10.2, now)), changes,
+                "Current rate on registration, then changes only");
+        assertEquals(10.2, rates.rate());
+        assertFalse(rates.isStale());
+        assertThrows(IllegalArgumentException.class, () -> rates.update(0, now));
+    }
+
+    @Test
+    void testFailedRefreshKeepsLastRate() {
+        AtomicInteger fetches = new AtomicInteger();
+        FxRateService rates = FxRateService.shared("Failing USDCNOK", "http://one", () -> {
+            if (fetches.incrementAndGet() > 1) {
+                throw new IOException("Connection refused");
+            }
+            return new FxRate(10.0, System.currentTimeMillis());
+        }, HOUR_MS, HOUR_MS);
+        try {
+            assertTrue(rates.refreshIfOlderThan(HOUR_MS));
+            long start = System.nanoTime();
+            assertTrue(rates.refreshIfOlderThan(0), "Last rate is still within the staleness limit");
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(elapsedMs < 1400, "Waits only between the three attempts, took " + elapsedMs + "ms");
+            assertEquals(10.0, rates.rate());
+            assertEquals(1, rates.getFailures());
+            assertEquals(4, fetches.get());
+        } finally {
+            FxRateService.release(rates);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ms.maxwillia.cryptodata.model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTickTest {
+    private static final FixedPointTick.Scale FIRI_SCALE = FixedPointTick.Scale.of(
+            Monetary.getCurrency("USDC"), Monetary.getCurrency("NOK"), Monetary.getCurrency("BTC"));
+
+    @Test
+    void testScaleFromCurrencies() {
+        assertEquals(new FixedPointTick.Scale(2, 2, 8), FIRI_SCALE);
+    }
+
+    @Test
+    void testDivideRoundsHalfEven() {
+        // 0.125 -> 0.12 and 0.135 -> 0.14 at scale 2
+        assertEquals(12, FixedPoint.divide(125, 3, 1, 0, 2));
+        assertEquals(14, FixedPoint.divide(135, 3, 1, 0, 2));
+        assertEquals(-12, FixedPoint.divide(-125, 3, 1, 0, 2));
+        assertEquals(333, FixedPoint.divide(1, 0, 3, 0, 3));
+        assertEquals(667, FixedPoint.divide(2, 0, 3, 0, 3));
+        assertEquals(1234566, FixedPoint.parse("12345.665", 2));
+        assertEquals(1234568, FixedPoint.parse("12345.675", 2));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.divide(1, 0, 0, 0, 2));
+    }
+
+    @Test
+    void testConversionMatchesExactDecimalDivision() {
+        long nativePrice = FixedPoint.parse("1123456.78", 2);
+        long nativeBid = FixedPoint.parse("1123400.01", 2);
+        long nativeAsk = FixedPoint.parse("1123500.99", 2);
+        long rate = FixedPoint.parse("11.23456789", FixedPointTick.RATE_SCALE);
+        int symbolId = SymbolRegistry.register("Firi", "BTCUSDC");
+
+        FixedPointTick tick = FixedPointTick.converted(symbolId, FIRI_SCALE, FixedPoint.parse("12.5", 8),
+                nativeBid, FixedPoint.parse("0.5", 8), nativeAsk, FixedPoint.parse("0.25", 8),
+                1700000000000L, nativePrice, rate);
+
+        BigDecimal exactRate = new BigDecimal("11.23456789");
+        assertEquals(new BigDecimal("1123456.78").divide(exactRate, 2, RoundingMode.HALF_EVEN),
+                FixedPoint.toBigDecimal(tick.price(), 2));
+        assertEquals(new BigDecimal("1123400.01").divide(exactRate, 2, RoundingMode.HALF_EVEN),
+                FixedPoint.toBigDecimal(tick.best_bid(), 2));
+        assertEquals(new BigDecimal("1123500.99").divide(exactRate, 2, RoundingMode.HALF_EVEN),
+                FixedPoint.toBigDecimal(tick.best_ask(), 2));
+        assertEquals(tick.best_ask() - tick.best_bid(), tick.spread());
+        assertEquals("BTCUSDC", tick.symbol());
+    }
+
+    @Test
+    void testRoundTripThroughCryptoTick() {
+        int symbolId = SymbolRegistry.register("Coinbase", "BTCUSD");
+        FixedPointTick.Scale scale = FixedPointTick.Scale.of(
+                Monetary.getCurrency("USD"), Monetary.getCurrency("USD"), Monetary.getCurrency("BTC"));
+        FixedPointTick tick = FixedPointTick.direct(symbolId, scale, 9818254, FixedPoint.parse("8364.77304523", 8),
+                9818254, FixedPoint.parse("0.02250213", 8), 9818255, FixedPoint.parse("0.20351856", 8), 1736000000000L);
+
+        CryptoTick floating = tick.toCryptoTick();
+        assertEquals(98182.54, floating.price());
+        assertEquals(0.02250213, floating.best_bid_quantity());
+        assertEquals(-1, floating.intermediateRate());
+        assertEquals(tick, FixedPointTick.fromCryptoTick(floating, scale));
+        assertEquals(1, tick.spread());
+    }
+}
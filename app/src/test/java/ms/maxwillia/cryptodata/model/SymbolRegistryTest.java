@@ -0,0 +1,51 @@
+package ms.maxwillia.cryptodata.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolRegistryTest {
+
+    @Test
+    void testRegisterIsIdempotent() {
+        int id = SymbolRegistry.register("Coinbase", "SOLUSD");
+        assertEquals(id, SymbolRegistry.register("Coinbase", "SOLUSD"));
+        assertEquals(id, SymbolRegistry.idOf("Coinbase", "SOLUSD"));
+        assertNotEquals(id, SymbolRegistry.register("Firi", "SOLUSD"));
+
+        SymbolRegistry.Symbol symbol = SymbolRegistry.get(id);
+        assertEquals("Coinbase", symbol.exchange());
+        assertEquals("SOLUSD", symbol.pair());
+        assertEquals("Coinbase_SOLUSD", symbol.key());
+        assertEquals(-1, SymbolRegistry.idOf("Coinbase", "NOTAPAIR"));
+        assertThrows(IllegalArgumentException.class, () -> SymbolRegistry.get(-1));
+    }
+
+    @Test
+    void testTickResolvesSymbolFromId() {
+        int id = SymbolRegistry.register("Firi", "ETHUSDC");
+        CryptoTick tick = new CryptoTick(id, 100.0, 1.0, 99.0, 1.0, 101.0, 1.0, 1700000000000L);
+        assertEquals("ETHUSDC", tick.symbol());
+        assertEquals(SymbolRegistry.register(null, "ETHUSDC"), new CryptoTick("ETHUSDC", 100.0, 1.0, 99.0, 1.0, 101.0, 1.0, 1700000000000L).symbolId());
+    }
+
+    @Test
+    void testConcurrentRegistrationAssignsOneIdPerPair() throws InterruptedException {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            int pair = i % 10;
+            executor.submit(() -> ids.add(SymbolRegistry.register("Concurrent", "PAIR" + pair)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(10, ids.size());
+        ids.forEach(id -> assertTrue(SymbolRegistry.get(id).pair().startsWith("PAIR")));
+    }
+}
@@ -0,0 +1,55 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBatcherTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testTargetFollowsArrivalRate() {
+        AdaptiveBatcher batcher = new AdaptiveBatcher(100, 64 * 1024, 80);
+        long now = System.nanoTime();
+        assertEquals(1, batcher.targetBatchSize(), "No rate observed yet");
+
+        // 10 ticks/s: well under one tick per 100 ms, so every tick is written on its own
+        for (int i = 1; i <= 10; i++) {
+            batcher.arrived(1, now + i * SECOND / 10);
+        }
+        assertEquals(1, batcher.targetBatchSize());
+
+        // 5000 ticks/s: about 500 ticks arrive within 100 ms
+        now += SECOND;
+        for (int i = 1; i <= 50; i++) {
+            batcher.arrived(500, now + i * SECOND / 10);
+        }
+        assertEquals(500, batcher.targetBatchSize(), 5);
+    }
+
+    @Test
+    void testTargetCappedByBatchBytes() {
+        AdaptiveBatcher batcher = new AdaptiveBatcher(1000, 8000, 80);
+        long now = System.nanoTime();
+        for (int i = 1; i <= 20; i++) {
+            batcher.arrived(10_000, now + i * SECOND / 10);
+        }
+        assertEquals(100, batcher.getMaxBatchTicks());
+        assertEquals(100, batcher.targetBatchSize());
+    }
+
+    @Test
+    void testSnapshotAndReset() {
+        AdaptiveBatcher batcher = new AdaptiveBatcher(100, 64 * 1024, 80);
+        batcher.recordBatch(10);
+        batcher.recordBatch(30);
+
+        AdaptiveBatcher.Snapshot snapshot = batcher.snapshotAndReset();
+        assertEquals(2, snapshot.batches());
+        assertEquals(20, snapshot.meanSize());
+        assertEquals(30, snapshot.maxSize());
+        assertEquals(0, batcher.snapshotAndReset().batches());
+    }
+}
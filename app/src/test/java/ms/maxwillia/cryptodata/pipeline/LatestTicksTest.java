@@ -0,0 +1,51 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.SymbolRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatestTicksTest {
+    private static CryptoTick tick(int symbolId, double price, long timestamp) {
+        return new CryptoTick(symbolId, price, 1, price - 1, 1, price + 1, 1, timestamp);
+    }
+
+    @Test
+    void testKeepsLatestTickPerSymbol() {
+        int btc = SymbolRegistry.register("LatestTest", "BTCUSD");
+        int eth = SymbolRegistry.register("LatestTest", "ETHUSD");
+        LatestTicks latestTicks = new LatestTicks();
+        assertNull(latestTicks.latest(btc));
+
+        latestTicks.update(tick(btc, 100, 1000));
+        latestTicks.update(tick(eth, 10, 1000));
+        latestTicks.update(tick(btc, 101, 2000));
+        // Arrives late, so it is not the latest
+        latestTicks.update(tick(btc, 99, 1500));
+
+        assertEquals(101, latestTicks.latest(btc).price());
+        assertEquals(10, latestTicks.latest("LatestTest", "ETHUSD").price());
+        assertNull(latestTicks.latest("LatestTest", "SOLUSD"));
+        assertEquals(2, latestTicks.snapshot().size());
+    }
+
+    @Test
+    void testQueueUpdatesLatestEvenWhenDropping() {
+        int btc = SymbolRegistry.register("LatestTest", "BTCUSD");
+        LatestTicks latestTicks = new LatestTicks();
+        TickQueue queue = new TickQueue(2);
+        queue.setLatestTicks(latestTicks);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(tick(btc, 100 + i, 1000 + i));
+        }
+
+        assertEquals(109, latestTicks.latest(btc).price());
+        List<CryptoTick> stored = new ArrayList<>();
+        queue.drainTo(stored);
+        assertEquals(2, stored.size(), "The queue itself still applies its overflow policy");
+    }
+}
@@ -0,0 +1,78 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.SymbolRegistry;
+import ms.maxwillia.cryptodata.model.TickView;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTickRingTest {
+
+    @Test
+    void testClaimPublishPeekRelease() {
+        OffHeapTickRing ring = new OffHeapTickRing(3);
+        assertEquals(4, ring.capacity());
+        int symbolId = SymbolRegistry.register("Coinbase", "BTCUSD");
+
+        for (int i = 0; i < ring.capacity(); i++) {
+            TickView slot = ring.claim();
+            assertNotNull(slot);
+            slot.symbolId(symbolId).price(i).timestamp(1700000000000L + i);
+            ring.publish();
+        }
+        assertNull(ring.claim(), "Full ring has no free slot");
+        assertEquals(4, ring.size());
+        assertEquals(4, ring.getPublished());
+        assertEquals(1, ring.getDropped());
+
+        TickView oldest = ring.peek();
+        assertEquals(0, oldest.price());
+        assertEquals("BTCUSD", oldest.symbol());
+        ring.release();
+        assertNotNull(ring.claim(), "Released slot can be reused");
+
+        assertEquals(1, ring.poll().price());
+        assertEquals(2, ring.size());
+    }
+
+    @Test
+    void testSingleProducerSingleConsumerPreservesOrder() throws InterruptedException {
+        OffHeapTickRing ring = new OffHeapTickRing(256);
+        int symbolId = SymbolRegistry.register("Firi", "ETHUSDC");
+        int ticks = 20_000;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < ticks; i++) {
+                CryptoTick tick = new CryptoTick(symbolId, i, 0, i, 0, i, 0, i);
+                while (!ring.offer(tick)) {
+                    if (System.nanoTime() > deadline) {
+                        return;
+                    }
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        int received = 0;
+        while (received < ticks && System.nanoTime() < deadline) {
+            TickView slot = ring.peek();
+            if (slot == null) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(received, slot.price());
+            assertEquals(received, slot.timestamp());
+            assertEquals(symbolId, slot.symbolId());
+            ring.release();
+            received++;
+        }
+        producer.join();
+        assertEquals(ticks, received);
+        assertTrue(ring.isEmpty());
+    }
+}
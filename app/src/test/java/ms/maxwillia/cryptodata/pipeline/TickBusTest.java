@@ -0,0 +1,85 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import ms.maxwillia.cryptodata.concurrent.ExecutionMode;
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickBusTest {
+    private static final long TIMEOUT_MS = 10_000;
+
+    private static CryptoTick tick(int i) {
+        return new CryptoTick("BTCUSD", 100 + i, 1, 99, 1, 101, 1, 1735689600000L + i);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for subscribers");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void testEverySubscriberReadsEveryTickInOrder() throws InterruptedException {
+        try (TickBus bus = new TickBus(64, ExecutionMode.PLATFORM)) {
+            List<CryptoTick> first = new CopyOnWriteArrayList<>();
+            List<CryptoTick> second = new CopyOnWriteArrayList<>();
+            bus.subscribe("first", first::add);
+            bus.subscribe("second", second::add);
+
+            for (int i = 0; i < 1000; i++) {
+                bus.publish(tick(i));
+                if (i % 32 == 31) {
+                    // Stay within a ring of the subscribers so neither misses anything
+                    await(() -> bus.getSubscriptions().stream().allMatch(subscription -> subscription.getLag() == 0));
+                }
+            }
+            await(() -> first.size() == 1000 && second.size() == 1000);
+
+            for (int i = 0; i < 1000; i++) {
+                assertSame(first.get(i), second.get(i), "Subscribers share the published tick");
+                assertEquals(100 + i, first.get(i).price());
+            }
+        }
+    }
+
+    @Test
+    void testSlowSubscriberIsDetectedAndSkipsOverwrittenTicks() throws InterruptedException {
+        try (TickBus bus = new TickBus(8, ExecutionMode.PLATFORM)) {
+            CountDownLatch release = new CountDownLatch(1);
+            List<CryptoTick> fast = new CopyOnWriteArrayList<>();
+            TickBus.Subscription fastSubscription = bus.subscribe("fast", fast::add);
+            TickBus.Subscription slow = bus.subscribe("slow", tick -> {
+                try {
+                    release.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            for (int i = 0; i < 100; i++) {
+                bus.publish(tick(i));
+                if (i % 4 == 3) {
+                    await(() -> fastSubscription.getLag() == 0);
+                }
+            }
+            assertTrue(slow.isSlow());
+            assertFalse(fastSubscription.isSlow());
+
+            release.countDown();
+            await(() -> slow.getLag() == 0);
+            assertEquals(100, fast.size());
+            assertEquals(0, fastSubscription.getMissed());
+            assertTrue(slow.getMissed() > 0);
+            assertEquals(100, slow.getReceived() + slow.getMissed());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickDeduplicatorTest {
+    private static CryptoTick tick(int i) {
+        return new CryptoTick("BTCUSD", 100 + i, 1, 99, 1, 101, 1, 1735689600000L + i);
+    }
+
+    @Test
+    void testMergesRedundantStreamsWithGaps() {
+        TickQueue queue = new TickQueue(100);
+        queue.setDeduplicator(new TickDeduplicator(16));
+        // Each connection misses some ticks, and the second lags the first
+        for (int i = 0; i < 20; i++) {
+            if (i % 7 != 4) {
+                queue.offer(tick(i));
+            }
+            if (i >= 2 && (i - 2) % 5 != 0) {
+                queue.offer(tick(i - 2));
+            }
+        }
+        queue.offer(tick(18));
+        queue.offer(tick(19));
+
+        List<CryptoTick> merged = new ArrayList<>();
+        queue.drainTo(merged);
+        assertEquals(20, merged.size(), "Every tick stored once");
+        assertEquals(20, queue.getReceived());
+        assertTrue(queue.getDuplicates() > 0);
+        assertEquals(20, merged.stream().mapToDouble(CryptoTick::price).distinct().count());
+    }
+
+    @Test
+    void testForgetsTicksOutsideWindow() {
+        TickDeduplicator deduplicator = new TickDeduplicator(2);
+        assertTrue(deduplicator.firstSeen(tick(0)));
+        assertFalse(deduplicator.firstSeen(tick(0)));
+        assertTrue(deduplicator.firstSeen(tick(1)));
+        assertTrue(deduplicator.firstSeen(tick(2)));
+        assertTrue(deduplicator.firstSeen(tick(0)), "Too late to be recognised as a copy");
+        assertFalse(deduplicator.firstSeen(tick(2)));
+    }
+
+    @Test
+    void testCopiesDifferingOnlyInMessageTimeAreDuplicates() {
+        TickDeduplicator deduplicator = new TickDeduplicator(16);
+        assertTrue(deduplicator.firstSeen(new CryptoTick("BTCUSD", 100, 1, 99, 1, 101, 1, 1735689600000L)));
+        assertFalse(deduplicator.firstSeen(new CryptoTick("BTCUSD", 100, 1, 99, 1, 101, 1, 1735689600037L)),
+                "Same ticker sent later on the other connection");
+        assertTrue(deduplicator.firstSeen(new CryptoTick("BTCUSD", 100, 1, 99, 2, 101, 1, 1735689600037L)));
+    }
+}
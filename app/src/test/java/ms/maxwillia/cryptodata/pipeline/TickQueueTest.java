@@ -0,0 +1,158 @@
+package ms.maxwillia.cryptodata.pipeline;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.TickView;
+import ms.maxwillia.cryptodata.storage.TickStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickQueueTest {
+    @TempDir
+    Path tempDir;
+
+    private static CryptoTick tick(String symbol, int i) {
+        return new CryptoTick(symbol, 100 + i, 1, 99, 1, 101, 1, 1735689600000L + i);
+    }
+
+    private TickQueue queue(OverflowPolicy policy) {
+        TickQueue queue = new TickQueue(4);
+        queue.useOverflowPolicy(policy, tempDir, "Coinbase_BTCUSD");
+        return queue;
+    }
+
+    private static List<Double> prices(TickQueue queue) {
+        List<CryptoTick> ticks = new ArrayList<>();
+        queue.drainTo(ticks);
+        CryptoTick tick;
+        while ((tick = queue.poll()) != null) {
+            ticks.add(tick);
+        }
+        return ticks.stream().map(CryptoTick::price).toList();
+    }
+
+    @Test
+    void testDropNewestAndDropOldest() {
+        TickQueue newest = queue(OverflowPolicy.DROP_NEWEST);
+        TickQueue oldest = queue(OverflowPolicy.DROP_OLDEST);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i < 4, newest.offer(tick("BTCUSD", i)));
+            assertTrue(oldest.offer(tick("BTCUSD", i)));
+        }
+
+        assertEquals(10, newest.getReceived());
+        assertEquals(6, newest.getDropped());
+        assertEquals(List.of(100.0, 101.0, 102.0, 103.0), prices(newest));
+
+        assertEquals(10, oldest.getReceived());
+        assertEquals(6, oldest.getDropped());
+        assertEquals(List.of(106.0, 107.0, 108.0, 109.0), prices(oldest));
+    }
+
+    @Test
+    void testConflateKeepsLatestPerSymbol() {
+        TickQueue queue = queue(OverflowPolicy.CONFLATE);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queue.offer(tick("BTCUSD", i)));
+            assertTrue(queue.offer(tick("ETHUSD", i)));
+        }
+
+        // Four ticks queued, the latest of each symbol held back and the rest replaced
+        assertEquals(6, queue.size());
+        assertEquals(16, queue.getOverflowed());
+        assertEquals(14, queue.getDropped());
+        List<CryptoTick> ticks = new ArrayList<>();
+        queue.drainTo(ticks);
+        queue.drainTo(ticks);
+        assertEquals(6, ticks.size());
+        assertEquals(List.of(109.0, 109.0), ticks.subList(4, 6).stream().map(CryptoTick::price).toList());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void testSpillReplaysEveryTickInOrder() throws IOException {
+        TickQueue queue = queue(OverflowPolicy.SPILL);
+        int taken = 0;
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(queue.offer(tick("BTCUSD", i)));
+            if (i % 7 == 0) {
+                // A slow consumer taking now and then
+                assertEquals(100 + taken++, queue.poll().price());
+            }
+        }
+        assertEquals(0, queue.getDropped());
+        assertTrue(queue.getHeldBack() > 0);
+
+        List<Double> remaining = prices(queue);
+        assertEquals(1000 - taken, remaining.size());
+        for (int i = 0; i < remaining.size(); i++) {
+            assertEquals(100 + taken + i, remaining.get(i));
+        }
+        assertEquals(0, queue.getHeldBack());
+
+        queue.offer(tick("BTCUSD", 0));
+        queue.close();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "Spill file is deleted on close");
+        }
+    }
+
+    @Test
+    void testRingTicksAreCountedAndStoredFromTheirSlots() {
+        TickQueue queue = new TickQueue(4);
+        OffHeapTickRing ring = queue.useRing(2);
+        CryptoTick first = tick("BTCUSD", 0);
+        assertTrue(ring.offer(first));
+        assertTrue(ring.offer(tick("BTCUSD", 1)));
+        assertFalse(ring.offer(tick("BTCUSD", 2)), "A full ring drops the newest tick");
+        assertEquals(2, queue.size());
+        assertEquals(3, queue.getReceived());
+        assertEquals(1, queue.getDropped());
+
+        List<CryptoTick> stored = new ArrayList<>();
+        List<CryptoTick> boxed = new ArrayList<>();
+        TickStorage storage = new TickStorage() {
+            @Override
+            public void storeTick(CryptoTick tick) {
+                boxed.add(tick);
+            }
+
+            @Override
+            public void storeTick(TickView tick) {
+                stored.add(tick.toCryptoTick());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void force() {
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public String getFilename() {
+                return "ring";
+            }
+        };
+        assertEquals(1, queue.drainRingTo(storage, 1));
+        assertEquals(1, queue.drainRingTo(storage, 10));
+        assertEquals(0, queue.drainRingTo(storage, 10));
+        assertEquals(first, stored.get(0));
+        assertEquals(2, stored.size());
+        assertTrue(boxed.isEmpty(), "Ring ticks are handed over as views");
+        assertEquals(0, queue.size());
+    }
+}
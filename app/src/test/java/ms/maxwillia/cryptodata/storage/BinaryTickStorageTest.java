@@ -0,0 +1,120 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.FixedPoint;
+import ms.maxwillia.cryptodata.model.FixedPointTick;
+import ms.maxwillia.cryptodata.model.SymbolRegistry;
+import ms.maxwillia.cryptodata.model.TickView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTickStorageTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testViewRoundTripsCryptoTick() {
+        CryptoTick tick = new CryptoTick(SymbolRegistry.register("Firi", "BTCUSDC"),
+                1000.5, 10.0, 1000.0, 0.5, 1001.0, 0.25, 1700000000000L, 11000.0, 10.99, 250);
+        ByteBuffer slots = TickView.allocate(2);
+        TickView view = new TickView().wrap(slots, TickView.BYTES).set(tick);
+        assertEquals(tick, view.toCryptoTick());
+        assertEquals(250, view.rateAgeMs());
+        assertEquals("BTCUSDC", view.symbol());
+        assertEquals(0, slots.getLong(0), "Writing a slot must not touch its neighbours");
+
+        TickView copy = new TickView().wrap(slots, 0).set(view);
+        assertEquals(tick, copy.toCryptoTick());
+    }
+
+    @Test
+    void testStoreAndReadBack() throws IOException {
+        Path file = tempDir.resolve("Firi_BTCUSDC_20240101_000000" + BinaryTickStorage.FILE_SUFFIX);
+        int btc = SymbolRegistry.register("Firi", "BTCUSDC");
+        int eth = SymbolRegistry.register("Firi", "ETHUSDC");
+        CryptoTick first = new CryptoTick(btc, 100.0, 1.0, 99.0, 1.0, 101.0, 2.0, 1700000000000L, 1100.0, 11.0);
+        CryptoTick second = new CryptoTick(eth, 10.0, 1.0, 9.0, 1.0, 11.0, 2.0, 1700000000001L, 110.0, 11.0);
+
+        BinaryTickStorage storage = new BinaryTickStorage(file.toString());
+        storage.storeTick(first);
+        storage.storeTick(new TickView().wrap(TickView.allocate(1), 0).set(second));
+        storage.close();
+        assertEquals(BinaryTickStorage.HEADER_BYTES + 2 * TickView.BYTES, Files.size(file));
+
+        // Reopening appends and keeps the existing symbol table
+        storage = new BinaryTickStorage(file.toString());
+        storage.storeTick(second);
+        storage.close();
+
+        try (BinaryTickReader reader = new BinaryTickReader(file)) {
+            assertEquals(first, reader.next());
+            assertEquals(second, reader.next());
+            TickView view = reader.nextView();
+            assertEquals(eth, view.symbolId());
+            assertEquals(second, view.toCryptoTick());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testStoreFixedPointAndReadBack() throws IOException {
+        Path file = tempDir.resolve("Firi_ETHUSDC_20240101_000000" + BinaryTickStorage.FILE_SUFFIX);
+        FixedPointTick.Scale scale = new FixedPointTick.Scale(2, 2, 8);
+        FixedPointTick fixed = FixedPointTick.converted(SymbolRegistry.register("Firi", "ETHUSDC"), scale,
+                FixedPoint.parse("1234.56789012", 8), FixedPoint.parse("35000.01", 2), FixedPoint.parse("0.5", 8),
+                FixedPoint.parse("35001.99", 2), FixedPoint.parse("0.25", 8), 1700000000000L,
+                FixedPoint.parse("35001.00", 2), FixedPoint.parse("11.23456789", FixedPointTick.RATE_SCALE));
+        CryptoTick tick = fixed.toCryptoTick(42);
+
+        BinaryTickStorage storage = new BinaryTickStorage(file.toString(), scale);
+        storage.storeTick(tick);
+        storage.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer record = TickView.allocate(1);
+            channel.read(record, BinaryTickStorage.HEADER_BYTES);
+            assertEquals(fixed.price(), record.getLong(TickView.PRICE_OFFSET), "Fields are stored as scaled longs");
+            assertEquals(fixed.intermediateRate(), record.getLong(TickView.INTERMEDIATE_RATE_OFFSET));
+        }
+        assertThrows(IOException.class, () -> new BinaryTickStorage(file.toString()),
+                "A fixed-point file is not appended to with doubles");
+
+        try (BinaryTickReader reader = new BinaryTickReader(file)) {
+            CryptoTick read = reader.next();
+            assertEquals(tick, read);
+            assertEquals(fixed, FixedPointTick.fromCryptoTick(read, scale));
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testTruncatedRecordIsIgnored() throws IOException {
+        Path file = tempDir.resolve("Coinbase_BTCUSD_20240101_000000" + BinaryTickStorage.FILE_SUFFIX);
+        CryptoTick tick = new CryptoTick(SymbolRegistry.register("Coinbase", "BTCUSD"),
+                100.0, 1.0, 99.0, 1.0, 101.0, 2.0, 1700000000000L);
+        BinaryTickStorage storage = new BinaryTickStorage(file.toString());
+        storage.storeTick(tick);
+        storage.storeTick(tick);
+        storage.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 10);
+        }
+
+        try (BinaryTickReader reader = new BinaryTickReader(file)) {
+            assertEquals(tick, reader.next());
+            assertNull(reader.next());
+        }
+
+        Path notTicks = tempDir.resolve("not.ticks");
+        Files.writeString(notTicks, "symbol,price");
+        assertThrows(IOException.class, () -> new BinaryTickReader(notTicks));
+    }
+}
@@ -0,0 +1,77 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.concurrent.ExecutionMode;
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitterTest {
+
+    private static class CountingStorage implements TickStorage {
+        final AtomicInteger forces = new AtomicInteger();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        @Override
+        public void storeTick(CryptoTick tick) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void force() {
+            assertFalse(closed.get(), "Forced after close");
+            forces.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+        }
+
+        @Override
+        public String getFilename() {
+            return "counting";
+        }
+    }
+
+    @Test
+    void testForcesRegisteredStoragesOnInterval() throws InterruptedException {
+        CountingStorage first = new CountingStorage();
+        CountingStorage second = new CountingStorage();
+        SyncLatency latency = new SyncLatency();
+        try (GroupCommitter committer = new GroupCommitter(10, ExecutionMode.PLATFORM)) {
+            committer.register("first", first, latency);
+            committer.register("second", second, latency);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (second.forces.get() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(first.forces.get() >= 3);
+            assertTrue(second.forces.get() >= 3);
+
+            // Once unregistered a storage can be closed without being forced again
+            committer.unregister("first");
+            first.close();
+            Thread.sleep(50);
+        }
+        SyncLatency.Snapshot snapshot = latency.snapshotAndReset();
+        assertEquals(first.forces.get() + second.forces.get(), snapshot.syncs());
+        assertEquals(0, latency.snapshotAndReset().syncs());
+    }
+
+    @Test
+    void testCloseCommitsOnceMore() {
+        CountingStorage storage = new CountingStorage();
+        GroupCommitter committer = new GroupCommitter(60_000, ExecutionMode.VIRTUAL);
+        committer.register("storage", storage, new SyncLatency());
+        committer.close();
+        assertEquals(1, storage.forces.get());
+        assertEquals(1, committer.getCommits());
+    }
+}
@@ -0,0 +1,95 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.model.CryptoTick;
+import ms.maxwillia.cryptodata.model.SymbolRegistry;
+import ms.maxwillia.cryptodata.model.TickView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTickStorageTest {
+    @TempDir
+    Path tempDir;
+
+    private static List<CryptoTick> readAll(Path file) throws IOException {
+        List<CryptoTick> ticks = new ArrayList<>();
+        try (BinaryTickReader reader = new BinaryTickReader(file)) {
+            CryptoTick tick;
+            while ((tick = reader.next()) != null) {
+                ticks.add(tick);
+            }
+        }
+        return ticks;
+    }
+
+    private static CryptoTick tick(int symbolId, int i) {
+        return new CryptoTick(symbolId, 100.0 + i, 1.0, 99.0 + i, 1.0, 101.0 + i, 2.0, 1700000000000L + i, 1100.0, 11.0, i);
+    }
+
+    @Test
+    void testLayoutMatchesTickView() {
+        assertEquals(TickView.BYTES, MappedTickStorage.TICK_LAYOUT.byteSize());
+        assertEquals(TickView.BEST_ASK_QUANTITY_OFFSET, MappedTickStorage.TICK_LAYOUT.byteOffset(
+                java.lang.foreign.MemoryLayout.PathElement.groupElement("best_ask_quantity")));
+    }
+
+    @Test
+    void testRolloverAcrossRegionsAndReopen() throws IOException {
+        Path file = tempDir.resolve("Firi_BTCUSDC_20240101_000000" + BinaryTickStorage.FILE_SUFFIX);
+        int btc = SymbolRegistry.register("Firi", "BTCUSDC");
+        int eth = SymbolRegistry.register("Firi", "ETHUSDC");
+        List<CryptoTick> expected = new ArrayList<>();
+
+        MappedTickStorage storage = new MappedTickStorage(file.toString(), 4);
+        for (int i = 0; i < 10; i++) {
+            CryptoTick tick = tick(i % 2 == 0 ? btc : eth, i);
+            expected.add(tick);
+            storage.storeTick(tick);
+        }
+        assertEquals(3, storage.getRegionsMapped());
+        storage.close();
+        assertEquals(TickFileHeader.HEADER_BYTES + 10L * TickView.BYTES, Files.size(file),
+                "Preallocated space is truncated on close");
+        assertThrows(IllegalStateException.class, () -> storage.storeTick(tick(btc, 0)));
+
+        MappedTickStorage reopened = new MappedTickStorage(file.toString(), 4);
+        assertEquals(10, reopened.getRecords());
+        CryptoTick appended = tick(eth, 10);
+        expected.add(appended);
+        reopened.storeTick(new TickView().wrap(TickView.allocate(1), 0).set(appended));
+        reopened.close();
+
+        assertEquals(expected, readAll(file));
+    }
+
+    @Test
+    void testPreallocatedSpaceLeftByCrashIsIgnored() throws IOException {
+        Path file = tempDir.resolve("Coinbase_BTCUSD_20240101_000000" + BinaryTickStorage.FILE_SUFFIX);
+        int btc = SymbolRegistry.register("Coinbase", "BTCUSD");
+        MappedTickStorage storage = new MappedTickStorage(file.toString(), 8);
+        storage.storeTick(tick(btc, 0));
+        storage.storeTick(tick(btc, 1));
+        storage.close();
+        // A crash leaves the rest of the mapped region zero filled
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(6 * TickView.BYTES), channel.size());
+        }
+
+        assertEquals(List.of(tick(btc, 0), tick(btc, 1)), readAll(file));
+
+        BinaryTickStorage appender = new BinaryTickStorage(file.toString());
+        appender.storeTick(tick(btc, 2));
+        appender.close();
+        assertEquals(List.of(tick(btc, 0), tick(btc, 1), tick(btc, 2)), readAll(file));
+    }
+}
@@ -0,0 +1,101 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.model.RawFrame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RawFrameCaptureTest {
+    @TempDir
+    Path tempDir;
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(file -> file.toString().endsWith(RawFrameCapture.FILE_SUFFIX)).sorted().toList();
+        }
+    }
+
+    private static List<RawFrame> readAll(Path segment) throws IOException {
+        List<RawFrame> frames = new ArrayList<>();
+        try (RawFrameReader reader = new RawFrameReader(segment)) {
+            RawFrame frame;
+            while ((frame = reader.next()) != null) {
+                frames.add(frame);
+            }
+        }
+        return frames;
+    }
+
+    @Test
+    void testCaptureRollsSegmentsAndReadsBack() throws IOException {
+        Map<String, String> metadata = Map.of("exchange", "Coinbase", "asset", "BTC");
+        long before = System.currentTimeMillis();
+        try (RawFrameCapture capture = new RawFrameCapture(tempDir, "Coinbase_BTCUSD", metadata, 1024, 1000)) {
+            for (int i = 0; i < 100; i++) {
+                assertTrue(capture.capture("ws", "{\"sequence_num\":%d,\"price\":\"1.%d\"}".formatted(i, i)));
+            }
+        }
+
+        List<Path> segments = segments();
+        assertTrue(segments.size() > 1, "Expected rollover into several segments");
+
+        List<RawFrame> frames = new ArrayList<>();
+        for (Path segment : segments) {
+            try (RawFrameReader reader = new RawFrameReader(segment)) {
+                assertEquals(metadata, reader.getMetadata());
+            }
+            frames.addAll(readAll(segment));
+        }
+        assertEquals(100, frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            RawFrame frame = frames.get(i);
+            assertEquals("ws", frame.source());
+            assertEquals("{\"sequence_num\":%d,\"price\":\"1.%d\"}".formatted(i, i), frame.payload());
+            assertTrue(frame.receivedAt() >= before);
+        }
+    }
+
+    @Test
+    void testDropsWhenWriterFallsBehind() throws IOException {
+        RawFrameCapture capture = new RawFrameCapture(tempDir, "Firi_BTCNOK", Map.of(), 1 << 20, 1);
+        for (int i = 0; i < 10000; i++) {
+            capture.capture("depth", "x".repeat(1000));
+        }
+        capture.close();
+        assertFalse(capture.capture("depth", "after close"));
+
+        assertTrue(capture.getFramesDropped() > 0);
+        assertEquals(10000, capture.getFramesCaptured() + capture.getFramesDropped());
+        assertEquals(capture.getFramesCaptured(), capture.getFramesWritten());
+        assertEquals(capture.getFramesWritten(), readAll(segments().getFirst()).size());
+    }
+
+    @Test
+    void testTruncatedSegmentReadsCompleteFrames() throws IOException {
+        try (RawFrameCapture capture = new RawFrameCapture(tempDir, "Coinbase_BTCUSD", Map.of(), 1 << 20, 1000)) {
+            for (int i = 0; i < 500; i++) {
+                capture.capture("ws", "frame-" + i);
+            }
+        }
+        Path segment = segments().getFirst();
+        byte[] bytes = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 20));
+
+        List<RawFrame> frames = readAll(segment);
+        assertFalse(frames.isEmpty());
+        assertTrue(frames.size() <= 500);
+        for (int i = 0; i < frames.size(); i++) {
+            assertEquals("frame-" + i, frames.get(i).payload());
+        }
+    }
+}
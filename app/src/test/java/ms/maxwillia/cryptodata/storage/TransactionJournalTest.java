@@ -0,0 +1,143 @@
+package ms.maxwillia.cryptodata.storage;
+
+import ms.maxwillia.cryptodata.model.Transaction;
+import ms.maxwillia.cryptodata.model.TransactionSide;
+import ms.maxwillia.cryptodata.model.TransactionStatus;
+import ms.maxwillia.cryptodata.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJournalTest {
+    @TempDir
+    Path tempDir;
+
+    private static Transaction transaction(String id, TransactionStatus status) {
+        return Transaction.builder()
+                .id(id)
+                .exchangeId("exchange-" + id)
+                .exchange("Coinbase")
+                .currency("BTCUSDC")
+                .orderType(TransactionType.MARKET)
+                .side(TransactionSide.BUY)
+                .price(50000.0)
+                .quantity(0.001)
+                .status(status)
+                .build();
+    }
+
+    @Test
+    void testRecoverAfterReopen() throws IOException {
+        Path file = tempDir.resolve("transactions.jsonl");
+        try (TransactionJournal journal = new TransactionJournal(file, TransactionJournal.SyncPolicy.ALWAYS, 10)) {
+            Transaction open = transaction("1", TransactionStatus.REQUESTED);
+            journal.append(open);
+            journal.append(transaction("2", TransactionStatus.EXECUTED));
+            open.setStatus(TransactionStatus.EXECUTED);
+            open.setFee(0.5);
+            journal.append(open);
+            journal.append(transaction("3", TransactionStatus.REQUESTED));
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(file, TransactionJournal.SyncPolicy.NONE, 10)) {
+            assertEquals(3, journal.size());
+            Transaction recovered = journal.get("1").orElseThrow();
+            assertEquals(TransactionStatus.EXECUTED, recovered.getStatus());
+            assertEquals(0.5, recovered.getFee());
+            assertEquals(TransactionSide.BUY, recovered.getSide());
+            assertNotNull(recovered.getCreatedTime());
+            assertEquals("3", journal.getByExchangeId("exchange-3").orElseThrow().getId());
+            assertEquals(List.of("3"), journal.getOpen().stream().map(Transaction::getId).toList());
+        }
+    }
+
+    @Test
+    void testHotWindowEvictsSettledTransactions() throws IOException {
+        Path file = tempDir.resolve("transactions.jsonl");
+        try (TransactionJournal journal = new TransactionJournal(file, TransactionJournal.SyncPolicy.NONE, 2)) {
+            journal.append(transaction("open", TransactionStatus.REQUESTED));
+            for (int i = 0; i < 5; i++) {
+                journal.append(transaction("done-" + i, TransactionStatus.EXECUTED));
+            }
+
+            List<Transaction> recent = journal.getRecent();
+            assertEquals(2, recent.size());
+            assertEquals("open", recent.getFirst().getId());
+            assertEquals("done-4", recent.getLast().getId());
+
+            // Settled transactions are forgotten once they leave the window
+            assertTrue(journal.get("done-1").isEmpty());
+            assertTrue(journal.getByExchangeId("exchange-done-1").isEmpty());
+            assertEquals(2, journal.size());
+        }
+    }
+
+    @Test
+    void testReopenCompactsAndArchives() throws IOException {
+        Path file = tempDir.resolve("transactions.jsonl");
+        try (TransactionJournal journal = new TransactionJournal(file, TransactionJournal.SyncPolicy.NONE, 2)) {
+            Transaction open = transaction("open", TransactionStatus.REQUESTED);
+            journal.append(open);
+            open.setFilledQuantity(0.0005);
+            journal.append(open);
+            for (int i = 0; i < 5; i++) {
+                journal.append(transaction("done-" + i, TransactionStatus.EXECUTED));
+            }
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(file, TransactionJournal.SyncPolicy.NONE, 2)) {
+            assertEquals(List.of("open", "done-4"), journal.getRecent().stream().map(Transaction::getId).toList());
+            assertEquals(0.0005, journal.getOpen().getFirst().getFilledQuantity());
+            journal.append(transaction("done-5", TransactionStatus.EXECUTED));
+        }
+        assertEquals(3, Files.readAllLines(file).size(), "One record per kept transaction, then the new one");
+        try (var files = Files.list(tempDir)) {
+            List<Path> archives = files.filter(path -> path.getFileName().toString().matches("transactions\\.jsonl\\.\\d+")).toList();
+            assertEquals(1, archives.size());
+            assertEquals(7, Files.readAllLines(archives.getFirst()).size(), "The history is archived as written");
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(file, TransactionJournal.SyncPolicy.NONE, 2)) {
+            assertEquals(List.of("open", "done-5"), journal.getRecent().stream().map(Transaction::getId).toList());
+        }
+    }
+
+    @Test
+    void testInMemoryJournalIsBounded() {
+        TransactionJournal journal = new TransactionJournal(3);
+        for (int i = 0; i < 10; i++) {
+            journal.append(transaction(String.valueOf(i), TransactionStatus.EXECUTED));
+        }
+        assertFalse(journal.isPersistent());
+        assertEquals(3, journal.size());
+        assertTrue(journal.get("0").isEmpty());
+        assertTrue(journal.get("9").isPresent());
+    }
+
+    @Test
+    void testIncompleteRecordIsTruncated() throws IOException {
+        Path file = tempDir.resolve("transactions.jsonl");
+        try (TransactionJournal journal = new TransactionJournal(file, TransactionJournal.SyncPolicy.ALWAYS, 10)) {
+            journal.append(transaction("1", TransactionStatus.REQUESTED));
+        }
+        long validLength = Files.size(file);
+        Files.writeString(file, "{\"id\":\"2\",\"sta", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (TransactionJournal journal = new TransactionJournal(file, TransactionJournal.SyncPolicy.ALWAYS, 10)) {
+            assertEquals(1, journal.size());
+            assertEquals(validLength, Files.size(file));
+            journal.append(transaction("2", TransactionStatus.REQUESTED));
+        }
+        try (TransactionJournal journal = new TransactionJournal(file, TransactionJournal.SyncPolicy.NONE, 10)) {
+            assertEquals(2, journal.size());
+        }
+    }
+}
@@ -15,3 +15,4 @@ include("app")
 include("coinbase-jwt")
 include("cli")
 include("apis")
+include("simulator")
@@ -0,0 +1,43 @@
+plugins {
+    java
+    application
+}
+
+group = "ms.maxwillia.simulator"
+version = "0.0.1"
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    // WebSocket server for the Coinbase advanced-trade feed
+    implementation("org.java-websocket:Java-WebSocket:1.5.4")
+    implementation("com.fasterxml.jackson.core:jackson-databind:2.15.2")
+
+    // Lombok
+    compileOnly("org.projectlombok:lombok:1.18.36")
+    annotationProcessor("org.projectlombok:lombok:1.18.36")
+
+    // Logging framework
+    implementation("org.slf4j:slf4j-api:2.0.9")
+    implementation("ch.qos.logback:logback-classic:1.4.12")
+
+    testImplementation(platform("org.junit:junit-bom:5.10.0"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testImplementation("com.squareup.okhttp3:okhttp:4.12.0")
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+application {
+    mainClass = "ms.maxwillia.simulator.ExchangeSimulator"
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
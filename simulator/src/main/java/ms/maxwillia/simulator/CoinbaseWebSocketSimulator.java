@@ -0,0 +1,279 @@
+package ms.maxwillia.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves a Coinbase advanced-trade compatible WebSocket feed with ticker, level2 and heartbeats channels.
+ * Each connection has its own sequence_num counter, as on the real exchange.
+ */
+public class CoinbaseWebSocketSimulator extends WebSocketServer {
+    private static final Logger logger = LoggerFactory.getLogger(CoinbaseWebSocketSimulator.class);
+    private static final long HEARTBEAT_INTERVAL_MS = 1000;
+    private static final int LEVEL2_DEPTH = 10;
+
+    private final SimulatorConfig config;
+    private final MarketModel marketModel;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong sequenceGaps = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+
+    private static class Session {
+        private final AtomicLong sequence = new AtomicLong();
+        private final Map<String, Set<String>> subscriptions = new ConcurrentHashMap<>();
+        private final List<ScheduledFuture<?>> tasks = new CopyOnWriteArrayList<>();
+        private final AtomicLong heartbeatCounter = new AtomicLong();
+        private final AtomicBoolean heartbeating = new AtomicBoolean();
+    }
+
+    public CoinbaseWebSocketSimulator(SimulatorConfig config, MarketModel marketModel) {
+        super(new InetSocketAddress(config.getCoinbasePort()));
+        this.config = config;
+        this.marketModel = marketModel;
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "CoinbaseSimulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        setReuseAddr(true);
+    }
+
+    @Override
+    public void onStart() {
+        logger.info("Coinbase WebSocket simulator listening on port {}", getPort());
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        Session session = new Session();
+        conn.setAttachment(session);
+        logger.info("Connection opened from {}", conn.getRemoteSocketAddress());
+        if (config.getDisconnectIntervalMs() > 0) {
+            session.tasks.add(scheduler.schedule(() -> {
+                disconnects.incrementAndGet();
+                logger.info("Simulating disconnect of {}", conn.getRemoteSocketAddress());
+                conn.close(1001, "Simulated disconnect");
+            }, config.getDisconnectIntervalMs(), TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        Session session = conn.getAttachment();
+        if (session != null) {
+            session.tasks.forEach(task -> task.cancel(false));
+        }
+        logger.info("Connection closed from {}: {} ({})", conn.getRemoteSocketAddress(), reason, code);
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        Session session = conn.getAttachment();
+        try {
+            JsonNode request = objectMapper.readTree(message);
+            String type = request.path("type").asText();
+            String channel = request.path("channel").asText();
+            List<String> productIds = new ArrayList<>();
+            request.path("product_ids").forEach(product -> productIds.add(product.asText()));
+
+            if ("subscribe".equals(type)) {
+                subscribe(conn, session, channel, productIds);
+            } else if ("unsubscribe".equals(type)) {
+                Set<String> products = session.subscriptions.get(channel);
+                if (products != null) {
+                    productIds.forEach(products::remove);
+                }
+                send(conn, session, subscriptionsMessage(session));
+            } else {
+                logger.warn("Unsupported message type: {}", type);
+            }
+        } catch (Exception e) {
+            logger.error("Error handling message {}", message, e);
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        logger.error("Coinbase simulator error", ex);
+    }
+
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdownNow();
+        stop(1000);
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    public long getSequenceGaps() {
+        return sequenceGaps.get();
+    }
+
+    public long getDisconnects() {
+        return disconnects.get();
+    }
+
+    private void subscribe(WebSocket conn, Session session, String channel, List<String> productIds) {
+        Set<String> products = session.subscriptions.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet());
+        List<String> added = productIds.stream().filter(products::add).toList();
+        send(conn, session, subscriptionsMessage(session));
+
+        switch (channel) {
+            case "ticker" -> {
+                long periodNanos = (long) (1_000_000_000L / config.getMessagesPerSecond());
+                for (String productId : added) {
+                    session.tasks.add(scheduler.scheduleAtFixedRate(
+                            () -> sendIfSubscribed(conn, session, channel, productId, () -> tickerMessage(productId)),
+                            periodNanos, periodNanos, TimeUnit.NANOSECONDS));
+                }
+            }
+            case "level2" -> {
+                long periodNanos = (long) (1_000_000_000L / config.getMessagesPerSecond());
+                for (String productId : added) {
+                    send(conn, session, level2Message(productId, "snapshot", LEVEL2_DEPTH));
+                    session.tasks.add(scheduler.scheduleAtFixedRate(
+                            () -> sendIfSubscribed(conn, session, channel, productId, () -> level2Message(productId, "update", 1)),
+                            periodNanos, periodNanos, TimeUnit.NANOSECONDS));
+                }
+            }
+            case "heartbeats" -> {
+                if (session.heartbeating.compareAndSet(false, true)) {
+                    session.tasks.add(scheduler.scheduleAtFixedRate(
+                            () -> send(conn, session, heartbeatMessage(session)),
+                            HEARTBEAT_INTERVAL_MS, HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS));
+                }
+            }
+            default -> logger.warn("Unsupported channel: {}", channel);
+        }
+    }
+
+    private void sendIfSubscribed(WebSocket conn, Session session, String channel, String productId, Callable<ObjectNode> message) {
+        Set<String> products = session.subscriptions.get(channel);
+        if (products == null || !products.contains(productId)) {
+            return;
+        }
+        try {
+            send(conn, session, message.call());
+        } catch (Exception e) {
+            logger.error("Error building {} message for {}", channel, productId, e);
+        }
+    }
+
+    private void send(WebSocket conn, Session session, ObjectNode message) {
+        long delayMs = config.getLatencyMs();
+        if (config.getJitterMs() > 0) {
+            delayMs += (long) (marketModel.nextDouble() * config.getJitterMs());
+        }
+        // Sequence numbers are assigned and sent under the session lock so they leave in order,
+        // unless jitter deliberately reorders them
+        synchronized (session) {
+            if (config.getGapProbability() > 0 && marketModel.nextDouble() < config.getGapProbability()) {
+                session.sequence.getAndIncrement();
+                sequenceGaps.incrementAndGet();
+            }
+            message.put("sequence_num", session.sequence.getAndIncrement());
+            String payload = message.toString();
+            if (delayMs <= 0) {
+                deliver(conn, payload);
+            } else {
+                scheduler.schedule(() -> deliver(conn, payload), delayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void deliver(WebSocket conn, String payload) {
+        if (conn.isOpen()) {
+            conn.send(payload);
+            messagesSent.incrementAndGet();
+        }
+    }
+
+    private ObjectNode envelope(String channel) {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("channel", channel);
+        message.put("client_id", "");
+        message.put("timestamp", Instant.now().toString());
+        return message;
+    }
+
+    private ObjectNode subscriptionsMessage(Session session) {
+        ObjectNode message = envelope("subscriptions");
+        ObjectNode subscriptions = message.putArray("events").addObject().putObject("subscriptions");
+        session.subscriptions.forEach((channel, products) -> {
+            ArrayNode array = subscriptions.putArray(channel);
+            products.forEach(array::add);
+        });
+        return message;
+    }
+
+    private ObjectNode tickerMessage(String productId) {
+        MarketModel.Quote quote = marketModel.nextUsdQuote(baseCurrency(productId));
+        ObjectNode message = envelope("ticker");
+        ObjectNode event = message.putArray("events").addObject();
+        event.put("type", "update");
+        ObjectNode ticker = event.putArray("tickers").addObject();
+        ticker.put("type", "ticker");
+        ticker.put("product_id", productId);
+        ticker.put("price", Double.toString(quote.last()));
+        ticker.put("volume_24_h", Double.toString(quote.volume24h()));
+        ticker.put("best_bid", Double.toString(quote.bid()));
+        ticker.put("best_bid_quantity", Double.toString(quote.bidQuantity()));
+        ticker.put("best_ask", Double.toString(quote.ask()));
+        ticker.put("best_ask_quantity", Double.toString(quote.askQuantity()));
+        return message;
+    }
+
+    private ObjectNode level2Message(String productId, String type, int depth) {
+        MarketModel.Quote quote = marketModel.nextUsdQuote(baseCurrency(productId));
+        ObjectNode message = envelope("l2_data");
+        ObjectNode event = message.putArray("events").addObject();
+        event.put("type", type);
+        event.put("product_id", productId);
+        ArrayNode updates = event.putArray("updates");
+        String eventTime = Instant.now().toString();
+        double tick = quote.ask() - quote.bid();
+        for (int level = 0; level < depth; level++) {
+            addLevel(updates, "bid", eventTime, quote.bid() - level * tick, quote.bidQuantity() + level);
+            addLevel(updates, "offer", eventTime, quote.ask() + level * tick, quote.askQuantity() + level);
+        }
+        return message;
+    }
+
+    private static void addLevel(ArrayNode updates, String side, String eventTime, double price, double quantity) {
+        ObjectNode update = updates.addObject();
+        update.put("side", side);
+        update.put("event_time", eventTime);
+        update.put("price_level", Double.toString(Math.round(price * 100) / 100.0));
+        update.put("new_quantity", Double.toString(quantity));
+    }
+
+    private ObjectNode heartbeatMessage(Session session) {
+        ObjectNode message = envelope("heartbeats");
+        ObjectNode event = message.putArray("events").addObject();
+        event.put("current_time", Instant.now().toString());
+        event.put("heartbeat_counter", session.heartbeatCounter.incrementAndGet());
+        return message;
+    }
+
+    private static String baseCurrency(String productId) {
+        return productId.split("-")[0];
+    }
+}
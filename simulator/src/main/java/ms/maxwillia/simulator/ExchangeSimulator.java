@@ -0,0 +1,82 @@
+package ms.maxwillia.simulator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local stand-in for Coinbase (WebSocket ticker feed) and Firi (REST market data and orders),
+ * used to load test the collector and traders without touching the real exchanges.
+ * <p>
+ * Start the simulator, then point the collector at it:
+ * <pre>
+ * ./gradlew :simulator:run --args="--products=BTC,ETH --rate=100 --jitter-ms=5 --disconnect-ms=60000"
+ * ./gradlew :app:run -Dcoinbase.ws.url=ws://localhost:8765 -Dfiri.api.url=http://localhost:8766/v2 \
+ *     --args="BTC;USDC ETH;USDC"
+ * </pre>
+ * Traders can be pointed at the Firi simulator with {@code setApiRoot}.
+ */
+public class ExchangeSimulator {
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeSimulator.class);
+    private static final long REPORT_INTERVAL_MS = 5000;
+
+    private final CoinbaseWebSocketSimulator coinbase;
+    private final FiriRestSimulator firi;
+
+    public ExchangeSimulator(SimulatorConfig config) throws IOException {
+        List<String> currencies = new ArrayList<>(config.getProducts());
+        currencies.addAll(config.getIntermediates());
+        MarketModel marketModel = new MarketModel(currencies, config.getSeed());
+        this.coinbase = new CoinbaseWebSocketSimulator(config, marketModel);
+        this.firi = new FiriRestSimulator(config, marketModel);
+    }
+
+    public void start() {
+        coinbase.start();
+        firi.start();
+    }
+
+    public void stop() {
+        try {
+            coinbase.shutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        firi.stop();
+    }
+
+    public CoinbaseWebSocketSimulator getCoinbase() {
+        return coinbase;
+    }
+
+    public FiriRestSimulator getFiri() {
+        return firi;
+    }
+
+    public static void main(String[] args) throws IOException {
+        SimulatorConfig config = SimulatorConfig.fromArgs(args);
+        logger.info("Starting exchange simulator for {} (intermediates {}) at {} msg/s",
+                config.getProducts(), config.getIntermediates(), config.getMessagesPerSecond());
+
+        ExchangeSimulator simulator = new ExchangeSimulator(config);
+        Runtime.getRuntime().addShutdownHook(new Thread(simulator::stop));
+        simulator.start();
+
+        try {
+            while (true) {
+                Thread.sleep(REPORT_INTERVAL_MS);
+                logger.info("Coinbase - Sent: {}, Gaps: {}, Disconnects: {} | Firi - Requests: {}, Errors: {}",
+                        simulator.coinbase.getMessagesSent(),
+                        simulator.coinbase.getSequenceGaps(),
+                        simulator.coinbase.getDisconnects(),
+                        simulator.firi.getRequests(),
+                        simulator.firi.getInjectedErrors());
+            }
+        } catch (InterruptedException e) {
+            logger.info("Simulator interrupted");
+        }
+    }
+}
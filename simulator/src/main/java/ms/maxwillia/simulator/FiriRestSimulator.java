@@ -0,0 +1,225 @@
+package ms.maxwillia.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the subset of the Firi v2 REST API used by the collector and trader:
+ * /markets, /markets/{market}, /markets/{market}/ticker, /markets/{market}/depth, /orders and /balances.
+ * Every market is priced in NOK. Orders are filled immediately.
+ */
+public class FiriRestSimulator {
+    private static final Logger logger = LoggerFactory.getLogger(FiriRestSimulator.class);
+    private static final String SETTLEMENT_CURRENCY = "NOK";
+    private static final int DEPTH_LEVELS = 10;
+
+    private final SimulatorConfig config;
+    private final MarketModel marketModel;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+
+    public FiriRestSimulator(SimulatorConfig config, MarketModel marketModel) throws IOException {
+        this.config = config;
+        this.marketModel = marketModel;
+        this.server = HttpServer.create(new InetSocketAddress(config.getFiriPort()), 0);
+        this.executor = Executors.newFixedThreadPool(8, runnable -> {
+            Thread thread = new Thread(runnable, "FiriSimulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/v2", this::handle);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Firi REST simulator listening on port {}", server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            simulateLatency();
+            if (config.getErrorRate() > 0 && marketModel.nextDouble() < config.getErrorRate()) {
+                injectedErrors.incrementAndGet();
+                respond(exchange, 503, objectMapper.createObjectNode().put("name", "ServiceUnavailable"));
+                return;
+            }
+
+            String[] path = exchange.getRequestURI().getPath().replaceFirst("^/v2/?", "").split("/");
+            String method = exchange.getRequestMethod();
+            switch (path[0]) {
+                case "markets" -> handleMarkets(exchange, path);
+                case "orders" -> handleOrders(exchange, method);
+                case "balances" -> respond(exchange, 200, balances());
+                default -> respond(exchange, 404, objectMapper.createObjectNode().put("name", "NotFound"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, objectMapper.createObjectNode().put("name", "ServiceUnavailable"));
+        } catch (Exception e) {
+            logger.error("Error handling {}", exchange.getRequestURI(), e);
+            respond(exchange, 500, objectMapper.createObjectNode().put("name", "InternalError"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleMarkets(HttpExchange exchange, String[] path) throws IOException {
+        if (path.length == 1) {
+            ArrayNode markets = objectMapper.createArrayNode();
+            for (String market : markets()) {
+                markets.add(market(market));
+            }
+            respond(exchange, 200, markets);
+            return;
+        }
+        String market = path[1];
+        if (!markets().contains(market)) {
+            respond(exchange, 404, objectMapper.createObjectNode().put("name", "MarketNotFound"));
+            return;
+        }
+        if (path.length == 2) {
+            respond(exchange, 200, market(market));
+        } else if ("ticker".equals(path[2])) {
+            MarketModel.Quote quote = marketModel.nokQuote(baseCurrency(market));
+            ObjectNode ticker = objectMapper.createObjectNode();
+            ticker.put("bid", Double.toString(quote.bid()));
+            ticker.put("ask", Double.toString(quote.ask()));
+            ticker.put("spread", Double.toString(quote.ask() - quote.bid()));
+            respond(exchange, 200, ticker);
+        } else if ("depth".equals(path[2])) {
+            respond(exchange, 200, depth(market));
+        } else {
+            respond(exchange, 404, objectMapper.createObjectNode().put("name", "NotFound"));
+        }
+    }
+
+    private void handleOrders(HttpExchange exchange, String method) throws IOException {
+        if ("POST".equals(method)) {
+            JsonNode order = objectMapper.readTree(exchange.getRequestBody());
+            if (!order.hasNonNull("symbol") || !markets().contains(order.get("symbol").asText())) {
+                respond(exchange, 400, objectMapper.createObjectNode().put("name", "InvalidMarket"));
+                return;
+            }
+            long orderId = nextOrderId.getAndIncrement();
+            logger.debug("Created order {}: {}", orderId, order);
+            respond(exchange, 201, objectMapper.createObjectNode().put("id", orderId));
+        } else {
+            // Orders fill immediately so none are ever active
+            respond(exchange, 200, objectMapper.createArrayNode());
+        }
+    }
+
+    private List<String> markets() {
+        List<String> markets = new ArrayList<>();
+        for (String currency : config.getProducts()) {
+            markets.add(currency + SETTLEMENT_CURRENCY);
+        }
+        for (String currency : config.getIntermediates()) {
+            markets.add(currency + SETTLEMENT_CURRENCY);
+        }
+        return markets;
+    }
+
+    private ObjectNode market(String market) {
+        MarketModel.Quote quote = marketModel.nextNokQuote(baseCurrency(market));
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("id", market);
+        node.put("last", Double.toString(quote.last()));
+        node.put("high", Double.toString(quote.ask()));
+        node.put("change", "0");
+        node.put("low", Double.toString(quote.bid()));
+        node.put("volume", Double.toString(quote.volume24h()));
+        return node;
+    }
+
+    private ObjectNode depth(String market) {
+        MarketModel.Quote quote = marketModel.nokQuote(baseCurrency(market));
+        ObjectNode depth = objectMapper.createObjectNode();
+        ArrayNode bids = depth.putArray("bids");
+        ArrayNode asks = depth.putArray("asks");
+        double tick = quote.ask() - quote.bid();
+        for (int level = 0; level < DEPTH_LEVELS; level++) {
+            bids.addArray().add(quote.bid() - level * tick).add(quote.bidQuantity() + level);
+            asks.addArray().add(quote.ask() + level * tick).add(quote.askQuantity() + level);
+        }
+        return depth;
+    }
+
+    private ArrayNode balances() {
+        ArrayNode balances = objectMapper.createArrayNode();
+        List<String> currencies = new ArrayList<>(config.getProducts());
+        currencies.addAll(config.getIntermediates());
+        currencies.add(SETTLEMENT_CURRENCY);
+        for (String currency : currencies) {
+            balances.addObject()
+                    .put("currency", currency)
+                    .put("balance", "1000000")
+                    .put("hold", "0")
+                    .put("available", "1000000");
+        }
+        return balances;
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        long delayMs = config.getLatencyMs();
+        if (config.getJitterMs() > 0) {
+            delayMs += (long) (marketModel.nextDouble() * config.getJitterMs());
+        }
+        if (delayMs > 0) {
+            Thread.sleep(delayMs);
+        }
+    }
+
+    private void respond(HttpExchange exchange, int code, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static String baseCurrency(String market) {
+        return market.substring(0, market.length() - SETTLEMENT_CURRENCY.length());
+    }
+}
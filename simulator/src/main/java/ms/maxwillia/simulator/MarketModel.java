@@ -0,0 +1,90 @@
+package ms.maxwillia.simulator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Random-walk prices shared by both simulated exchanges, so quotes for the same asset stay
+ * close to each other across Coinbase (USD) and Firi (NOK).
+ */
+public class MarketModel {
+    private static final double NOK_PER_USD = 11.0;
+    private static final double SPREAD = 0.0002;
+    private static final double VOLATILITY = 0.0005;
+    private static final Map<String, Double> START_PRICES_USD = Map.of(
+            "BTC", 100000.0,
+            "ETH", 3500.0,
+            "SOL", 200.0,
+            "USDC", 1.0,
+            "USDT", 1.0);
+
+    /**
+     * Top of book for one product
+     */
+    public record Quote(double last, double bid, double bidQuantity, double ask, double askQuantity, double volume24h) {
+    }
+
+    private final Random random;
+    private final Map<String, Double> pricesUsd = new HashMap<>();
+    private final Map<String, Double> volumes = new HashMap<>();
+
+    public MarketModel(List<String> currencies, long seed) {
+        this.random = new Random(seed);
+        currencies.forEach(this::price);
+    }
+
+    /**
+     * Move the price of an asset one step and quote it in USD
+     */
+    public synchronized Quote nextUsdQuote(String currency) {
+        step(currency);
+        return quote(currency, 1.0);
+    }
+
+    /**
+     * Quote the current price of an asset in NOK
+     */
+    public synchronized Quote nokQuote(String currency) {
+        return quote(currency, NOK_PER_USD);
+    }
+
+    public synchronized Quote nextNokQuote(String currency) {
+        step(currency);
+        return quote(currency, NOK_PER_USD);
+    }
+
+    public synchronized double nextDouble() {
+        return random.nextDouble();
+    }
+
+    private double price(String currency) {
+        volumes.computeIfAbsent(currency, key -> 1000.0 + random.nextDouble() * 1000.0);
+        return pricesUsd.computeIfAbsent(currency, key -> START_PRICES_USD.getOrDefault(key, 100.0));
+    }
+
+    private void step(String currency) {
+        double price = price(currency);
+        // Stablecoins barely move
+        double volatility = START_PRICES_USD.getOrDefault(currency, 100.0) == 1.0 ? VOLATILITY / 10 : VOLATILITY;
+        pricesUsd.put(currency, price * (1 + random.nextGaussian() * volatility));
+        volumes.merge(currency, random.nextDouble(), Double::sum);
+    }
+
+    private Quote quote(String currency, double fxRate) {
+        double last = price(currency) * fxRate;
+        double halfSpread = last * SPREAD / 2;
+        return new Quote(
+                round(last),
+                round(last - halfSpread),
+                round(random.nextDouble() * 2),
+                round(last + halfSpread),
+                round(random.nextDouble() * 2),
+                round(volumes.get(currency)));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1e8) / 1e8;
+    }
+}
@@ -0,0 +1,80 @@
+package ms.maxwillia.simulator;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tunables for the exchange simulator. Every field can be given on the command line as --name=value
+ */
+@Getter
+@Builder(toBuilder = true)
+public class SimulatorConfig {
+    @Builder.Default
+    private int coinbasePort = 8765;
+    @Builder.Default
+    private int firiPort = 8766;
+    /** Asset currencies to quote, e.g. BTC,ETH */
+    @Builder.Default
+    private List<String> products = List.of("BTC");
+    /** Intermediate currencies quoted against NOK on Firi, e.g. USDC */
+    @Builder.Default
+    private List<String> intermediates = List.of("USDC");
+    /** Ticker messages per second, per product and connection */
+    @Builder.Default
+    private double messagesPerSecond = 10;
+    /** Fixed delay added to every message or response */
+    @Builder.Default
+    private long latencyMs = 0;
+    /** Uniformly distributed extra delay on top of latencyMs */
+    @Builder.Default
+    private long jitterMs = 0;
+    /** Close every WebSocket connection after this long, 0 to never disconnect */
+    @Builder.Default
+    private long disconnectIntervalMs = 0;
+    /** Probability of skipping a sequence number on each WebSocket message */
+    @Builder.Default
+    private double gapProbability = 0;
+    /** Probability of a REST request failing with 503 */
+    @Builder.Default
+    private double errorRate = 0;
+    /** Seed for the price model, so runs are reproducible */
+    @Builder.Default
+    private long seed = 42;
+
+    public static SimulatorConfig fromArgs(String[] args) {
+        SimulatorConfigBuilder builder = SimulatorConfig.builder();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "coinbase-port" -> builder.coinbasePort(Integer.parseInt(value));
+                case "firi-port" -> builder.firiPort(Integer.parseInt(value));
+                case "products" -> builder.products(splitList(value));
+                case "intermediates" -> builder.intermediates(splitList(value));
+                case "rate" -> builder.messagesPerSecond(Double.parseDouble(value));
+                case "latency-ms" -> builder.latencyMs(Long.parseLong(value));
+                case "jitter-ms" -> builder.jitterMs(Long.parseLong(value));
+                case "disconnect-ms" -> builder.disconnectIntervalMs(Long.parseLong(value));
+                case "gap-probability" -> builder.gapProbability(Double.parseDouble(value));
+                case "error-rate" -> builder.errorRate(Double.parseDouble(value));
+                case "seed" -> builder.seed(Long.parseLong(value));
+                default -> throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        return builder.build();
+    }
+
+    private static List<String> splitList(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .map(String::toUpperCase)
+                .toList();
+    }
+}
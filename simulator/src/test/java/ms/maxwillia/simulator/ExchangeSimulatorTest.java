@@ -0,0 +1,153 @@
+package ms.maxwillia.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExchangeSimulatorTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private final OkHttpClient httpClient = new OkHttpClient();
+    private ExchangeSimulator simulator;
+    private SimulatorConfig config;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        config = SimulatorConfig.builder()
+                .coinbasePort(freePort())
+                .firiPort(freePort())
+                .products(List.of("BTC", "ETH"))
+                .messagesPerSecond(50)
+                .build();
+        simulator = new ExchangeSimulator(config);
+        simulator.start();
+        Thread.sleep(200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulator.stop();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private JsonNode get(String path) throws IOException {
+        Request request = new Request.Builder().url("http://localhost:%d/v2%s".formatted(config.getFiriPort(), path)).build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            assertEquals(200, response.code(), path);
+            return objectMapper.readTree(response.body().string());
+        }
+    }
+
+    @Test
+    void testParseArgs() {
+        SimulatorConfig parsed = SimulatorConfig.fromArgs(new String[]{"--products=btc,eth", "--rate=250", "--gap-probability=0.01"});
+        assertEquals(List.of("BTC", "ETH"), parsed.getProducts());
+        assertEquals(250, parsed.getMessagesPerSecond());
+        assertEquals(0.01, parsed.getGapProbability());
+        assertThrows(IllegalArgumentException.class, () -> SimulatorConfig.fromArgs(new String[]{"--unknown=1"}));
+    }
+
+    @Test
+    void testFiriMarketData() throws IOException {
+        JsonNode markets = get("/markets");
+        assertEquals(3, markets.size());
+
+        JsonNode market = get("/markets/BTCNOK");
+        assertTrue(market.get("last").asDouble() > 0);
+        assertTrue(market.has("volume"));
+
+        JsonNode rate = get("/markets/USDCNOK");
+        assertTrue(rate.get("last").asDouble() > 0);
+
+        JsonNode depth = get("/markets/BTCNOK/depth");
+        double bestBid = depth.get("bids").get(0).get(0).asDouble();
+        double bestAsk = depth.get("asks").get(0).get(0).asDouble();
+        assertTrue(bestBid < bestAsk);
+
+        JsonNode ticker = get("/markets/ETHNOK/ticker");
+        assertTrue(ticker.has("bid") && ticker.has("ask"));
+    }
+
+    @Test
+    void testFiriCreateOrder() throws IOException {
+        Request request = new Request.Builder()
+                .url("http://localhost:%d/v2/orders".formatted(config.getFiriPort()))
+                .post(RequestBody.create("{\"symbol\":\"BTCNOK\",\"side\":\"bid\",\"price\":1,\"quantity\":1}",
+                        MediaType.get("application/json")))
+                .build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            assertEquals(201, response.code());
+            assertTrue(objectMapper.readTree(response.body().string()).get("id").asLong() > 0);
+        }
+    }
+
+    @Test
+    void testCoinbaseTickerSubscription() throws Exception {
+        BlockingQueue<JsonNode> messages = new LinkedBlockingQueue<>();
+        WebSocketClient client = new WebSocketClient(URI.create("ws://localhost:" + config.getCoinbasePort())) {
+            @Override
+            public void onOpen(ServerHandshake handshake) {
+                send("{\"type\":\"subscribe\",\"channel\":\"ticker\",\"product_ids\":[\"BTC-USD\"]}");
+            }
+
+            @Override
+            public void onMessage(String message) {
+                try {
+                    messages.add(objectMapper.readTree(message));
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+            }
+
+            @Override
+            public void onError(Exception ex) {
+            }
+        };
+        assertTrue(client.connectBlocking(1, TimeUnit.SECONDS));
+
+        JsonNode subscriptions = messages.poll(1, TimeUnit.SECONDS);
+        assertNotNull(subscriptions);
+        assertEquals("subscriptions", subscriptions.get("channel").asText());
+        assertEquals("BTC-USD", subscriptions.get("events").get(0).get("subscriptions").get("ticker").get(0).asText());
+
+        long lastSequence = subscriptions.get("sequence_num").asLong();
+        for (int i = 0; i < 5; i++) {
+            JsonNode ticker = messages.poll(1, TimeUnit.SECONDS);
+            assertNotNull(ticker);
+            assertEquals("ticker", ticker.get("channel").asText());
+            assertEquals(lastSequence + 1, ticker.get("sequence_num").asLong());
+            JsonNode tick = ticker.get("events").get(0).get("tickers").get(0);
+            assertEquals("BTC-USD", tick.get("product_id").asText());
+            assertTrue(tick.get("best_bid").asDouble() < tick.get("best_ask").asDouble());
+            lastSequence = ticker.get("sequence_num").asLong();
+        }
+        client.closeBlocking();
+    }
+}